@@ -35,6 +35,7 @@ export const ShopProvider = ({ children }) => {
             id: item.id,
             quantity: item.quantity,
             size: item.size || item.selectedSize || null,
+            color: item.color || item.selectedColor || null,
           }))
         )
       );
@@ -114,6 +115,7 @@ export const ShopProvider = ({ children }) => {
               ...item.product,
               quantity: item.quantity,
               size: item.size,
+              color: item.variant?.color || null,
             }));
             setCart(formattedCart);
           }
@@ -147,7 +149,7 @@ export const ShopProvider = ({ children }) => {
       if (snapshot.length > 0 && loadedCart.length === 0) {
         for (const item of snapshot) {
           try {
-            await cartService.addToCart(userData.userId, item.id, item.quantity, item.size);
+            await cartService.addToCart(userData.userId, item.id, item.quantity, item.size, item.color);
           } catch (e) {
             console.warn('Failed to re-add snapshot item after login', e);
           }
@@ -198,6 +200,7 @@ export const ShopProvider = ({ children }) => {
           ...item.product,
           quantity: item.quantity,
           size: item.size, // Get size from backend cart item
+          color: item.variant?.color || null,
         }));
         setCart(formattedCart);
         if (!user?.userId) {
@@ -229,8 +232,9 @@ export const ShopProvider = ({ children }) => {
 
     try {
       // Call backend first; rely on cart snapshot from server
-      // Pass quantity and selectedSize if available
-      await cartService.addToCart(effectiveUserId, product.id, quantity, product.selectedSize);
+      // Pass quantity, selectedSize and selectedColor if available
+      await cartService.addToCart(effectiveUserId, product.id, quantity, product.selectedSize,
+        product.selectedColor);
       await loadCart(effectiveUserId);
       if (!user?.userId) {
         saveGuestSnapshot(cart);
@@ -72,6 +72,7 @@ const ProductDetails = () => {
 
   const [product, setProduct] = useState(null);
   const [selectedSize, setSelectedSize] = useState('');
+  const [selectedColor, setSelectedColor] = useState('');
   const [selectedImage, setSelectedImage] = useState('');
   const [selectedQuantity, setSelectedQuantity] = useState(1);
   const [loading, setLoading] = useState(true);
@@ -378,6 +379,10 @@ const ProductDetails = () => {
     images: [],
   };
 
+  // Colors the product's variants come in; with more than one the shopper has to pick
+  const colors = [...new Set((displayProduct.variants || []).map((v) => v.color).filter(Boolean))];
+  const cartColor = selectedColor || (colors.length === 1 ? colors[0] : undefined);
+
   const images = displayProduct.images?.length > 0 ? displayProduct.images : defaultImages;
   const currentImage = selectedImage || images[0]?.url;
 
@@ -502,6 +507,27 @@ const ProductDetails = () => {
             {/* Stock Status */}
             <div className={`text-sm font-semibold ${stockClass}`}>{stockMessage}</div>
 
+            {/* Colors */}
+            {colors.length > 1 && (
+              <div>
+                <div className="flex gap-3">
+                  {colors.map((color) => (
+                    <button
+                      key={color}
+                      onClick={() => setSelectedColor(color)}
+                      className={`px-3 h-12 flex items-center justify-center border border-black text-sm font-medium transition-colors ${
+                        selectedColor === color
+                          ? 'bg-black text-white'
+                          : 'bg-transparent text-black hover:bg-gray-100'
+                      }`}
+                    >
+                      {color}
+                    </button>
+                  ))}
+                </div>
+              </div>
+            )}
+
             {/* Sizes */}
             <div>
               <div className="flex gap-3">
@@ -572,7 +598,7 @@ const ProductDetails = () => {
               (() => {
                 const inCartQuantity = getCartQuantityForProduct(displayProduct.id);
                 const availableToAdd = displayProduct.stock - inCartQuantity;
-                const isDisabled = displayProduct.stock === 0 || availableToAdd <= 0;
+                const isDisabled = displayProduct.stock === 0 || availableToAdd <= 0 || (colors.length > 1 && !cartColor);
 
                 return (
                   <div className="flex items-center gap-3">
@@ -580,7 +606,7 @@ const ProductDetails = () => {
                       onClick={() => {
                         const actualQty = Math.min(selectedQuantity, availableToAdd);
                         if (actualQty > 0) {
-                          addToCart({ ...displayProduct, selectedSize }, actualQty);
+                          addToCart({ ...displayProduct, selectedSize, selectedColor: cartColor }, actualQty);
                           setSelectedQuantity(1);
                         }
                       }}
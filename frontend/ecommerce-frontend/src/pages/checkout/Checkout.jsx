@@ -152,6 +152,7 @@ const Checkout = () => {
                         ? item.discountedPrice
                         : item.price,
                     size: item.selectedSize || item.size,
+                    color: item.selectedColor || item.color,
                     productName: item.name
                 })),
                 totalPrice: total,
@@ -271,12 +271,16 @@ export const reviewService = {
 
 // UPDATED: Matches CartController.java exactly
 export const cartService = {
-  // POST /cart/add?userId=...&productId=...&quantity=...&size=...
-  addToCart: async (userId, productId, quantity, size) => {
+  // POST /cart/add?userId=...&productId=...&quantity=...&size=...&color=...
+  // color and size pick the variant of products that have variants
+  addToCart: async (userId, productId, quantity, size, color) => {
     const params = { userId, productId, quantity };
     if (size) {
       params.size = size;
     }
+    if (color) {
+      params.color = color;
+    }
     return await api.post(`/cart/add`, null, { params });
   },
 
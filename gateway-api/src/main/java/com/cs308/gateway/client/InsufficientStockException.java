@@ -0,0 +1,10 @@
+package com.cs308.gateway.client;
+
+/**
+ * product-api rejected an order's stock reduction; nothing was decremented.
+ */
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,13 +1,25 @@
 package com.cs308.gateway.client;
 
 import com.cs308.gateway.model.product.Cart;
+import com.cs308.gateway.model.product.DiscountCampaignRequest;
+import com.cs308.gateway.model.product.DiscountCampaignResult;
 import com.cs308.gateway.model.product.Product;
+import com.cs308.gateway.model.product.ProductFacets;
 import com.cs308.gateway.model.product.ProductFilterRequest;
+import com.cs308.gateway.model.product.ProductPage;
 import com.cs308.gateway.model.product.ProductPriceUpdateRequest;
+import com.cs308.gateway.model.product.ProductSuggestion;
+import com.cs308.gateway.model.product.ProductSummary;
+import com.cs308.gateway.model.product.StockReductionRequest;
+import com.cs308.gateway.model.product.ReservationConfirmRequest;
+import com.cs308.gateway.model.product.StockReservation;
+import com.cs308.gateway.model.product.StockReservationRequest;
 import com.cs308.gateway.model.product.StockRestoreRequest;
+import com.cs308.gateway.model.product.enums.Color;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
@@ -16,41 +28,31 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
 public class ProductClient {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final RestTemplate restTemplate;
 
     public ProductClient(@Qualifier("productRestTemplate") RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
 
-    public List<Product> listProducts(ProductFilterRequest filter) {
+    /**
+     * @throws IllegalArgumentException if product-api rejects the filter or
+     *                                  cursor
+     */
+    public ProductPage<Product> listProducts(ProductFilterRequest filter) {
         log.debug("Calling product service: GET /products with filter: {}", filter);
 
         try {
-            UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath("/products");
-            if (filter.getQ() != null) {
-                uriBuilder.queryParam("q", filter.getQ());
-            }
-            if (filter.getCategory() != null) {
-                uriBuilder.queryParam("category", filter.getCategory());
-            }
-            if (filter.getGender() != null) {
-                uriBuilder.queryParam("gender", filter.getGender());
-            }
-            if (filter.getTargetAudience() != null) {
-                uriBuilder.queryParam("targetAudience", filter.getTargetAudience());
-            }
-            if (filter.getColor() != null) {
-                uriBuilder.queryParam("color", filter.getColor());
-            }
-            if (filter.getSort() != null) {
-                uriBuilder.queryParam("sort", filter.getSort());
-            }
+            UriComponentsBuilder uriBuilder = withFilter(UriComponentsBuilder.fromPath("/products"), filter);
 
             ResponseEntity<List<Product>> response = restTemplate.exchange(
                     uriBuilder.toUriString(),
@@ -59,13 +61,77 @@ public class ProductClient {
                     new ParameterizedTypeReference<List<Product>>() {
                     });
 
-            return response.getBody();
+            return new ProductPage<>(response.getBody(),
+                    response.getHeaders().getFirst(NEXT_CURSOR_HEADER));
+        } catch (HttpClientErrorException.BadRequest e) {
+            // e.g. a malformed or expired cursor
+            throw new IllegalArgumentException("Invalid product listing request", e);
         } catch (RestClientException e) {
             log.error("Error calling product service for list products", e);
             throw new RuntimeException("Failed to fetch products", e);
         }
     }
 
+    public ProductPage<ProductSummary> listProductSummaries(ProductFilterRequest filter) {
+        log.debug("Calling product service: GET /products?view=summary with filter: {}", filter);
+
+        try {
+            UriComponentsBuilder uriBuilder = withFilter(UriComponentsBuilder.fromPath("/products"), filter)
+                    .queryParam("view", "summary");
+
+            ResponseEntity<List<ProductSummary>> response = restTemplate.exchange(
+                    uriBuilder.toUriString(),
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<List<ProductSummary>>() {
+                    });
+
+            return new ProductPage<>(response.getBody(),
+                    response.getHeaders().getFirst(NEXT_CURSOR_HEADER));
+        } catch (HttpClientErrorException.BadRequest e) {
+            // e.g. a malformed or expired cursor
+            throw new IllegalArgumentException("Invalid product listing request", e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service for product summaries", e);
+            throw new RuntimeException("Failed to fetch products", e);
+        }
+    }
+
+    public ProductFacets getFacets(ProductFilterRequest filter) {
+        log.debug("Calling product service: GET /products/facets with filter: {}", filter);
+
+        try {
+            String uri = withFilter(UriComponentsBuilder.fromPath("/products/facets"), filter).toUriString();
+            return restTemplate.getForObject(uri, ProductFacets.class);
+        } catch (RestClientException e) {
+            log.error("Error calling product service for facets", e);
+            throw new RuntimeException("Failed to fetch facets", e);
+        }
+    }
+
+    public List<ProductSuggestion> getSuggestions(String prefix, Integer limit) {
+        log.debug("Calling product service: GET /products/suggest - prefix: {}, limit: {}", prefix, limit);
+
+        try {
+            UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath("/products/suggest")
+                    .queryParam("prefix", prefix);
+            if (limit != null) {
+                uriBuilder.queryParam("limit", limit);
+            }
+
+            ResponseEntity<List<ProductSuggestion>> response = restTemplate.exchange(
+                    uriBuilder.toUriString(),
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<List<ProductSuggestion>>() {
+                    });
+            return response.getBody();
+        } catch (RestClientException e) {
+            log.error("Error calling product service for suggestions", e);
+            throw new RuntimeException("Failed to fetch suggestions", e);
+        }
+    }
+
     public Product getProduct(Long id) {
         log.debug("Calling product service: GET /products/{}", id);
 
@@ -84,9 +150,9 @@ public class ProductClient {
         }
     }
 
-    public Cart addToCart(Long userId, Long productId, Integer quantity, String size) {
-        log.debug("Calling product service: POST /cart/add - userId: {}, productId: {}, quantity: {}, size: {}",
-                userId, productId, quantity, size);
+    public Cart addToCart(Long userId, Long productId, Integer quantity, String size, Color color) {
+        log.debug("Calling product service: POST /cart/add - userId: {}, productId: {}, quantity: {}, size: {}, color: {}",
+                userId, productId, quantity, size, color);
 
         try {
             UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/cart/add")
@@ -97,6 +163,9 @@ public class ProductClient {
             if (size != null && !size.isEmpty()) {
                 builder.queryParam("size", size);
             }
+            if (color != null) {
+                builder.queryParam("color", color);
+            }
 
             String uri = builder.toUriString();
 
@@ -247,6 +316,24 @@ public class ProductClient {
         }
     }
 
+    /**
+     * Applies a discount to every product matching the campaign's selector.
+     *
+     * @throws IllegalArgumentException if product-api rejects the selector
+     */
+    public DiscountCampaignResult applyDiscountCampaign(DiscountCampaignRequest request) {
+        log.debug("Calling product service: POST /products/discount-campaigns - {}", request);
+
+        try {
+            return restTemplate.postForObject("/products/discount-campaigns", request, DiscountCampaignResult.class);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException("Invalid discount campaign", e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to apply discount campaign", e);
+            throw new RuntimeException("Failed to apply discount campaign", e);
+        }
+    }
+
     // ==================== REVIEW METHODS ====================
 
     public Object addReview(Long userId, Object reviewRequest) {
@@ -287,6 +374,24 @@ public class ProductClient {
         }
     }
 
+    /**
+     * One keyset page of a product's reviews, newest first; the cursor for
+     * the next page comes back in the X-Next-Cursor header.
+     */
+    public ProductPage<?> getProductReviewsPage(Long productId, String cursor, Integer limit) {
+        log.debug("Calling product service: GET /reviews/product/{} (cursor: {}, limit: {})",
+                productId, cursor, limit);
+
+        try {
+            return getReviewsPage("/reviews/product/{productId}", cursor, limit, productId);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException("Invalid review cursor", e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to get reviews", e);
+            throw new RuntimeException("Failed to get reviews", e);
+        }
+    }
+
     public List<?> getPendingReviews() {
         log.debug("Calling product service: GET /reviews/pending");
 
@@ -303,6 +408,61 @@ public class ProductClient {
         }
     }
 
+    /**
+     * One keyset page of the moderation queue, oldest first.
+     */
+    public ProductPage<?> getPendingReviewsPage(String cursor, Integer limit) {
+        log.debug("Calling product service: GET /reviews/pending (cursor: {}, limit: {})", cursor, limit);
+
+        try {
+            return getReviewsPage("/reviews/pending", cursor, limit);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException("Invalid review cursor", e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to get pending reviews", e);
+            throw new RuntimeException("Failed to get pending reviews", e);
+        }
+    }
+
+    /**
+     * Approves or disapproves a batch of reviews in one product-api call.
+     *
+     * @param action "approve" or "disapprove"
+     * @param request body holding the {@code reviewIds}
+     */
+    public Object moderateReviews(String action, Object request) {
+        log.debug("Calling product service: POST /reviews/{}", action);
+
+        try {
+            return restTemplate.postForObject("/reviews/{action}", request, Object.class, action);
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException("Invalid review id list", e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to {} reviews", action, e);
+            throw new RuntimeException("Failed to " + action + " reviews", e);
+        }
+    }
+
+    private ProductPage<?> getReviewsPage(String path, String cursor, Integer limit, Object... uriVariables) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath(path);
+        if (cursor != null) {
+            uriBuilder.queryParam("cursor", cursor);
+        }
+        if (limit != null) {
+            uriBuilder.queryParam("limit", limit);
+        }
+
+        ResponseEntity<List<Object>> response = restTemplate.exchange(
+                uriBuilder.buildAndExpand(uriVariables).toUriString(),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Object>>() {
+                });
+
+        return new ProductPage<>(response.getBody(),
+                response.getHeaders().getFirst(NEXT_CURSOR_HEADER));
+    }
+
     public Object approveReview(Long reviewId) {
         log.debug("Calling product service: PUT /reviews/{}/approve", reviewId);
 
@@ -385,6 +545,92 @@ public class ProductClient {
         }
     }
 
+    /**
+     * Decrements stock for all lines in one product-api transaction; when it
+     * fails nothing is changed.
+     *
+     * @throws InsufficientStockException if a line is out of stock (409)
+     * @throws IllegalArgumentException   if product-api rejects the request
+     *                                    otherwise, e.g. an unknown product
+     */
+    public void reduceStockBatch(StockReductionRequest request) {
+        log.debug("Calling product service: POST /products/stock/reduce-batch with {} lines",
+                request.getItems().size());
+
+        try {
+            restTemplate.postForEntity("/products/stock/reduce-batch", request, Void.class);
+        } catch (HttpClientErrorException.Conflict e) {
+            log.warn("Product service rejected stock reduction: {}", e.getResponseBodyAsString());
+            throw new InsufficientStockException("Insufficient stock for order", e);
+        } catch (HttpClientErrorException e) {
+            throw new IllegalArgumentException("Invalid stock reduction: " + e.getResponseBodyAsString(), e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to reduce stock", e);
+            throw new RuntimeException("Failed to reduce stock", e);
+        }
+    }
+
+    public StockReservation reserveStock(StockReservationRequest request) {
+        log.debug("Calling product service: POST /products/reservations for userId {} with {} lines",
+                request.getUserId(), request.getItems().size());
+
+        try {
+            return restTemplate.postForObject("/products/reservations", request, StockReservation.class);
+        } catch (HttpClientErrorException.Conflict e) {
+            log.warn("Product service rejected stock reservation: {}", e.getResponseBodyAsString());
+            throw new InsufficientStockException("Insufficient stock for cart", e);
+        } catch (HttpClientErrorException e) {
+            throw new IllegalArgumentException("Invalid stock reservation: " + e.getResponseBodyAsString(), e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to reserve stock", e);
+            throw new RuntimeException("Failed to reserve stock", e);
+        }
+    }
+
+    /**
+     * Turns a reservation into a real stock decrement.
+     *
+     * @return false if the reservation is unknown, has expired, belongs to
+     *         another user or holds different lines than the order (product-api
+     *         drops such a hold)
+     */
+    public boolean confirmReservation(String reservationId, Long userId, StockReductionRequest order) {
+        log.debug("Calling product service: POST /products/reservations/{}/confirm for userId {}",
+                reservationId, userId);
+
+        try {
+            restTemplate.postForEntity("/products/reservations/{id}/confirm",
+                    new ReservationConfirmRequest(userId, order.getItems()), Void.class, reservationId);
+            return true;
+        } catch (HttpClientErrorException.NotFound e) {
+            return false;
+        } catch (HttpClientErrorException.UnprocessableEntity e) {
+            log.warn("Reservation {} does not match the order: {}", reservationId, e.getResponseBodyAsString());
+            return false;
+        } catch (HttpClientErrorException.Conflict e) {
+            log.warn("Product service rejected reservation confirm: {}", e.getResponseBodyAsString());
+            throw new InsufficientStockException("Insufficient stock for order", e);
+        } catch (HttpClientErrorException e) {
+            throw new IllegalArgumentException("Invalid reservation confirm: " + e.getResponseBodyAsString(), e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to confirm reservation", e);
+            throw new RuntimeException("Failed to confirm stock reservation", e);
+        }
+    }
+
+    public void releaseReservation(String reservationId, Long userId) {
+        log.debug("Calling product service: DELETE /products/reservations/{} for userId {}", reservationId, userId);
+
+        try {
+            restTemplate.delete("/products/reservations/{id}?userId={userId}", reservationId, userId);
+        } catch (HttpClientErrorException.NotFound e) {
+            log.debug("Reservation {} was already released, expired or is not the user's", reservationId);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to release reservation", e);
+            throw new RuntimeException("Failed to release stock reservation", e);
+        }
+    }
+
     // ==================== WISHLIST METHODS ====================
 
     public com.cs308.gateway.model.product.Wishlist addToWishlist(Long userId, Long productId, String size) {
@@ -473,6 +719,27 @@ public class ProductClient {
         }
     }
 
+    /**
+     * getUsersWithProductInWishlist() for many products in one call, keyed by
+     * product ID.
+     */
+    public Map<Long, List<Long>> getUsersWithProductsInWishlist(Collection<Long> productIds) {
+        log.debug("Calling product service: POST /wishlist/users-with-products for {} products", productIds.size());
+
+        try {
+            ResponseEntity<Map<Long, List<Long>>> response = restTemplate.exchange(
+                    "/wishlist/users-with-products",
+                    HttpMethod.POST,
+                    new HttpEntity<>(productIds),
+                    new ParameterizedTypeReference<Map<Long, List<Long>>>() {
+                    });
+            return response.getBody() != null ? response.getBody() : Map.of();
+        } catch (RestClientException e) {
+            log.error("Error calling product service to get users with products in wishlist", e);
+            return Map.of(); // Don't fail the campaign over its notifications
+        }
+    }
+
     // ==================== PRODUCT MANAGEMENT METHODS ====================
 
     public Product addProduct(com.cs308.gateway.model.product.CreateProductRequest request) {
@@ -529,6 +796,20 @@ public class ProductClient {
         }
     }
 
+    public void deleteProducts(List<Long> ids) {
+        log.debug("Calling product service: DELETE /products for {} ids", ids.size());
+
+        try {
+            String uri = UriComponentsBuilder.fromPath("/products")
+                    .queryParam("ids", ids.toArray())
+                    .toUriString();
+            restTemplate.exchange(uri, HttpMethod.DELETE, null, Void.class);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to delete {} products", ids.size(), e);
+            throw new RuntimeException("Failed to delete products", e);
+        }
+    }
+
     public Product updateStock(Long id, Integer quantity) {
         log.debug("Calling product service: PUT /products/{} with stock {}", id, quantity);
 
@@ -548,12 +829,37 @@ public class ProductClient {
         } catch (HttpClientErrorException.NotFound e) {
             log.warn("Product not found with id: {}", id);
             return null;
+        } catch (HttpClientErrorException.BadRequest e) {
+            // e.g. a product with variants, whose stock is set per variant
+            throw new IllegalArgumentException("Invalid stock update: " + e.getResponseBodyAsString(), e);
         } catch (RestClientException e) {
             log.error("Error calling product service to update stock for id: {}", id, e);
             throw new RuntimeException("Failed to update stock", e);
         }
     }
 
+    public Product updateVariantStock(Long id, Long variantId, Integer quantity) {
+        log.debug("Calling product service: PUT /products/{}/variants/{}/stock with stock {}", id, variantId, quantity);
+
+        try {
+            ResponseEntity<Product> response = restTemplate.exchange(
+                    "/products/{id}/variants/{variantId}/stock?stock={stock}",
+                    HttpMethod.PUT,
+                    null,
+                    Product.class,
+                    id, variantId, quantity);
+            return response.getBody();
+        } catch (HttpClientErrorException.NotFound e) {
+            log.warn("Product not found with id: {}", id);
+            return null;
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException("Invalid variant stock update: " + e.getResponseBodyAsString(), e);
+        } catch (RestClientException e) {
+            log.error("Error calling product service to update stock of variant {} of product {}", variantId, id, e);
+            throw new RuntimeException("Failed to update variant stock", e);
+        }
+    }
+
     public String uploadImage(byte[] fileBytes, String filename, String contentType) {
         log.debug("Calling product service: POST /images/upload");
 
@@ -644,4 +950,47 @@ public class ProductClient {
             throw new RuntimeException("Failed to delete category", e);
         }
     }
+
+    /**
+     * Copies the listing filters (shared by /products and /products/facets) onto the URI.
+     */
+    private static UriComponentsBuilder withFilter(UriComponentsBuilder uriBuilder, ProductFilterRequest filter) {
+        if (filter.getQ() != null) {
+            uriBuilder.queryParam("q", filter.getQ());
+        }
+        if (filter.getCategory() != null) {
+            uriBuilder.queryParam("category", filter.getCategory());
+        }
+        if (filter.getGender() != null) {
+            uriBuilder.queryParam("gender", filter.getGender());
+        }
+        if (filter.getTargetAudience() != null) {
+            uriBuilder.queryParam("targetAudience", filter.getTargetAudience());
+        }
+        if (filter.getColor() != null) {
+            uriBuilder.queryParam("color", filter.getColor());
+        }
+        if (filter.getMinPrice() != null) {
+            uriBuilder.queryParam("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            uriBuilder.queryParam("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.getInStock() != null) {
+            uriBuilder.queryParam("inStock", filter.getInStock());
+        }
+        if (filter.getOnSale() != null) {
+            uriBuilder.queryParam("onSale", filter.getOnSale());
+        }
+        if (filter.getSort() != null) {
+            uriBuilder.queryParam("sort", filter.getSort());
+        }
+        if (filter.getCursor() != null) {
+            uriBuilder.queryParam("cursor", filter.getCursor());
+        }
+        if (filter.getLimit() != null) {
+            uriBuilder.queryParam("limit", filter.getLimit());
+        }
+        return uriBuilder;
+    }
 }
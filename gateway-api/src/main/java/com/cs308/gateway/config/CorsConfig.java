@@ -19,7 +19,7 @@ public class CorsConfig {
     private List<String> allowedOrigins = List.of("http://localhost:3000", "http://localhost:5173", "http://localhost:5174");
     private List<String> allowedMethods = Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
     private String allowedHeaders = "*";
-    private String exposedHeaders = "X-Request-Id";
+    private String exposedHeaders = "X-Request-Id,X-Next-Cursor";
     private boolean allowCredentials = true;
 
     @Bean
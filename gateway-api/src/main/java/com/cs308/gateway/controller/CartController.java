@@ -1,15 +1,20 @@
 package com.cs308.gateway.controller;
 
 import com.cs308.gateway.model.auth.enums.UserType;
+import com.cs308.gateway.client.InsufficientStockException;
 import com.cs308.gateway.model.product.Cart;
+import com.cs308.gateway.model.product.StockReservation;
+import com.cs308.gateway.model.product.enums.Color;
 import com.cs308.gateway.security.RequiresRole;
 import com.cs308.gateway.security.SecurityContext;
 import com.cs308.gateway.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -34,9 +39,10 @@ public class CartController {
             @RequestParam(required = false) Long userId,
             @RequestParam Long productId,
             @RequestParam(defaultValue = "1") Integer quantity,
-            @RequestParam(required = false) String size) {
-        log.info("BFF: Add to cart request received - userId: {}, productId: {}, quantity: {}, size: {}",
-                userId, productId, quantity, size);
+            @RequestParam(required = false) String size,
+            @RequestParam(required = false) Color color) {
+        log.info("BFF: Add to cart request received - userId: {}, productId: {}, quantity: {}, size: {}, color: {}",
+                userId, productId, quantity, size, color);
 
         try {
             // If user is authenticated, use their ID; otherwise use provided userId (for
@@ -49,7 +55,7 @@ public class CartController {
                 return ResponseEntity.badRequest().build();
             }
 
-            Cart cart = productService.addToCart(actualUserId, productId, quantity, size);
+            Cart cart = productService.addToCart(actualUserId, productId, quantity, size, color);
             return ResponseEntity.ok(cart);
         } catch (RuntimeException e) {
             log.error("Error processing add to cart request", e);
@@ -148,4 +154,43 @@ public class CartController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    // Holds the cart's stock while the customer completes checkout; pass the
+    // returned id as reservationId when creating the order
+    @PostMapping("/reserve")
+    public ResponseEntity<StockReservation> reserveCart(@AuthenticationPrincipal SecurityContext securityContext) {
+        if (securityContext == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.info("BFF: Reserve cart request received for userId: {}", securityContext.getUserId());
+
+        try {
+            return ResponseEntity.ok(productService.reserveCart(securityContext.getUserId()));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.error("Error reserving cart", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @DeleteMapping("/reserve/{reservationId}")
+    public ResponseEntity<Void> releaseReservation(@AuthenticationPrincipal SecurityContext securityContext,
+            @PathVariable String reservationId) {
+        if (securityContext == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.info("BFF: Release reservation request received: {} for userId: {}", reservationId,
+                securityContext.getUserId());
+
+        try {
+            productService.releaseReservation(securityContext.getUserId(), reservationId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            log.error("Error releasing reservation {}", reservationId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 }
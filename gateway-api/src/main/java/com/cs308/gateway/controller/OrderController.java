@@ -1,5 +1,6 @@
 package com.cs308.gateway.controller;
 
+import com.cs308.gateway.client.InsufficientStockException;
 import com.cs308.gateway.model.auth.enums.UserType;
 import com.cs308.gateway.model.product.Order;
 import com.cs308.gateway.security.RequiresRole;
@@ -10,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -38,6 +40,12 @@ public class OrderController {
         try {
             Order order = orderService.createOrder(userId, email, request);
             return ResponseEntity.ok(order);
+        } catch (InsufficientStockException e) {
+            log.warn("Order rejected for user {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Order rejected for user {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             log.error("Error processing place order request", e);
             return ResponseEntity.internalServerError().build();
@@ -1,9 +1,14 @@
 package com.cs308.gateway.controller;
 
+import com.cs308.gateway.client.ProductClient;
 import com.cs308.gateway.model.auth.enums.UserType;
 import com.cs308.gateway.model.product.CreateProductRequest;
 import com.cs308.gateway.model.product.Product;
+import com.cs308.gateway.model.product.ProductFacets;
 import com.cs308.gateway.model.product.ProductFilterRequest;
+import com.cs308.gateway.model.product.ProductPage;
+import com.cs308.gateway.model.product.ProductSuggestion;
+import com.cs308.gateway.model.product.ProductSummary;
 import com.cs308.gateway.model.product.ProductUpdateRequest;
 import com.cs308.gateway.security.RequiresRole;
 import com.cs308.gateway.service.ProductService;
@@ -31,16 +36,68 @@ public class ProductController {
         log.info("BFF: List products request received with filter: {}", filter);
 
         try {
-            List<Product> products = productService.listProducts(filter);
-            return ResponseEntity.ok(products);
+            ProductPage<Product> page = productService.listProducts(filter);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(ProductClient.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             log.error("Error processing list products request", e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
-    // Anyone can view product details
-    @GetMapping("/{id}")
+    // Product tiles: same filters/paging as listProducts, but ProductSummary items
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<ProductSummary>> listProductSummaries(
+            @ModelAttribute ProductFilterRequest filter) {
+        log.info("BFF: List product summaries request received with filter: {}", filter);
+
+        try {
+            ProductPage<ProductSummary> page = productService.listProductSummaries(filter);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(ProductClient.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.error("Error processing list product summaries request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Filter sidebar counts for the same query parameters as the listing
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacets> facets(@ModelAttribute ProductFilterRequest filter) {
+        try {
+            return ResponseEntity.ok(productService.getFacets(filter));
+        } catch (RuntimeException e) {
+            log.error("Error processing facets request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Typeahead for the search box; declared before /{id} so "suggest" is not read as an id
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggest(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(productService.getSuggestions(prefix, limit));
+        } catch (RuntimeException e) {
+            log.error("Error processing suggestions request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Anyone can view product details. Numeric ids only, so /export is left
+    // to the product-bulk route
+    @GetMapping("/{id:\\d+}")
     public ResponseEntity<Product> getProduct(@PathVariable Long id) {
         log.info("BFF: Get product request received for id: {}", id);
 
@@ -108,6 +165,21 @@ public class ProductController {
         }
     }
 
+    // Product Manager only - Delete several products at once
+    @DeleteMapping(params = "ids")
+    @RequiresRole({ UserType.PRODUCT_MANAGER })
+    public ResponseEntity<Void> deleteProducts(@RequestParam List<Long> ids) {
+        log.info("BFF: Bulk delete request received for {} products", ids.size());
+
+        try {
+            productService.deleteProducts(ids);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            log.error("Error processing bulk delete request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // Product Manager only - Manage stock
     @PutMapping("/{id}/stock")
     @RequiresRole({ UserType.PRODUCT_MANAGER })
@@ -132,6 +204,33 @@ public class ProductController {
         }
     }
 
+    // Product Manager only - Manage the stock of one variant; the product's
+    // stock is the sum over its variants
+    @PutMapping("/{id}/variants/{variantId}/stock")
+    @RequiresRole({ UserType.PRODUCT_MANAGER })
+    public ResponseEntity<Product> updateVariantStock(
+            @PathVariable Long id,
+            @PathVariable Long variantId,
+            @RequestParam Integer quantity) {
+        log.info("BFF: Update variant stock request received for product id: {}, variant id: {}, quantity: {}",
+                id, variantId, quantity);
+
+        try {
+            Product updated = productService.updateVariantStock(id, variantId, quantity);
+            if (updated != null) {
+                return ResponseEntity.ok(updated);
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid variant stock update request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.error("Error processing update variant stock request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // ==================== CATEGORY MANAGEMENT ====================
 
     // Anyone can view categories
@@ -2,6 +2,7 @@ package com.cs308.gateway.controller;
 
 import com.cs308.gateway.client.ProductClient;
 import com.cs308.gateway.model.auth.enums.UserType;
+import com.cs308.gateway.model.product.ProductPage;
 import com.cs308.gateway.security.SecurityContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -39,11 +40,22 @@ public class ReviewController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    // Anyone can view reviews (no authentication required)
+    // Anyone can view reviews (no authentication required). With ?limit= and/or
+    // ?cursor= one page is returned and the next page's cursor is in X-Next-Cursor
     @GetMapping("/product/{productId}")
-    public ResponseEntity<?> getProductReviews(@PathVariable Long productId) {
-        log.info("BFF: Get reviews request for product: {}", productId);
-        return ResponseEntity.ok(productClient.getProductReviews(productId));
+    public ResponseEntity<?> getProductReviews(@PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("BFF: Get reviews request for product: {} (cursor: {}, limit: {})", productId, cursor, limit);
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(productClient.getProductReviews(productId));
+        }
+
+        try {
+            return pageResponse(productClient.getProductReviewsPage(productId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get review stats (average rating, count)
@@ -60,16 +72,43 @@ public class ReviewController {
         return ResponseEntity.ok(productClient.getRecentReviews());
     }
 
-    // Product Manager - Get pending reviews for approval
+    // Product Manager - Get pending reviews for approval, oldest first; paged
+    // like the product listing when ?limit= or ?cursor= is given
     @GetMapping("/pending")
     public ResponseEntity<?> getPendingReviews(
-            @AuthenticationPrincipal SecurityContext securityContext) {
+            @AuthenticationPrincipal SecurityContext securityContext,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         if (securityContext.getUserType() != UserType.PRODUCT_MANAGER) {
             log.warn("Unauthorized access to pending reviews by user: {}", securityContext.getUserId());
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only Product Managers can view pending reviews");
         }
         log.info("BFF: Get pending reviews request from Product Manager: {}", securityContext.getUserId());
-        return ResponseEntity.ok(productClient.getPendingReviews());
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(productClient.getPendingReviews());
+        }
+
+        try {
+            return pageResponse(productClient.getPendingReviewsPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Product Manager - approve a batch of reviews ({"reviewIds": [...]})
+    @PostMapping("/approve")
+    public ResponseEntity<?> approveReviews(
+            @AuthenticationPrincipal SecurityContext securityContext,
+            @RequestBody Object request) {
+        return moderateReviews(securityContext, "approve", request);
+    }
+
+    // Product Manager - disapprove a batch of reviews ({"reviewIds": [...]})
+    @PostMapping("/disapprove")
+    public ResponseEntity<?> disapproveReviews(
+            @AuthenticationPrincipal SecurityContext securityContext,
+            @RequestBody Object request) {
+        return moderateReviews(securityContext, "disapprove", request);
     }
 
     // Product Manager can approve comments
@@ -98,4 +137,25 @@ public class ReviewController {
         productClient.disapproveReview(reviewId);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<?> moderateReviews(SecurityContext securityContext, String action, Object request) {
+        if (securityContext.getUserType() != UserType.PRODUCT_MANAGER) {
+            log.warn("Unauthorized bulk {} attempt by user: {}", action, securityContext.getUserId());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only Product Managers can " + action + " reviews");
+        }
+        log.info("BFF: Bulk {} reviews request by PM: {}", action, securityContext.getUserId());
+        try {
+            return ResponseEntity.ok(productClient.moderateReviews(action, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<?> pageResponse(ProductPage<?> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(ProductClient.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
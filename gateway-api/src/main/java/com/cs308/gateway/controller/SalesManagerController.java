@@ -6,11 +6,14 @@ import com.cs308.gateway.model.invoice.InvoiceEmailRequest;
 import com.cs308.gateway.model.invoice.InvoiceRequest;
 import com.cs308.gateway.model.invoice.RefundEmailRequest;
 import com.cs308.gateway.model.order.RefundReject;
+import com.cs308.gateway.model.product.DiscountCampaignRequest;
+import com.cs308.gateway.model.product.DiscountCampaignResult;
 import com.cs308.gateway.model.product.Order;
 import com.cs308.gateway.model.product.OrderItem;
 import com.cs308.gateway.model.product.Product;
 import com.cs308.gateway.model.product.StockRestoreRequest;
 import com.cs308.gateway.security.RequiresRole;
+import com.cs308.gateway.service.DiscountNotificationService;
 import com.cs308.gateway.service.InvoiceEmailService;
 import com.cs308.gateway.service.OrderService;
 import com.cs308.gateway.service.ProductService;
@@ -40,6 +43,7 @@ public class SalesManagerController {
     private final InvoiceEmailService invoiceEmailService;
     private final ProductService productService;
     private final com.cs308.gateway.service.AuthService authService;
+    private final DiscountNotificationService discountNotificationService;
 
     // Sales Manager can set product prices
     @PutMapping("/products/{productId}/price")
@@ -68,8 +72,10 @@ public class SalesManagerController {
 
             // If discount was applied (rate > 0), notify wishlist users
             if (discountRate != null && discountRate > 0 && updatedProduct != null) {
-                sendDiscountNotificationsAsync(productId, updatedProduct.getName(),
-                        originalPrice, updatedProduct.getDiscountedPrice(), discountRate);
+                discountNotificationService.notifyWishlistUsersAsync(
+                        List.of(new DiscountNotificationService.DiscountedProduct(productId,
+                                updatedProduct.getName(), originalPrice, updatedProduct.getDiscountedPrice())),
+                        discountRate);
             }
 
             return ResponseEntity.ok(updatedProduct);
@@ -82,47 +88,30 @@ public class SalesManagerController {
         }
     }
 
-    /**
-     * Send discount notification emails to all users who have the product in their
-     * wishlist.
-     * This is done asynchronously to not block the discount response.
-     */
-    private void sendDiscountNotificationsAsync(Long productId, String productName,
-            Double originalPrice, Double discountedPrice, Double discountRate) {
-        // Run in a separate thread to not block the main request
-        new Thread(() -> {
-            try {
-                List<Long> userIds = productService.getUsersWithProductInWishlist(productId);
-                log.info("Found {} users with product {} in wishlist for discount notification",
-                        userIds.size(), productId);
-
-                int successCount = 0;
-                int failCount = 0;
-
-                for (Long userId : userIds) {
-                    try {
-                        com.cs308.gateway.model.auth.response.UserDetails user = authService.getUserById(userId);
-                        if (user != null && user.getEmail() != null) {
-                            invoiceEmailService.sendDiscountNotificationEmail(
-                                    user.getEmail(),
-                                    productName,
-                                    originalPrice,
-                                    discountedPrice,
-                                    discountRate);
-                            successCount++;
-                        }
-                    } catch (Exception e) {
-                        failCount++;
-                        log.error("Failed to send discount notification to user {}", userId, e);
-                    }
-                }
+    // Sales Manager can discount many products at once: everything matching
+    // the selector (productType, brand, targetAudience and/or productIds).
+    // Wishlist users of all discounted products are notified in one batch job
+    @PostMapping("/products/discount-campaigns")
+    public ResponseEntity<?> applyDiscountCampaign(@Valid @RequestBody DiscountCampaignRequest request) {
+        log.info("BFF: Discount campaign request - {}", request);
+        try {
+            DiscountCampaignResult result = productService.applyDiscountCampaign(request);
 
-                log.info("Discount notification emails sent for product {}: {} success, {} failed",
-                        productId, successCount, failCount);
-            } catch (Exception e) {
-                log.error("Failed to process discount notifications for product {}", productId, e);
+            if (request.getDiscountRate() > 0 && result.getProducts() != null) {
+                discountNotificationService.notifyWishlistUsersAsync(result.getProducts().stream()
+                        .map(product -> new DiscountNotificationService.DiscountedProduct(product.getId(),
+                                product.getName(), product.getPrice(), product.getDiscountedPrice()))
+                        .toList(), request.getDiscountRate());
             }
-        }, "DiscountNotification-" + productId).start();
+
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid discount campaign: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to apply discount campaign", e);
+            return ResponseEntity.internalServerError().body("Failed to apply discount campaign");
+        }
     }
 
     // Sales Manager can view invoices in date range
@@ -235,20 +224,24 @@ public class SalesManagerController {
                 return ResponseEntity.badRequest().body("Order not found or refund already processed");
             }
 
-            // 2. Restore stock for each item
+            // 2. Restore stock for each item, on the variant it was bought as
+            List<Long> notRestored = new ArrayList<>();
             if (order.getItems() != null && !order.getItems().isEmpty()) {
                 for (OrderItem item : order.getItems()) {
                     try {
                         StockRestoreRequest stockRequest = new StockRestoreRequest();
                         stockRequest.setProductId(item.getProductId());
                         stockRequest.setQuantity(item.getQuantity());
+                        stockRequest.setColor(item.getColor());
+                        stockRequest.setSize(item.getSize());
                         productService.restoreStock(stockRequest);
                         log.info("Stock restored for product {} - quantity: {}",
                                 item.getProductId(), item.getQuantity());
                     } catch (Exception e) {
-                        log.error("Failed to restore stock for product {}: {}",
-                                item.getProductId(), e.getMessage());
-                        // Continue with other items even if one fails
+                        log.error("Failed to restore stock for product {} of refunded order {}",
+                                item.getProductId(), orderId, e);
+                        // Continue with other items, report the failed ones below
+                        notRestored.add(item.getProductId());
                     }
                 }
             }
@@ -275,6 +268,11 @@ public class SalesManagerController {
                 // Don't fail the request just because email failed
             }
 
+            if (!notRestored.isEmpty()) {
+                return ResponseEntity.internalServerError()
+                        .body("Refund approved and customer notified, but stock could not be restored for products "
+                                + notRestored + "; restore it via /api/sales/refunds/restore-stock");
+            }
             return ResponseEntity.ok("Refund approved successfully. Stock restored and customer notified.");
 
         } catch (Exception e) {
@@ -24,4 +24,7 @@ public class CartItem {
     private Integer quantity;
 
     private String size;
+
+    // Null for products without variants
+    private ProductVariant variant;
 }
@@ -1,5 +1,6 @@
 package com.cs308.gateway.model.product;
 
+import com.cs308.gateway.model.product.enums.Color;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,6 +20,8 @@ public class CreateOrderRequest {
     private String buyerName;
     private String buyerAddress;
     private String paymentMethod;
+    // Optional stock reservation from POST /api/cart/reserve, confirmed instead of a fresh decrement
+    private String reservationId;
 
     @Getter
     @Setter
@@ -29,6 +32,7 @@ public class CreateOrderRequest {
         private Integer quantity;
         private Double price;
         private String size;
+        private Color color;
         private String productName;
     }
 }
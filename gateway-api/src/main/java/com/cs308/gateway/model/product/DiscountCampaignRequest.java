@@ -0,0 +1,32 @@
+package com.cs308.gateway.model.product;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Discount for every product matching the selector (fields combine with AND;
+ * at least one is required by product-api).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountCampaignRequest {
+    private String productType;
+    private String brand;
+    private String targetAudience;
+    private List<Long> productIds;
+
+    // 0 removes the discount
+    @NotNull
+    @DecimalMin("0")
+    @DecimalMax("100")
+    private Double discountRate;
+}
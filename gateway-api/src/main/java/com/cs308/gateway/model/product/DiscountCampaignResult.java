@@ -0,0 +1,19 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Products changed by a discount campaign, with their new prices.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountCampaignResult {
+    private Double discountRate;
+    private List<Long> productIds;
+    private List<ProductSummary> products;
+}
@@ -1,5 +1,6 @@
 package com.cs308.gateway.model.product;
 
+import com.cs308.gateway.model.product.enums.Color;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -20,5 +21,7 @@ public class OrderItem {
     private Double unitPrice;
     private Double price; // Total price for this line item
     private String productName;
+    // The variant bought; refunds put the units back on it
     private String size;
+    private Color color;
 }
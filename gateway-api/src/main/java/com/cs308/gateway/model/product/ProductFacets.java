@@ -0,0 +1,19 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Filter sidebar counts from product-api: facet name -> (value -> count),
+ * plus the number of products matching the whole filter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+    private int total;
+    private Map<String, Map<String, Integer>> facets;
+}
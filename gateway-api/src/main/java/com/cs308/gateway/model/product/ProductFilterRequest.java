@@ -20,6 +20,22 @@ public class ProductFilterRequest {
     // ?color=...
     private String color;
 
+    // ?minPrice=...&maxPrice=... — bounds on the effective (discounted) price
+    private Double minPrice;
+    private Double maxPrice;
+
+    // ?inStock=true
+    private Boolean inStock;
+
+    // ?onSale=true
+    private Boolean onSale;
+
     // ?sort=priceAsc vs. — default: relevance
     private String sort = "relevance";
+
+    // ?cursor=... — opaque keyset token returned as X-Next-Cursor
+    private String cursor;
+
+    // ?limit=... — page size (product-api caps it)
+    private Integer limit;
 }
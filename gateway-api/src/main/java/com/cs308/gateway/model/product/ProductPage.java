@@ -0,0 +1,20 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page as returned by product-api: the product listing (full products or
+ * summaries) or a product's reviews.
+ * {@code nextCursor} mirrors the X-Next-Cursor header and is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Typeahead entry from product-api. {@code type} is PRODUCT, BRAND or
+ * CATEGORY; {@code productId} is only set for PRODUCT.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+    private String type;
+    private String text;
+    private Long productId;
+}
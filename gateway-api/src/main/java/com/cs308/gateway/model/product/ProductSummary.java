@@ -0,0 +1,24 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Listing tile as returned by product-api for ?view=summary.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private String brand;
+    private Double price;
+    private Double discountedPrice;
+    private Double discountRate;
+    private String imageUrl;
+    private Double averageRating;
+    private Long reviewCount;
+    private boolean inStock;
+}
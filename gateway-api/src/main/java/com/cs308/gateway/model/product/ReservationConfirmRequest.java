@@ -0,0 +1,21 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body of product-api's POST /products/reservations/{id}/confirm: the user
+ * placing the order and its lines, which the reservation must match.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationConfirmRequest {
+    private Long userId;
+    private List<StockReductionRequest.Line> items;
+}
@@ -0,0 +1,37 @@
+package com.cs308.gateway.model.product;
+
+import com.cs308.gateway.model.product.enums.Color;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body of product-api's POST /products/stock/reduce-batch: all lines of one
+ * order, decremented together or not at all.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReductionRequest {
+
+    private List<Line> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private Integer quantity;
+        // Pick the variant of products that have variants
+        private Color color;
+        private String size;
+
+        public Line(Long productId, Integer quantity) {
+            this(productId, quantity, null, null);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    private String id;
+    private Long userId;
+    private List<StockReductionRequest.Line> items;
+    private Instant expiresAt;
+}
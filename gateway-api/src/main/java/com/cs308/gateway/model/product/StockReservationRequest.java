@@ -0,0 +1,22 @@
+package com.cs308.gateway.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body of product-api's POST /products/reservations: the units of a cart to
+ * hold until checkout. ttlSeconds is optional (product-api default).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+    private Long userId;
+    private List<StockReductionRequest.Line> items;
+    private Integer ttlSeconds;
+}
@@ -1,5 +1,6 @@
 package com.cs308.gateway.model.product;
 
+import com.cs308.gateway.model.product.enums.Color;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +14,9 @@ public class StockRestoreRequest {
 
     private Long productId;
     private Integer quantity;
+    // The variant the units go back to, for products that have variants
+    private Color color;
+    private String size;
 }
 
 
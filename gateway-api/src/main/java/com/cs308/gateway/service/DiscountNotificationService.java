@@ -0,0 +1,104 @@
+package com.cs308.gateway.service;
+
+import com.cs308.gateway.model.auth.response.UserDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Emails wishlist users about new discounts. However many products a discount
+ * touches, it is one background job on the shared task executor: wishlist
+ * users for all products are fetched in one call and each user is looked up
+ * once, then one email goes out per (user, product) pair.
+ */
+@Slf4j
+@Service
+public class DiscountNotificationService {
+
+    private final ProductService productService;
+    private final AuthService authService;
+    private final InvoiceEmailService invoiceEmailService;
+    private final TaskExecutor taskExecutor;
+
+    public DiscountNotificationService(ProductService productService, AuthService authService,
+            InvoiceEmailService invoiceEmailService,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor) {
+        this.productService = productService;
+        this.authService = authService;
+        this.invoiceEmailService = invoiceEmailService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * What the notification email says about one product.
+     */
+    public record DiscountedProduct(Long productId, String name, Double originalPrice, Double discountedPrice) {
+    }
+
+    /**
+     * Queues the notifications and returns right away.
+     */
+    public void notifyWishlistUsersAsync(List<DiscountedProduct> products, Double discountRate) {
+        if (products.isEmpty()) {
+            return;
+        }
+        taskExecutor.execute(() -> notifyWishlistUsers(products, discountRate));
+    }
+
+    void notifyWishlistUsers(List<DiscountedProduct> products, Double discountRate) {
+        try {
+            Map<Long, DiscountedProduct> byId = new LinkedHashMap<>();
+            products.forEach(product -> byId.put(product.productId(), product));
+            Map<Long, List<Long>> usersByProduct = productService.getUsersWithProductsInWishlist(byId.keySet());
+
+            // Empty when the user could not be resolved or has no email
+            Map<Long, Optional<String>> emails = new HashMap<>();
+            int successCount = 0;
+            int failCount = 0;
+            for (Map.Entry<Long, List<Long>> entry : usersByProduct.entrySet()) {
+                DiscountedProduct product = byId.get(entry.getKey());
+                if (product == null) {
+                    continue;
+                }
+                for (Long userId : entry.getValue()) {
+                    Optional<String> email = emails.computeIfAbsent(userId, this::emailOf);
+                    if (email.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        invoiceEmailService.sendDiscountNotificationEmail(email.get(), product.name(),
+                                product.originalPrice(), product.discountedPrice(), discountRate);
+                        successCount++;
+                    } catch (Exception e) {
+                        failCount++;
+                        log.error("Failed to send discount notification for product {} to user {}",
+                                product.productId(), userId, e);
+                    }
+                }
+            }
+
+            log.info("Discount notification emails for {} products: {} users, {} success, {} failed",
+                    products.size(), emails.size(), successCount, failCount);
+        } catch (Exception e) {
+            log.error("Failed to process discount notifications for {} products", products.size(), e);
+        }
+    }
+
+    private Optional<String> emailOf(Long userId) {
+        try {
+            UserDetails user = authService.getUserById(userId);
+            return Optional.ofNullable(user != null ? user.getEmail() : null);
+        } catch (Exception e) {
+            log.error("Failed to look up user {} for discount notification", userId, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.cs308.gateway.client.OrderClient;
 import com.cs308.gateway.client.ProductClient;
 import com.cs308.gateway.model.invoice.InvoiceRequest;
 import com.cs308.gateway.model.product.CreateOrderRequest;
+import com.cs308.gateway.model.product.StockReductionRequest;
+import com.cs308.gateway.model.product.StockRestoreRequest;
 import com.cs308.gateway.model.order.RefundRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -57,19 +59,29 @@ public class OrderService {
             request.setTotalPrice(totalPrice);
         }
 
-        // Create order first
-        Order order = orderClient.createOrder(userId, request);
+        // Take the stock for the whole order in one atomic call before creating
+        // it, so concurrent checkouts cannot oversell. A cart reservation is
+        // confirmed instead, as long as it is the user's and holds exactly these
+        // lines; otherwise fall back to a plain decrement.
+        StockReductionRequest stockRequest = toStockReduction(request);
+        if (stockRequest != null) {
+            String reservationId = request.getReservationId();
+            if (reservationId != null && productClient.confirmReservation(reservationId, userId, stockRequest)) {
+                log.info("Confirmed stock reservation {}", reservationId);
+            } else {
+                productClient.reduceStockBatch(stockRequest);
+                log.info("Reduced stock for {} order lines", stockRequest.getItems().size());
+            }
+        }
 
-        // Reduce stock for each item after order is created
-        if (request != null && request.getItems() != null) {
-            for (CreateOrderRequest.OrderItemRequest item : request.getItems()) {
-                try {
-                    productClient.reduceStock(item.getProductId(), item.getQuantity());
-                    log.info("Reduced stock for product {} by {}", item.getProductId(), item.getQuantity());
-                } catch (Exception e) {
-                    log.error("Failed to reduce stock for product {}: {}", item.getProductId(), e.getMessage());
-                }
+        Order order;
+        try {
+            order = orderClient.createOrder(userId, request);
+        } catch (RuntimeException e) {
+            if (stockRequest != null) {
+                restoreStock(stockRequest);
             }
+            throw e;
         }
 
         // Send invoice email logic (kept same as your provided code)
@@ -99,6 +111,31 @@ public class OrderService {
         return order;
     }
 
+    private static StockReductionRequest toStockReduction(CreateOrderRequest request) {
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            return null;
+        }
+        List<StockReductionRequest.Line> lines = request.getItems().stream()
+                .map(item -> new StockReductionRequest.Line(item.getProductId(), item.getQuantity(),
+                        item.getColor(), item.getSize()))
+                .toList();
+        return new StockReductionRequest(lines);
+    }
+
+    /**
+     * Compensates a stock reduction when the order could not be created.
+     */
+    private void restoreStock(StockReductionRequest stockRequest) {
+        for (StockReductionRequest.Line line : stockRequest.getItems()) {
+            try {
+                productClient.restoreStock(new StockRestoreRequest(line.getProductId(), line.getQuantity(),
+                        line.getColor(), line.getSize()));
+            } catch (Exception e) {
+                log.error("Failed to restore stock for product {} after order failure", line.getProductId(), e);
+            }
+        }
+    }
+
     public Order getOrder(Long orderId, Long userId) {
         log.info("Processing get order request - orderId: {}, userId: {}", orderId, userId);
         return orderClient.getOrder(orderId, userId);
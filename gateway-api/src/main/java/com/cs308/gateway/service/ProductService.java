@@ -2,14 +2,26 @@ package com.cs308.gateway.service;
 
 import com.cs308.gateway.client.ProductClient;
 import com.cs308.gateway.model.product.Cart;
+import com.cs308.gateway.model.product.DiscountCampaignRequest;
+import com.cs308.gateway.model.product.DiscountCampaignResult;
 import com.cs308.gateway.model.product.Product;
+import com.cs308.gateway.model.product.ProductFacets;
 import com.cs308.gateway.model.product.ProductFilterRequest;
+import com.cs308.gateway.model.product.ProductPage;
+import com.cs308.gateway.model.product.ProductSuggestion;
+import com.cs308.gateway.model.product.ProductSummary;
+import com.cs308.gateway.model.product.StockReductionRequest;
+import com.cs308.gateway.model.product.StockReservation;
+import com.cs308.gateway.model.product.StockReservationRequest;
 import com.cs308.gateway.model.product.StockRestoreRequest;
+import com.cs308.gateway.model.product.enums.Color;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -18,20 +30,35 @@ public class ProductService {
 
     private final ProductClient productClient;
 
-    public List<Product> listProducts(ProductFilterRequest filter) {
+    public ProductPage<Product> listProducts(ProductFilterRequest filter) {
         log.info("Processing list products request with filter: {}", filter);
         return productClient.listProducts(filter);
     }
 
+    public ProductPage<ProductSummary> listProductSummaries(ProductFilterRequest filter) {
+        log.info("Processing list product summaries request with filter: {}", filter);
+        return productClient.listProductSummaries(filter);
+    }
+
+    public ProductFacets getFacets(ProductFilterRequest filter) {
+        log.debug("Processing facets request with filter: {}", filter);
+        return productClient.getFacets(filter);
+    }
+
+    public List<ProductSuggestion> getSuggestions(String prefix, Integer limit) {
+        log.debug("Processing suggestions request for prefix: {}", prefix);
+        return productClient.getSuggestions(prefix, limit);
+    }
+
     public Product getProduct(Long id) {
         log.info("Processing get product request for id: {}", id);
         return productClient.getProduct(id);
     }
 
-    public Cart addToCart(Long userId, Long productId, Integer quantity, String size) {
-        log.info("Processing add to cart request - userId: {}, productId: {}, quantity: {}, size: {}",
-                userId, productId, quantity, size);
-        return productClient.addToCart(userId, productId, quantity, size);
+    public Cart addToCart(Long userId, Long productId, Integer quantity, String size, Color color) {
+        log.info("Processing add to cart request - userId: {}, productId: {}, quantity: {}, size: {}, color: {}",
+                userId, productId, quantity, size, color);
+        return productClient.addToCart(userId, productId, quantity, size, color);
     }
 
     public Cart getCart(Long userId) {
@@ -39,6 +66,31 @@ public class ProductService {
         return productClient.getCart(userId);
     }
 
+    /**
+     * Holds the current contents of the user's cart for checkout. Replaces the
+     * user's previous reservation; the hold expires unless an order confirms it.
+     */
+    public StockReservation reserveCart(Long userId) {
+        log.info("Processing reserve cart request for userId: {}", userId);
+        Cart cart = productClient.getCart(userId);
+        if (cart == null || cart.getItems() == null || cart.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        List<StockReductionRequest.Line> lines = cart.getItems().stream()
+                .map(item -> new StockReductionRequest.Line(item.getProduct().getId(), item.getQuantity(),
+                        item.getVariant() == null ? null : item.getVariant().getColor(), item.getSize()))
+                .toList();
+        return productClient.reserveStock(StockReservationRequest.builder()
+                .userId(userId)
+                .items(lines)
+                .build());
+    }
+
+    public void releaseReservation(Long userId, String reservationId) {
+        log.info("Processing release reservation request: {} for userId: {}", reservationId, userId);
+        productClient.releaseReservation(reservationId, userId);
+    }
+
     public Cart removeFromCart(Long userId, Long productId) {
         log.info("Processing remove from cart request - userId: {}, productId: {}", userId, productId);
         return productClient.removeFromCart(userId, productId);
@@ -76,6 +128,11 @@ public class ProductService {
         return productClient.setDiscount(productId, discountRate);
     }
 
+    public DiscountCampaignResult applyDiscountCampaign(DiscountCampaignRequest request) {
+        log.info("Processing discount campaign: {}", request);
+        return productClient.applyDiscountCampaign(request);
+    }
+
     // ==================== WISHLIST METHODS ====================
 
     public com.cs308.gateway.model.product.Wishlist addToWishlist(Long userId, Long productId, String size) {
@@ -102,6 +159,11 @@ public class ProductService {
         return productClient.getUsersWithProductInWishlist(productId);
     }
 
+    public Map<Long, List<Long>> getUsersWithProductsInWishlist(Collection<Long> productIds) {
+        log.info("Processing get users with products in wishlist for {} products", productIds.size());
+        return productClient.getUsersWithProductsInWishlist(productIds);
+    }
+
     // ==================== PRODUCT MANAGEMENT METHODS ====================
 
     public Product addProduct(com.cs308.gateway.model.product.CreateProductRequest request) {
@@ -119,6 +181,11 @@ public class ProductService {
         productClient.deleteProduct(id);
     }
 
+    public void deleteProducts(List<Long> ids) {
+        log.info("Processing bulk delete request for {} products", ids.size());
+        productClient.deleteProducts(ids);
+    }
+
     public Product updateStock(Long id, Integer quantity) {
         log.info("Processing update stock request - productId: {}, quantity: {}", id, quantity);
         if (quantity == null || quantity < 0) {
@@ -127,6 +194,15 @@ public class ProductService {
         return productClient.updateStock(id, quantity);
     }
 
+    public Product updateVariantStock(Long id, Long variantId, Integer quantity) {
+        log.info("Processing update variant stock request - productId: {}, variantId: {}, quantity: {}",
+                id, variantId, quantity);
+        if (quantity == null || quantity < 0) {
+            throw new IllegalArgumentException("Stock quantity cannot be negative");
+        }
+        return productClient.updateVariantStock(id, variantId, quantity);
+    }
+
     public String uploadImage(byte[] fileBytes, String filename, String contentType) {
         log.info("Processing image upload request: {}", filename);
         return productClient.uploadImage(fileBytes, filename, contentType);
@@ -57,6 +57,7 @@ public class CreateOrderRequest {
         private Integer quantity;
         private Double price;
         private String size;
+        private String color;
         private String productName;
 
         public OrderItemRequest() {
@@ -94,6 +95,14 @@ public class CreateOrderRequest {
             this.size = size;
         }
 
+        public String getColor() {
+            return color;
+        }
+
+        public void setColor(String color) {
+            this.color = color;
+        }
+
         public String getProductName() {
             return productName;
         }
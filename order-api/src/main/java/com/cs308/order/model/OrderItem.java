@@ -31,6 +31,13 @@ public class OrderItem {
     @Column(name = "unit_price", nullable = false)
     private Double unitPrice;
 
+    // The product variant bought, so a refund can put the units back on it
+    @Column(name = "size")
+    private String size;
+
+    @Column(name = "color")
+    private String color;
+
     public OrderItem() {
     }
 
@@ -108,4 +115,20 @@ public class OrderItem {
     public void setUnitPrice(Double unitPrice) {
         this.unitPrice = unitPrice;
     }
+
+    public String getSize() {
+        return size;
+    }
+
+    public void setSize(String size) {
+        this.size = size;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
 }
@@ -127,6 +127,8 @@ public class OrderService {
                         itemReq.getProductName(),
                         itemReq.getQuantity(),
                         itemReq.getPrice() * itemReq.getQuantity());
+                item.setSize(itemReq.getSize());
+                item.setColor(itemReq.getColor());
                 items.add(item);
             }
         }
@@ -0,0 +1,43 @@
+package com.cs308.product.config;
+
+import com.cs308.product.domain.SyncCheckpoint;
+import com.cs308.product.repository.CartItemRepository;
+import com.cs308.product.repository.SyncCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * One-time backfill: sets cart_items.variant_id on items added before carts
+ * recorded a variant, so those carts resolve to one variant at checkout.
+ * Recorded as a sync checkpoint, so it runs once per database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartVariantBackfillRunner {
+
+    static final String CHECKPOINT = "cart-variant-backfill";
+
+    private final CartItemRepository cartItemRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (syncCheckpointRepository.existsById(CHECKPOINT)) {
+            return;
+        }
+        try {
+            int updated = cartItemRepository.backfillVariants();
+            syncCheckpointRepository.save(new SyncCheckpoint(CHECKPOINT, Instant.now()));
+            log.info("✅ BOOT STRAP: Set the variant of {} cart items", updated);
+        } catch (Exception e) {
+            // Retried on the next start
+            log.error("❌ BOOT STRAP: Failed to backfill cart item variants", e);
+        }
+    }
+}
@@ -1,26 +1,53 @@
 package com.cs308.product.config;
 
 import com.cs308.product.service.ReviewService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 
+/**
+ * Repairs drifted rating aggregates after startup. It runs on the task
+ * executor once the application is ready, so neither readiness nor request
+ * handling waits for it; it takes a single connection for two set-based
+ * statements.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class RatingSyncRunner implements CommandLineRunner {
+public class RatingSyncRunner {
 
     private final ReviewService reviewService;
+    private final TaskExecutor taskExecutor;
+    private final boolean enabled;
+    private final boolean onlyChanged;
 
-    @Override
-    public void run(String... args) {
-        log.info("🔄 BOOT STRAP: Synchronizing Product Ratings...");
-        try {
-            reviewService.syncAllRatings();
-            log.info("✅ BOOT STRAP: Ratings synchronized successfully.");
-        } catch (Exception e) {
-            log.error("❌ BOOT STRAP: Failed to sync ratings", e);
+    public RatingSyncRunner(ReviewService reviewService,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor,
+            @Value("${product.rating-sync.enabled:true}") boolean enabled,
+            @Value("${product.rating-sync.only-changed:true}") boolean onlyChanged) {
+        this.reviewService = reviewService;
+        this.taskExecutor = taskExecutor;
+        this.enabled = enabled;
+        this.onlyChanged = onlyChanged;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncRatings() {
+        if (!enabled) {
+            return;
         }
+        taskExecutor.execute(() -> {
+            log.info("🔄 BOOT STRAP: Synchronizing Product Ratings...");
+            try {
+                reviewService.resyncRatings(onlyChanged);
+                log.info("✅ BOOT STRAP: Ratings synchronized successfully.");
+            } catch (Exception e) {
+                log.error("❌ BOOT STRAP: Failed to sync ratings", e);
+            }
+        });
     }
-}
\ No newline at end of file
+}
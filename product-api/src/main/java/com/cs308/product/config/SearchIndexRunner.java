@@ -0,0 +1,125 @@
+package com.cs308.product.config;
+
+import com.cs308.product.domain.Category;
+import com.cs308.product.domain.Product;
+import com.cs308.product.model.ProductIndexRow;
+import com.cs308.product.repository.CategoryRepository;
+import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.ProductVariantRepository;
+import com.cs308.product.search.ProductFacetIndex;
+import com.cs308.product.search.ProductSearchIndex;
+import com.cs308.product.search.ProductSuggester;
+import com.cs308.product.search.VariantLookupIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Builds the in-memory search index, facet index, typeahead and variant
+ * lookup index once the application is ready, i.e. after DataLoader and the
+ * other CommandLineRunners have seeded the catalog.
+ *
+ * The build runs on the task executor, so startup does not wait for it, and
+ * reads only the indexed columns. Products keep being written while it loads;
+ * the indexes record which ones, and those are re-read and re-indexed once
+ * the rebuilt indexes are in place, so no write made during the load is lost.
+ */
+@Slf4j
+@Component
+public class SearchIndexRunner {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductVariantRepository variantRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggester suggester;
+    private final ProductFacetIndex facetIndex;
+    private final VariantLookupIndex variantIndex;
+    private final TaskExecutor taskExecutor;
+
+    public SearchIndexRunner(ProductRepository productRepository, CategoryRepository categoryRepository,
+            ProductVariantRepository variantRepository, ProductSearchIndex searchIndex, ProductSuggester suggester,
+            ProductFacetIndex facetIndex, VariantLookupIndex variantIndex,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.variantRepository = variantRepository;
+        this.searchIndex = searchIndex;
+        this.suggester = suggester;
+        this.facetIndex = facetIndex;
+        this.variantIndex = variantIndex;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    void rebuild() {
+        log.info("🔎 BOOT STRAP: Building product search index...");
+        // Before the snapshot is read, so every later write is recorded
+        searchIndex.startRebuild();
+        facetIndex.startRebuild();
+        suggester.startRebuild();
+        variantIndex.startRebuild();
+        try {
+            List<Product> products = productRepository.findAllIndexRows().stream()
+                    .map(ProductIndexRow::toProduct)
+                    .toList();
+            searchIndex.rebuild(products);
+            facetIndex.rebuild(products, productRepository.findAllVariantColors());
+            suggester.rebuild(products, categoryRepository.findAll().stream().map(Category::getName).toList());
+            variantIndex.rebuild(variantRepository.findAllLookups());
+        } catch (Exception e) {
+            // Search keeps working through SQL LIKE until the index is ready
+            log.error("❌ BOOT STRAP: Failed to build product search index", e);
+        } finally {
+            Set<Long> written = new TreeSet<>(searchIndex.finishRebuild());
+            written.addAll(facetIndex.finishRebuild());
+            written.addAll(suggester.finishRebuild());
+            written.addAll(variantIndex.finishRebuild());
+            if (!written.isEmpty() && searchIndex.isReady()) {
+                reindex(written);
+            }
+        }
+    }
+
+    /**
+     * Brings the given products up to date in every index from the database,
+     * dropping the ones that no longer exist.
+     */
+    private void reindex(Set<Long> productIds) {
+        try {
+            Map<Long, Product> current = new HashMap<>();
+            productRepository.findAllById(productIds).forEach(product -> current.put(product.getId(), product));
+            for (Long productId : productIds) {
+                Product product = current.get(productId);
+                if (product == null) {
+                    searchIndex.remove(productId);
+                    suggester.removeProduct(productId);
+                    facetIndex.remove(productId);
+                } else {
+                    searchIndex.index(product);
+                    suggester.upsertProduct(product);
+                    facetIndex.index(product);
+                }
+                variantIndex.removeProduct(productId);
+            }
+            variantIndex.putAll(variantRepository.findLookupsByProductIdIn(productIds));
+            log.info("Re-indexed {} products written during the index build", productIds.size());
+        } catch (Exception e) {
+            log.error("❌ BOOT STRAP: Failed to re-index products written during the index build", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.cs308.product.config;
+
+import com.cs308.product.domain.SyncCheckpoint;
+import com.cs308.product.repository.StockRepository;
+import com.cs308.product.repository.SyncCheckpointRepository;
+import com.cs308.product.service.ProductCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * One-time backfill: sets the stock of every product with variants to the
+ * sum of its variants' stock, which the stock endpoints have maintained
+ * since. Recorded as a sync checkpoint, so it runs once per database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VariantStockBackfillRunner {
+
+    static final String CHECKPOINT = "variant-stock-backfill";
+
+    private final StockRepository stockRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+    private final ProductCache productCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (syncCheckpointRepository.existsById(CHECKPOINT)) {
+            return;
+        }
+        try {
+            int corrected = stockRepository.syncStockWithVariants();
+            syncCheckpointRepository.save(new SyncCheckpoint(CHECKPOINT, Instant.now()));
+            if (corrected > 0) {
+                productCache.invalidateAll();
+            }
+            log.info("✅ BOOT STRAP: Set the stock of {} products to the sum of their variants", corrected);
+        } catch (Exception e) {
+            // Retried on the next start
+            log.error("❌ BOOT STRAP: Failed to backfill product stock from variants", e);
+        }
+    }
+}
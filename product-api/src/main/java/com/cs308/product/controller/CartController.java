@@ -1,6 +1,7 @@
 package com.cs308.product.controller;
 
 import com.cs308.product.domain.Cart;
+import com.cs308.product.domain.enums.Color;
 import com.cs308.product.service.CartService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -23,8 +24,9 @@ public class CartController {
     public ResponseEntity<Cart> addToCart(@RequestParam Long userId,
             @RequestParam Long productId,
             @RequestParam(defaultValue = "1") Integer quantity,
-            @RequestParam(required = false) String size) {
-        return ResponseEntity.ok(cartService.addToCart(userId, productId, quantity, size));
+            @RequestParam(required = false) String size,
+            @RequestParam(required = false) Color color) {
+        return ResponseEntity.ok(cartService.addToCart(userId, productId, quantity, size, color));
     }
 
     @GetMapping
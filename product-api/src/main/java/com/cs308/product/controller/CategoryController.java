@@ -4,6 +4,7 @@ import com.cs308.product.domain.Category;
 import com.cs308.product.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,12 +20,12 @@ public class CategoryController {
     private final CategoryService categoryService;
 
     /**
-     * Get all category names
+     * Get all category names. Served from memory with a strong ETag; a
+     * request whose If-None-Match still matches gets an empty 304.
      */
     @GetMapping
     public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return cached(categoryService.snapshot());
     }
 
     /**
@@ -32,8 +33,7 @@ public class CategoryController {
      */
     @GetMapping("/details")
     public ResponseEntity<List<Category>> getAllCategoryDetails() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return cached(categoryService.snapshot());
     }
 
     /**
@@ -69,4 +69,13 @@ public class CategoryController {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    // no-cache: clients may store the list but must revalidate, which costs a
+    // 304 until a category is created or deleted
+    private static ResponseEntity<List<Category>> cached(CategoryService.Snapshot snapshot) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .body(snapshot.categories());
+    }
 }
@@ -1,25 +1,54 @@
 package com.cs308.product.controller;
 
 import com.cs308.product.domain.Product;
+import com.cs308.product.domain.enums.Color;
 import com.cs308.product.model.CreateProductRequest;
+import com.cs308.product.model.DiscountCampaignRequest;
+import com.cs308.product.model.DiscountCampaignResult;
+import com.cs308.product.model.ProductChanges;
+import com.cs308.product.model.ProductFacets;
 import com.cs308.product.model.ProductFilterRequest;
+import com.cs308.product.model.ProductImportResult;
+import com.cs308.product.model.ProductPage;
+import com.cs308.product.model.ProductSuggestion;
+import com.cs308.product.model.ProductSummary;
 import com.cs308.product.model.ProductUpdateRequest;
+import com.cs308.product.model.StockReductionRequest;
 import com.cs308.product.model.StockRestoreRequest;
+import com.cs308.product.service.ProductCache;
+import com.cs308.product.service.ProductChangeFeed;
+import com.cs308.product.service.ProductExportService;
+import com.cs308.product.service.ProductImportService;
 import com.cs308.product.service.ProductService;
+import com.cs308.product.service.StockReservationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ProductService service;
+    private final ProductImportService importService;
+    private final ProductExportService exportService;
+    private final ProductChangeFeed changeFeed;
+    private final StockReservationService reservationService;
 
     @PostMapping
     public ResponseEntity<Product> addProduct(@RequestBody CreateProductRequest request) {
@@ -27,27 +56,117 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Streaming bulk import of products with images and variants, one JSON
+     * object per line. Bad rows are reported in the result and skipped.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ProductImportResult> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importNdjson(body));
+    }
+
+    /**
+     * CSV variant of the bulk import; see ProductImportService for the columns.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResult> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importCsv(body));
+    }
+
+    /**
+     * Streams the catalog as NDJSON in updatedAt order, optionally only the
+     * products updated after {@code since}. Gzip-compressed when the client
+     * accepts it.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNdjson(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(java.util.Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                exportService.exportNdjson(since, compressed);
+                compressed.finish();
+            } else {
+                exportService.exportNdjson(since, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Incremental sync: the changes (upserts and deletes) after the
+     * {@code since} token, oldest first, and the token for the next pull.
+     * Without {@code since} the feed starts at the beginning.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> changes(@RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(changeFeed.changes(since, limit));
+    }
+
     @PostMapping("/restore-stock")
     public ResponseEntity<Product> restoreStock(@RequestBody @Valid StockRestoreRequest request) {
         Product updated = service.restoreStock(request);
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Decrements the stock of every order line atomically: either all lines
+     * are applied or none (409 out_of_stock / 404 not_found).
+     */
+    @PostMapping("/stock/reduce-batch")
+    public ResponseEntity<Void> reduceStockBatch(@RequestBody @Valid StockReductionRequest request) {
+        service.reduceStockBatch(request);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Decrements one product's stock; {@code color} and {@code size} pick the
+     * variant for products that have variants.
+     */
     @PutMapping("/{id}/stock/reduce")
-    public ResponseEntity<Product> reduceStock(@PathVariable Long id, @RequestParam Integer quantity) {
+    public ResponseEntity<Product> reduceStock(@PathVariable Long id, @RequestParam Integer quantity,
+            @RequestParam(required = false) Color color,
+            @RequestParam(required = false) String size) {
         try {
-            Product updated = service.reduceStock(id, quantity);
+            Product updated = service.reduceStock(id, quantity, color, size);
             return ResponseEntity.ok(updated);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Sets one variant's stock; the product's stock follows as the sum over
+     * its variants (400 unknown_variant if the product has no such variant).
+     */
+    @PutMapping("/{id}/variants/{variantId}/stock")
+    public ResponseEntity<Product> setVariantStock(@PathVariable Long id, @PathVariable Long variantId,
+            @RequestParam Integer stock) {
+        try {
+            return ResponseEntity.ok(service.setVariantStock(id, variantId, stock));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id,
             @RequestBody ProductUpdateRequest request) {
-        Product updated = service.updateProduct(id, request);
-        return ResponseEntity.ok(updated);
+        try {
+            Product updated = service.updateProduct(id, request);
+            return ResponseEntity.ok(updated);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -69,9 +188,79 @@ public class ProductController {
         }
     }
 
+    /**
+     * Discount campaign (Sales Manager action): applies one rate to every
+     * product matching the selector and returns the products it changed.
+     */
+    @PostMapping("/discount-campaigns")
+    public ResponseEntity<DiscountCampaignResult> applyDiscountCampaign(
+            @RequestBody @Valid DiscountCampaignRequest request) {
+        try {
+            return ResponseEntity.ok(service.applyDiscountCampaign(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Lists the catalog. With ?limit= and/or ?cursor= the result is a keyset
+     * page and the token for the following page is returned in the
+     * X-Next-Cursor header (absent on the last page).
+     */
     @GetMapping
-    public List<Product> listProducts(@ModelAttribute ProductFilterRequest filter) {
-        return service.search(filter);
+    public ResponseEntity<List<Product>> listProducts(@ModelAttribute ProductFilterRequest filter) {
+        if (!filter.isPaged()) {
+            return ResponseEntity.ok(service.search(filter));
+        }
+
+        ProductPage<Product> page = service.searchPage(filter);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Lightweight listing for product tiles: same parameters and paging as
+     * listProducts(), but each item is a ProductSummary instead of the full
+     * entity (no description/distributor/care texts, variants or images).
+     */
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<ProductSummary>> listProductSummaries(@ModelAttribute ProductFilterRequest filter) {
+        ProductPage<ProductSummary> page = service.searchSummaries(filter);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Filter sidebar: number of results and per-value counts for the same
+     * query parameters as the listing.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacets> facets(@ModelAttribute ProductFilterRequest filter) {
+        return ResponseEntity.ok(service.facets(filter));
+    }
+
+    /**
+     * Typeahead: best product names, brands and categories for a prefix,
+     * ranked by sales. Returns an empty list for a blank prefix.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggest(@RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.suggest(prefix, limit));
+    }
+
+    /**
+     * Hit/miss/eviction counters of the product-by-id cache.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ProductCache.Stats> cacheStats() {
+        return ResponseEntity.ok(service.cacheStats());
     }
 
     @GetMapping("/{id}")
@@ -84,6 +273,19 @@ public class ProductController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         service.delete(id);
+        reservationService.releaseProducts(List.of(id));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Bulk delete, e.g. {@code DELETE /products?ids=1,2,3}. Cascades to carts,
+     * wishlists, orders and reviews in the same transaction; unknown ids are ignored.
+     * Open stock reservations holding the products are released once it has committed.
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Void> deleteProducts(@RequestParam List<Long> ids) {
+        service.deleteAll(ids);
+        reservationService.releaseProducts(ids);
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,7 +1,11 @@
 package com.cs308.product.controller;
 
 import com.cs308.product.model.CreateReviewRequest;
+import com.cs308.product.model.ReviewModerationRequest;
+import com.cs308.product.model.ReviewModerationResult;
+import com.cs308.product.model.ReviewPage;
 import com.cs308.product.model.ReviewResponse;
+import com.cs308.product.service.RatingRecomputeScheduler;
 import com.cs308.product.service.ReviewService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +24,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ReviewController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ReviewService reviewService;
 
     @PostMapping
@@ -30,19 +36,54 @@ public class ReviewController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Rated reviews of a product, newest first. With ?limit= and/or ?cursor=
+     * the result is a keyset page and the token for the following page is
+     * returned in the X-Next-Cursor header (absent on the last page).
+     */
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<ReviewResponse>> getProductReviews(@PathVariable Long productId) {
-        return ResponseEntity.ok(reviewService.getApprovedReviews(productId));
+    public ResponseEntity<List<ReviewResponse>> getProductReviews(@PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(reviewService.getApprovedReviews(productId));
+        }
+        return pageResponse(reviewService.getApprovedReviewsPage(productId, cursor, limit));
     }
 
     @GetMapping("/product/{productId}/all")
-    public ResponseEntity<List<ReviewResponse>> getAllProductReviews(@PathVariable Long productId) {
-        return ResponseEntity.ok(reviewService.getAllReviews(productId));
+    public ResponseEntity<List<ReviewResponse>> getAllProductReviews(@PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(reviewService.getAllReviews(productId));
+        }
+        return pageResponse(reviewService.getAllReviewsPage(productId, cursor, limit));
     }
 
+    /**
+     * Moderation queue, oldest first; paged like the product review listing.
+     */
     @GetMapping("/pending")
-    public ResponseEntity<List<ReviewResponse>> getPendingReviews() {
-        return ResponseEntity.ok(reviewService.getPendingReviews());
+    public ResponseEntity<List<ReviewResponse>> getPendingReviews(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(reviewService.getPendingReviews());
+        }
+        return pageResponse(reviewService.getPendingReviewsPage(cursor, limit));
+    }
+
+    @PostMapping("/approve")
+    public ResponseEntity<ReviewModerationResult> approveReviews(
+            @Valid @RequestBody ReviewModerationRequest request) {
+        return ResponseEntity.ok(reviewService.approveReviews(request.getReviewIds()));
+    }
+
+    @PostMapping("/disapprove")
+    public ResponseEntity<ReviewModerationResult> disapproveReviews(
+            @Valid @RequestBody ReviewModerationRequest request) {
+        return ResponseEntity.ok(reviewService.disapproveReviews(request.getReviewIds()));
     }
 
     @GetMapping("/recent")
@@ -66,9 +107,18 @@ public class ReviewController {
         Map<String, Object> stats = new HashMap<>();
         stats.put("averageRating", reviewService.getAverageRating(productId));
         stats.put("reviewCount", reviewService.getReviewCount(productId));
+        stats.put("ratingHistogram", reviewService.getRatingHistogram(productId));
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Dirty-set size and recompute latency of the coalesced rating updates.
+     */
+    @GetMapping("/rating-recompute/stats")
+    public ResponseEntity<RatingRecomputeScheduler.Stats> ratingRecomputeStats() {
+        return ResponseEntity.ok(reviewService.ratingRecomputeStats());
+    }
+
     /**
      * 🟢 NEW: Call this endpoint ONCE via Postman/cURL to fix your sorting.
      * POST http://localhost:8080/reviews/sync-ratings
@@ -78,4 +128,12 @@ public class ReviewController {
         reviewService.syncAllRatings();
         return ResponseEntity.ok("All product ratings have been recalculated and synced.");
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<List<ReviewResponse>> pageResponse(ReviewPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
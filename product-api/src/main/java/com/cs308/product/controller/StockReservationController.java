@@ -0,0 +1,46 @@
+package com.cs308.product.controller;
+
+import com.cs308.product.model.ReservationConfirmRequest;
+import com.cs308.product.model.StockReservation;
+import com.cs308.product.model.StockReservationRequest;
+import com.cs308.product.service.StockReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Checkout stock holds: reserve a cart, then confirm it when the order is
+ * created or release it when the user leaves checkout. Unconfirmed
+ * reservations expire on their own.
+ */
+@RestController
+@RequestMapping("/products/reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+
+    private final StockReservationService service;
+
+    @PostMapping
+    public ResponseEntity<StockReservation> reserve(@RequestBody @Valid StockReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.reserve(request));
+    }
+
+    /**
+     * 404 when the reservation is gone or belongs to another user, 422 when
+     * it holds different lines than the order (the hold is dropped then).
+     */
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<Void> confirm(@PathVariable String id,
+            @RequestBody @Valid ReservationConfirmRequest request) {
+        service.confirm(id, request.getUserId(), request.getItems());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable String id, @RequestParam Long userId) {
+        service.release(id, userId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.cs308.product.controller;
+
+import com.cs308.product.model.VariantLookup;
+import com.cs308.product.model.VariantLookupRequest;
+import com.cs308.product.service.VariantLookupService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * SKU/barcode lookups for scanners: a code resolves to its variant with the
+ * product id, color, size, stock and price.
+ */
+@RestController
+@RequestMapping("/products/variants")
+@RequiredArgsConstructor
+public class VariantLookupController {
+
+    private final VariantLookupService service;
+
+    @GetMapping("/lookup")
+    public ResponseEntity<VariantLookup> lookup(@RequestParam String code) {
+        return service.lookup(code)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Resolves up to 1000 codes at once; codes that match nothing are
+     * missing from the response.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<Map<String, VariantLookup>> lookupAll(@RequestBody @Valid VariantLookupRequest request) {
+        return ResponseEntity.ok(service.lookupAll(request.getCodes()));
+    }
+}
@@ -8,11 +8,13 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/wishlist")
@@ -48,4 +50,13 @@ public class WishlistController {
         List<Long> userIds = wishlistService.getUserIdsWithProductInWishlist(productId);
         return ResponseEntity.ok(userIds);
     }
+
+    /**
+     * Wishlist user IDs for many products at once (discount campaigns),
+     * keyed by product ID.
+     */
+    @PostMapping("/users-with-products")
+    public ResponseEntity<Map<Long, List<Long>>> getUsersWithProductsInWishlist(@RequestBody List<Long> productIds) {
+        return ResponseEntity.ok(wishlistService.getUserIdsByProduct(productIds));
+    }
 }
@@ -42,4 +42,9 @@ public class CartItem {
 
     @Column(name = "size")
     private String size;
+
+    // The variant whose stock the item takes; null for products without variants
+    @ManyToOne
+    @JoinColumn(name = "variant_id")
+    private ProductVariant variant;
 }
@@ -40,5 +40,10 @@ public class OrderItem {
 
     @Column(name = "unit_price", nullable = false)
     private Double unitPrice; // Price at the time of order
+
+    // The variant whose stock the item takes; null for products without variants
+    @ManyToOne
+    @JoinColumn(name = "variant_id")
+    private ProductVariant variant;
 }
 
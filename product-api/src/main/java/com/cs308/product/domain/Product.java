@@ -9,6 +9,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -30,7 +31,13 @@ import java.util.List;
         @Index(name = "idx_products_model", columnList = "model"),
         @Index(name = "idx_products_type_audience", columnList = "product_type,target_audience"),
         // Optimized index for rating sorting
-        @Index(name = "idx_products_rating", columnList = "review_count, average_rating")
+        @Index(name = "idx_products_rating", columnList = "review_count, average_rating"),
+        // Price filters/sorts; the effective-price and in-stock indexes are
+        // expression/partial indexes and live in schema.sql
+        @Index(name = "idx_products_price", columnList = "price, id"),
+        @Index(name = "idx_products_discounted_price", columnList = "discounted_price, id"),
+        // Export/sync reads products changed since a point in time
+        @Index(name = "idx_products_updated_at", columnList = "updated_at, id")
 })
 public class Product {
 
@@ -114,10 +121,43 @@ public class Product {
     @Builder.Default
     private Double averageRating = 0.0;
 
+    // Number of rated reviews; the rating aggregates below always sum up to it
     @Column(name = "review_count")
     @Builder.Default
     private Long reviewCount = 0L;
 
+    // Running rating aggregates, maintained with delta UPDATEs so that adding
+    // a review never rescans the product's reviews
+    @Column(name = "rating_sum")
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    // Per-star histogram (number of 1..5 star ratings)
+    @Column(name = "rating_1_count")
+    @Builder.Default
+    private Long rating1Count = 0L;
+
+    @Column(name = "rating_2_count")
+    @Builder.Default
+    private Long rating2Count = 0L;
+
+    @Column(name = "rating_3_count")
+    @Builder.Default
+    private Long rating3Count = 0L;
+
+    @Column(name = "rating_4_count")
+    @Builder.Default
+    private Long rating4Count = 0L;
+
+    @Column(name = "rating_5_count")
+    @Builder.Default
+    private Long rating5Count = 0L;
+
+    // Highest review id the last rebuild from the reviews table counted;
+    // pending deltas of reviews at or below it are not added on top
+    @Column(name = "rating_watermark")
+    private Long ratingWatermark;
+
     @CreationTimestamp
     @Column(updatable = false)
     private Instant createdAt;
@@ -125,13 +165,17 @@ public class Product {
     @UpdateTimestamp
     private Instant updatedAt;
 
+    // Lazy collections are initialized for up to 100 products per SELECT
+    // (one listing page), instead of one SELECT per product
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @Builder.Default
     @ToString.Exclude
     private List<ProductVariant> variants = new ArrayList<>();
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("id ASC")
+    @BatchSize(size = 100)
     @Builder.Default
     @ToString.Exclude
     private List<ProductImage> images = new ArrayList<>();
@@ -0,0 +1,30 @@
+package com.cs308.product.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Marker left behind by a deleted product, so the change feed can report
+ * the delete. Pruned after product.changes.tombstone-retention.
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+        // The change feed reads tombstones in (deletedAt, productId) order
+        @Index(name = "idx_product_tombstones_deleted_at", columnList = "deleted_at, product_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductTombstone {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
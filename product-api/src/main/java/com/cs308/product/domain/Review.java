@@ -19,6 +19,8 @@ import java.time.Instant;
 @Entity
 @Table(name = "reviews", indexes = {
         @Index(name = "idx_reviews_product_id", columnList = "product_id"),
+        // Serves the newest-first keyset pages of a product's reviews
+        @Index(name = "idx_reviews_product_created", columnList = "product_id, created_at, id"),
         @Index(name = "idx_reviews_user_id", columnList = "user_id")
 })
 public class Review {
@@ -0,0 +1,27 @@
+package com.cs308.product.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Named high-water mark of a background job, e.g. the start time of the last
+ * completed rating resync, so the next run can limit itself to newer changes.
+ */
+@Entity
+@Table(name = "sync_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "synced_at", nullable = false)
+    private Instant syncedAt;
+}
@@ -0,0 +1,104 @@
+package com.cs308.product.model;
+
+import com.cs308.product.service.InvalidCursorException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque position in the product change feed, which is ordered by
+ * (changedAt, productId). It carries the position of the last change
+ * returned, or a point in time the consumer has caught up to; the initial
+ * token (no {@code since}) is the start of time. Each token also records when
+ * it was issued, which is what expiry is judged by: the position of a first
+ * sync through an old catalog can be far older than the token itself.
+ */
+public final class ChangeToken implements Comparable<ChangeToken> {
+
+    public static final ChangeToken START = new ChangeToken(Instant.EPOCH, 0L, Instant.EPOCH);
+
+    // Version 1 tokens had no issue time; they count as issued at their position
+    private static final byte LEGACY_VERSION = 1;
+    private static final byte VERSION = 2;
+
+    private final Instant changedAt;
+    private final Long productId;
+    private final Instant issuedAt;
+
+    private ChangeToken(Instant changedAt, Long productId, Instant issuedAt) {
+        this.changedAt = changedAt;
+        this.productId = productId;
+        this.issuedAt = issuedAt;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public boolean isStart() {
+        return changedAt.equals(Instant.EPOCH) && productId == 0L;
+    }
+
+    public static ChangeToken after(ProductChange last, Instant issuedAt) {
+        return new ChangeToken(last.getChangedAt(), last.getProductId(), issuedAt);
+    }
+
+    /**
+     * Position just before every change stamped at {@code time}.
+     */
+    public static ChangeToken before(Instant time, Instant issuedAt) {
+        return new ChangeToken(time, 0L, issuedAt);
+    }
+
+    /**
+     * The same position, handed out again at {@code issuedAt}.
+     */
+    public ChangeToken reissue(Instant issuedAt) {
+        return new ChangeToken(changedAt, productId, issuedAt);
+    }
+
+    @Override
+    public int compareTo(ChangeToken other) {
+        int byTime = changedAt.compareTo(other.changedAt);
+        return byTime != 0 ? byTime : productId.compareTo(other.productId);
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 4 + 8 + 8 + 4);
+        buffer.put(VERSION)
+                .putLong(changedAt.getEpochSecond())
+                .putInt(changedAt.getNano())
+                .putLong(productId)
+                .putLong(issuedAt.getEpochSecond())
+                .putInt(issuedAt.getNano());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static ChangeToken decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            byte version = buffer.get();
+            if (version != VERSION && version != LEGACY_VERSION) {
+                throw new InvalidCursorException("Unsupported change token version");
+            }
+            Instant changedAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            long productId = buffer.getLong();
+            Instant issuedAt = version == LEGACY_VERSION
+                    ? changedAt : Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new ChangeToken(changedAt, productId, issuedAt);
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("Malformed change token");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.cs308.product.model;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A discount applied to every product matching the selector. Selector fields
+ * combine with AND; at least one must be set, so a campaign can never hit
+ * the whole catalog by accident.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountCampaignRequest {
+
+    // Selector
+    private String productType;
+    private String brand;
+    private String targetAudience;
+    @Size(max = 10_000)
+    private List<Long> productIds;
+
+    /**
+     * Percentage (0-100); 0 removes the discount from the selected products.
+     */
+    @NotNull
+    @DecimalMin("0")
+    @DecimalMax("100")
+    private Double discountRate;
+}
@@ -0,0 +1,15 @@
+package com.cs308.product.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Products a discount campaign changed, with their new prices.
+ */
+@Value
+public class DiscountCampaignResult {
+    Double discountRate;
+    List<Long> productIds;
+    List<ProductSummary> products;
+}
@@ -0,0 +1,27 @@
+package com.cs308.product.model;
+
+import com.cs308.product.domain.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One entry of the product change feed: the product's current state for an
+ * upsert, only its id for a delete.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChange {
+
+    public enum Type {
+        UPSERT, DELETE
+    }
+
+    private Type type;
+    private Long productId;
+    private Instant changedAt;
+    private Product product;
+}
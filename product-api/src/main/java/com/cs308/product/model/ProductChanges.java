@@ -0,0 +1,20 @@
+package com.cs308.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A batch of the product change feed in (changedAt, productId) order.
+ * {@code nextToken} is passed as {@code since} on the next pull; it equals
+ * the request's token when nothing changed. {@code hasMore} means the next
+ * pull can follow right away.
+ */
+@Data
+@AllArgsConstructor
+public class ProductChanges {
+    private List<ProductChange> changes;
+    private String nextToken;
+    private boolean hasMore;
+}
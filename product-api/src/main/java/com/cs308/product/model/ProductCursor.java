@@ -0,0 +1,131 @@
+package com.cs308.product.model;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.repository.ProductSort;
+import com.cs308.product.service.InvalidCursorException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque page token for keyset pagination.
+ * It carries the sort mode plus the sort-key values of the last row that was
+ * returned, serialized and Base64url-encoded so clients treat it as a blob.
+ */
+public final class ProductCursor {
+
+    private static final byte VERSION = 1;
+
+    private final ProductSort sort;
+    private final List<Object> values;
+
+    private ProductCursor(ProductSort sort, List<Object> values) {
+        this.sort = sort;
+        this.values = values;
+    }
+
+    public ProductSort getSort() {
+        return sort;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    public static ProductCursor of(ProductSort sort, List<Object> values) {
+        return new ProductCursor(sort, values);
+    }
+
+    /**
+     * Cursor pointing just after the given row in the given ordering.
+     */
+    public static ProductCursor after(ProductSort sort, Product last) {
+        List<Object> values = new ArrayList<>();
+        for (ProductSort.SortKey key : sort.getKeys()) {
+            values.add(key.extractor().apply(last));
+        }
+        return new ProductCursor(sort, values);
+    }
+
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeUTF(sort.name());
+            List<ProductSort.SortKey> keys = sort.getKeys();
+            for (int i = 0; i < keys.size(); i++) {
+                writeValue(out, keys.get(i).type(), values.get(i));
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(token);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            if (in.readByte() != VERSION) {
+                throw new InvalidCursorException("Unsupported cursor version");
+            }
+            ProductSort sort = ProductSort.valueOf(in.readUTF());
+            List<Object> values = new ArrayList<>();
+            for (ProductSort.SortKey key : sort.getKeys()) {
+                values.add(readValue(in, key.type()));
+            }
+            return new ProductCursor(sort, values);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Class<?> type, Object value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value == null) {
+            return;
+        }
+        if (type == String.class) {
+            out.writeUTF((String) value);
+        } else if (type == Long.class) {
+            out.writeLong((Long) value);
+        } else if (type == Integer.class) {
+            out.writeInt((Integer) value);
+        } else if (type == Double.class) {
+            out.writeDouble((Double) value);
+        } else if (type == Instant.class) {
+            Instant instant = (Instant) value;
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        } else {
+            throw new IllegalStateException("Unsupported cursor value type: " + type);
+        }
+    }
+
+    private static Object readValue(DataInputStream in, Class<?> type) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        if (type == String.class) {
+            return in.readUTF();
+        } else if (type == Long.class) {
+            return in.readLong();
+        } else if (type == Integer.class) {
+            return in.readInt();
+        } else if (type == Double.class) {
+            return in.readDouble();
+        } else if (type == Instant.class) {
+            return Instant.ofEpochSecond(in.readLong(), in.readInt());
+        }
+        throw new IllegalStateException("Unsupported cursor value type: " + type);
+    }
+}
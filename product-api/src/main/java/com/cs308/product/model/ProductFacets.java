@@ -0,0 +1,25 @@
+package com.cs308.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Result count plus per-value counts for the filter sidebar.
+ *
+ * {@code facets} maps a facet name (productType, targetAudience, color,
+ * season, fit) to value -> number of matching products. A facet's own
+ * selection is ignored when counting it, so the sidebar can show how many
+ * products each alternative value would give.
+ */
+@Data
+@AllArgsConstructor
+public class ProductFacets {
+    private int total;
+    private Map<String, Map<String, Integer>> facets;
+
+    public static ProductFacets empty() {
+        return new ProductFacets(0, Map.of());
+    }
+}
@@ -23,6 +23,28 @@ public class ProductFilterRequest {
     // ?description=...
     private String description;
 
+    // ?minPrice=...&maxPrice=... — inclusive bounds on the effective price
+    // (the discounted price when there is one)
+    private Double minPrice;
+    private Double maxPrice;
+
+    // ?inStock=true — only products with stock left
+    private Boolean inStock;
+
+    // ?onSale=true — only discounted products
+    private Boolean onSale;
+
     // ?sort=priceAsc vs. — default: relevance
     private String sort = "relevance";
+
+    // ?cursor=... — opaque token from the previous page's X-Next-Cursor header
+    private String cursor;
+
+    // ?limit=... — page size; when neither cursor nor limit is given the
+    // whole result is returned unpaged (legacy behaviour)
+    private Integer limit;
+
+    public boolean isPaged() {
+        return cursor != null || limit != null;
+    }
 }
\ No newline at end of file
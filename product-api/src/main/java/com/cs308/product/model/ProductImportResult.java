@@ -0,0 +1,24 @@
+package com.cs308.product.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Rows are counted per product; failed rows are
+ * skipped and the rest of the feed is still imported.
+ */
+@Value
+public class ProductImportResult {
+    int imported;
+    int failed;
+    // The first errors only (see ProductImportService.MAX_REPORTED_ERRORS)
+    List<RowError> errors;
+
+    @Value
+    public static class RowError {
+        // 1-based line of the feed where the product starts
+        long line;
+        String message;
+    }
+}
@@ -0,0 +1,46 @@
+package com.cs308.product.model;
+
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One product of a bulk import feed: the fields of a regular create request
+ * plus the product's variants.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ProductImportRow extends CreateProductRequest {
+
+    private List<@Valid @NotNull Variant> variants = new ArrayList<>();
+
+    @Data
+    public static class Variant {
+        @NotBlank
+        private String sku;
+        private String barcode;
+        @NotNull
+        private Color color;
+        @NotNull
+        private Size size;
+        @NotNull
+        @Min(0)
+        private Integer stockQuantity;
+        @NotNull
+        @DecimalMin("0.00")
+        private BigDecimal price;
+        @DecimalMin("0.00")
+        private BigDecimal discountedPrice;
+        private Boolean sellable = true;
+    }
+}
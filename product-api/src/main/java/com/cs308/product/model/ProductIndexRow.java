@@ -0,0 +1,62 @@
+package com.cs308.product.model;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.enums.Fit;
+import com.cs308.product.domain.enums.Season;
+import com.cs308.product.domain.enums.TargetAudience;
+import lombok.Getter;
+
+/**
+ * The columns the in-memory search, facet and typeahead indexes read, for
+ * the startup rebuild: no images, variants or other TEXT columns of the full
+ * entity, and nothing enters the persistence context. Built by the
+ * constructor-expression query in ProductRepository.
+ */
+@Getter
+public class ProductIndexRow {
+
+    private final Long id;
+    private final String name;
+    private final String brand;
+    private final String material;
+    private final String description;
+    private final String productType;
+    private final TargetAudience targetAudience;
+    private final Season season;
+    private final Fit fit;
+    private final Integer salesCount;
+
+    // Argument order is referenced by the JPQL "SELECT new ..." expression
+    public ProductIndexRow(Long id, String name, String brand, String material, String description,
+            String productType, TargetAudience targetAudience, Season season, Fit fit, Integer salesCount) {
+        this.id = id;
+        this.name = name;
+        this.brand = brand;
+        this.material = material;
+        this.description = description;
+        this.productType = productType;
+        this.targetAudience = targetAudience;
+        this.season = season;
+        this.fit = fit;
+        this.salesCount = salesCount;
+    }
+
+    /**
+     * A detached Product carrying only these columns, as the indexes'
+     * rebuild() methods take it.
+     */
+    public Product toProduct() {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .brand(brand)
+                .material(material)
+                .description(description)
+                .productType(productType)
+                .targetAudience(targetAudience)
+                .season(season)
+                .fit(fit)
+                .salesCount(salesCount)
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.cs308.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One keyset page of the catalog (full products or ProductSummary tiles).
+ * {@code nextCursor} is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class ProductPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.cs308.product.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One typeahead entry. {@code productId} is set only for PRODUCT suggestions;
+ * BRAND and CATEGORY suggestions are meant to be turned into a search/filter.
+ */
+@Value
+@Builder
+public class ProductSuggestion {
+
+    public enum Type {
+        PRODUCT, BRAND, CATEGORY
+    }
+
+    Type type;
+    String text;
+    Long productId;
+}
@@ -0,0 +1,42 @@
+package com.cs308.product.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Listing tile: the columns a product card needs, without the TEXT columns
+ * and collections of the full entity. Built by the constructor-expression
+ * queries in ProductRepository / ProductRepositoryCustomImpl.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductSummary {
+
+    private Long id;
+    private String name;
+    private String brand;
+    private Double price;
+    private Double discountedPrice;
+    private Double discountRate;
+    private String imageUrl;
+    private Double averageRating;
+    private Long reviewCount;
+    private boolean inStock;
+
+    // Argument order is referenced by the JPQL "SELECT new ..." expressions
+    public ProductSummary(Long id, String name, String brand, Double price, Double discountedPrice,
+            Double discountRate, String imageUrl, Double averageRating, Long reviewCount, Integer stock) {
+        this.id = id;
+        this.name = name;
+        this.brand = brand;
+        this.price = price;
+        this.discountedPrice = discountedPrice;
+        this.discountRate = discountRate;
+        this.imageUrl = imageUrl;
+        this.averageRating = averageRating;
+        this.reviewCount = reviewCount;
+        this.inStock = stock != null && stock > 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cs308.product.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The order a reservation is confirmed for: it must belong to this user and
+ * hold exactly these lines.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationConfirmRequest {
+
+    @NotNull
+    private Long userId;
+
+    @NotEmpty
+    @Valid
+    private List<StockReductionRequest.Line> items;
+}
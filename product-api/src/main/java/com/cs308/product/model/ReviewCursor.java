@@ -0,0 +1,61 @@
+package com.cs308.product.model;
+
+import com.cs308.product.domain.Review;
+import com.cs308.product.service.InvalidCursorException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque page token for review listings, which are ordered newest first by
+ * (createdAt, id). It carries the position of the last review returned.
+ */
+public final class ReviewCursor {
+
+    private static final byte VERSION = 1;
+
+    private final Instant createdAt;
+    private final Long id;
+
+    private ReviewCursor(Instant createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public static ReviewCursor after(Review last) {
+        return new ReviewCursor(last.getCreatedAt(), last.getId());
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 4 + 8);
+        buffer.put(VERSION)
+                .putLong(createdAt.getEpochSecond())
+                .putInt(createdAt.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static ReviewCursor decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.get() != VERSION) {
+                throw new InvalidCursorException("Unsupported cursor version");
+            }
+            Instant createdAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new ReviewCursor(createdAt, buffer.getLong());
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
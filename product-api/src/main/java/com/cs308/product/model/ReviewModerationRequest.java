@@ -0,0 +1,23 @@
+package com.cs308.product.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Review ids to approve or disapprove in one transaction.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewModerationRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull Long> reviewIds;
+}
@@ -0,0 +1,15 @@
+package com.cs308.product.model;
+
+import lombok.Value;
+
+/**
+ * Outcome of a bulk moderation call. Ids that did not match (unknown, or
+ * already in the target state) are counted in neither field.
+ */
+@Value
+public class ReviewModerationResult {
+    // Reviews approved, or whose comment was removed (rating kept)
+    int updated;
+    // Comment-only reviews that were disapproved and therefore deleted
+    int deleted;
+}
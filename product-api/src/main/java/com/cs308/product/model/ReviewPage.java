@@ -0,0 +1,17 @@
+package com.cs308.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One keyset page of a product's reviews, newest first. {@code nextCursor} is
+ * null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class ReviewPage {
+    private List<ReviewResponse> items;
+    private String nextCursor;
+}
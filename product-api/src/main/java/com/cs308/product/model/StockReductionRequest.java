@@ -0,0 +1,66 @@
+package com.cs308.product.model;
+
+import com.cs308.product.domain.enums.Color;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * All lines of one order; they are decremented together or not at all.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReductionRequest {
+
+    @NotEmpty
+    @Valid
+    private List<Line> items;
+
+    /**
+     * Quantity per product, with repeated products merged into one entry and
+     * sorted by id so concurrent orders lock rows in the same order.
+     */
+    public static Map<Long, Integer> totals(List<Line> lines) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (Line line : lines) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+
+        @NotNull
+        private Long productId;
+
+        @NotNull
+        @Min(1)
+        private Integer quantity;
+
+        /**
+         * Which of the product's variants the units belong to. Required for
+         * products with variants; either may be left out when the other
+         * alone identifies one.
+         */
+        private Color color;
+        private String size;
+
+        public Line(Long productId, Integer quantity) {
+            this(productId, quantity, null, null);
+        }
+    }
+}
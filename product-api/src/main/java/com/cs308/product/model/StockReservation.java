@@ -0,0 +1,16 @@
+package com.cs308.product.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+@Builder
+public class StockReservation {
+    String id;
+    Long userId;
+    List<StockReductionRequest.Line> items;
+    Instant expiresAt;
+}
@@ -0,0 +1,37 @@
+package com.cs308.product.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Units to hold for a user's cart until checkout. A new reservation for the
+ * same user replaces the previous one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+
+    @NotNull
+    private Long userId;
+
+    @NotEmpty
+    @Valid
+    private List<StockReductionRequest.Line> items;
+
+    /**
+     * How long to hold the stock; defaults to product.reservation.ttl and is
+     * capped at product.reservation.max-ttl.
+     */
+    @Min(1)
+    private Integer ttlSeconds;
+}
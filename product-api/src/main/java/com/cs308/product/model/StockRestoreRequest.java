@@ -1,5 +1,6 @@
 package com.cs308.product.model;
 
+import com.cs308.product.domain.enums.Color;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -22,6 +23,12 @@ public class StockRestoreRequest {
     @NotNull
     @Min(1)
     private Integer quantity;
+
+    /**
+     * The variant the units go back to, as in StockReductionRequest.Line.
+     */
+    private Color color;
+    private String size;
 }
 
 
@@ -0,0 +1,29 @@
+package com.cs308.product.model;
+
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+import java.math.BigDecimal;
+
+/**
+ * What a scanner needs to know about a variant, found by SKU or barcode.
+ * Immutable, so index entries can be shared with readers; a stock change
+ * replaces the entry. Built by the constructor-expression queries in
+ * ProductVariantRepository.
+ */
+@Value
+@AllArgsConstructor
+public class VariantLookup {
+    Long variantId;
+    Long productId;
+    String sku;
+    String barcode;
+    Color color;
+    Size size;
+    @With
+    Integer stockQuantity;
+    BigDecimal price;
+}
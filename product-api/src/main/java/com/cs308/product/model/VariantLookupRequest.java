@@ -0,0 +1,23 @@
+package com.cs308.product.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * SKUs and/or barcodes to resolve in one call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantLookupRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotBlank String> codes;
+}
@@ -7,11 +7,34 @@ import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
-    @Query("DELETE FROM CartItem c WHERE c.product.id = :productId")
-    void deleteByProductId(Long productId);
+    @Query("DELETE FROM CartItem c WHERE c.product.id IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Points cart items saved before variants were tracked at a variant of
+     * their product: the one of the item's size (any size if it has none),
+     * the best-stocked one when several colors match. Items of products
+     * without variants, or of a size the product no longer has, stay null.
+     *
+     * @return number of items updated
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE cart_items SET variant_id = (" +
+            "SELECT v.id FROM product_variants v WHERE v.product_id = cart_items.product_id " +
+            "AND (cart_items.size IS NULL OR v.size = UPPER(TRIM(cart_items.size))) " +
+            "ORDER BY v.stock_quantity DESC, v.id LIMIT 1) " +
+            "WHERE variant_id IS NULL AND EXISTS (" +
+            "SELECT 1 FROM product_variants v WHERE v.product_id = cart_items.product_id " +
+            "AND (cart_items.size IS NULL OR v.size = UPPER(TRIM(cart_items.size))))", nativeQuery = true)
+    int backfillVariants();
 }
@@ -7,11 +7,14 @@ import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Modifying
-    @Query("DELETE FROM OrderItem o WHERE o.product.id = :productId")
-    void deleteByProductId(Long productId);
+    @Query("DELETE FROM OrderItem o WHERE o.product.id IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
@@ -0,0 +1,130 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.model.ProductImportRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk catalog inserts as plain JDBC batches. Product ids are identity
+ * columns, so Hibernate would insert products one statement at a time; here
+ * the whole batch is one round trip and the driver hands back the generated
+ * ids, which the image and variant batches then reference.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductImportRepository {
+
+    private static final String PRODUCT_SQL = "INSERT INTO products (" +
+            "name, price, stock, model, serial_number, description, brand, product_type, " +
+            "target_audience, warranty_status, distributor_info, season, fit, material, " +
+            "care_instructions, active, sales_count, average_rating, review_count, rating_sum, " +
+            "rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count, " +
+            "created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0, 0, ?, ?)";
+
+    private static final String IMAGE_SQL = "INSERT INTO product_images (url, product_id) VALUES (?, ?)";
+
+    private static final String VARIANT_SQL = "INSERT INTO product_variants (" +
+            "product_id, sku, barcode, color, size, stock_quantity, price, discounted_price, is_sellable) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the products with their images and variants, one JDBC batch
+     * per table. Must run in a transaction: a failing row fails the batch.
+     *
+     * @return the generated product ids, in row order
+     */
+    public List<Long> insert(List<ProductImportRow> rows, Instant now) {
+        Timestamp timestamp = Timestamp.from(now);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(PRODUCT_SQL, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setProduct(ps, rows.get(i), timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keys);
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> variants = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ProductImportRow row = rows.get(i);
+            Long productId = ids.get(i);
+            if (row.getImageUrls() != null) {
+                for (String url : row.getImageUrls()) {
+                    images.add(new Object[] { url, productId });
+                }
+            }
+            for (ProductImportRow.Variant variant : row.getVariants()) {
+                variants.add(new Object[] {
+                        productId, variant.getSku(), variant.getBarcode(),
+                        variant.getColor().name(), variant.getSize().name(),
+                        variant.getStockQuantity(), variant.getPrice(), variant.getDiscountedPrice(),
+                        variant.getSellable() == null || variant.getSellable() });
+            }
+        }
+        if (!images.isEmpty()) {
+            jdbcTemplate.batchUpdate(IMAGE_SQL, images);
+        }
+        if (!variants.isEmpty()) {
+            jdbcTemplate.batchUpdate(VARIANT_SQL, variants);
+        }
+        return ids;
+    }
+
+    private static void setProduct(PreparedStatement ps, ProductImportRow row, Timestamp now) throws SQLException {
+        ps.setString(1, row.getName());
+        ps.setDouble(2, row.getPrice());
+        ps.setInt(3, row.getStock());
+        ps.setString(4, row.getModel());
+        ps.setString(5, row.getSerialNumber());
+        ps.setString(6, row.getDescription());
+        ps.setString(7, row.getBrand());
+        ps.setString(8, row.getProductType());
+        ps.setString(9, row.getTargetAudience().name());
+        ps.setString(10, row.getWarrantyStatus().name());
+        ps.setString(11, row.getDistributorInfo());
+        setEnum(ps, 12, row.getSeason());
+        setEnum(ps, 13, row.getFit());
+        ps.setString(14, row.getMaterial());
+        ps.setString(15, row.getCareInstructions());
+        ps.setBoolean(16, row.getActive() == null || row.getActive());
+        ps.setTimestamp(17, now);
+        ps.setTimestamp(18, now);
+    }
+
+    private static void setEnum(PreparedStatement ps, int index, Enum<?> value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value.name());
+        }
+    }
+}
@@ -4,67 +4,236 @@ import com.cs308.product.domain.Product;
 import com.cs308.product.domain.enums.Color;
 
 import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.model.ProductIndexRow;
+import com.cs308.product.model.ProductSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
-        @Query("SELECT DISTINCT p FROM Product p " +
-                        "LEFT JOIN p.variants v " +
+        int EXPORT_FETCH_SIZE = 500;
+
+        /**
+         * JPQL constructor expression for ProductSummary over alias {@code p}.
+         * The first image is the one with the lowest id, matching the
+         * {@code @OrderBy("id ASC")} on Product.images.
+         */
+        String SUMMARY_SELECT = "new com.cs308.product.model.ProductSummary(" +
+                        "p.id, p.name, p.brand, p.price, p.discountedPrice, p.discountRate, " +
+                        "(SELECT i.url FROM ProductImage i WHERE i.id = " +
+                        "(SELECT MIN(i2.id) FROM ProductImage i2 WHERE i2.product = p)), " +
+                        "p.averageRating, p.reviewCount, p.stock)";
+
+        // Color filters use EXISTS rather than a join on variants, so each
+        // product is returned once without DISTINCT and no variant rows are read.
+        // Price bounds apply to the effective price, which has an expression
+        // index (see schema.sql)
+        @Query("SELECT p FROM Product p " +
                         "WHERE (:qPattern IS NULL OR LOWER(p.name) LIKE :qPattern " +
                         "OR LOWER(p.description) LIKE :qPattern " +
                         "OR LOWER(p.brand) LIKE :qPattern) " +
                         "AND (:productType IS NULL OR LOWER(p.productType) = :productType) " +
                         "AND (:targetAudience IS NULL OR p.targetAudience = :targetAudience) " +
-                        "AND (:color IS NULL OR v.color = :color) " +
-                        "AND (:descriptionPattern IS NULL OR LOWER(p.description) LIKE :descriptionPattern)")
+                        "AND (:color IS NULL OR EXISTS (SELECT 1 FROM ProductVariant v " +
+                        "WHERE v.product = p AND v.color = :color)) " +
+                        "AND (:descriptionPattern IS NULL OR LOWER(p.description) LIKE :descriptionPattern) " +
+                        "AND (:minPrice IS NULL OR COALESCE(p.discountedPrice, p.price) >= :minPrice) " +
+                        "AND (:maxPrice IS NULL OR COALESCE(p.discountedPrice, p.price) <= :maxPrice) " +
+                        "AND (:inStock = false OR p.stock > 0) " +
+                        "AND (:onSale = false OR p.discountedPrice IS NOT NULL)")
         List<Product> search(@Param("qPattern") String qPattern,
                         @Param("productType") String productType,
                         @Param("targetAudience") TargetAudience targetAudience,
                         @Param("color") Color color,
                         @Param("descriptionPattern") String descriptionPattern,
+                        @Param("minPrice") Double minPrice,
+                        @Param("maxPrice") Double maxPrice,
+                        @Param("inStock") boolean inStock,
+                        @Param("onSale") boolean onSale,
                         Sort sort);
 
         // ✅ FIXED: Simple Sort - High Rating (5.0) -> Low Rating (0.0)
         @Query("SELECT p FROM Product p " +
-                        "LEFT JOIN p.variants v " +
                         "WHERE (:qPattern IS NULL OR LOWER(p.name) LIKE :qPattern " +
                         "OR LOWER(p.description) LIKE :qPattern " +
                         "OR LOWER(p.brand) LIKE :qPattern) " +
                         "AND (:productType IS NULL OR LOWER(p.productType) = :productType) " +
                         "AND (:targetAudience IS NULL OR p.targetAudience = :targetAudience) " +
-                        "AND (:color IS NULL OR v.color = :color) " +
+                        "AND (:color IS NULL OR EXISTS (SELECT 1 FROM ProductVariant v " +
+                        "WHERE v.product = p AND v.color = :color)) " +
                         "AND (:descriptionPattern IS NULL OR LOWER(p.description) LIKE :descriptionPattern) " +
+                        "AND (:minPrice IS NULL OR COALESCE(p.discountedPrice, p.price) >= :minPrice) " +
+                        "AND (:maxPrice IS NULL OR COALESCE(p.discountedPrice, p.price) <= :maxPrice) " +
+                        "AND (:inStock = false OR p.stock > 0) " +
+                        "AND (:onSale = false OR p.discountedPrice IS NOT NULL) " +
                         "ORDER BY p.averageRating DESC, p.reviewCount DESC, p.name ASC")
         List<Product> searchOrderByRatingDesc(@Param("qPattern") String qPattern,
                         @Param("productType") String productType,
                         @Param("targetAudience") TargetAudience targetAudience,
                         @Param("color") Color color,
-                        @Param("descriptionPattern") String descriptionPattern);
+                        @Param("descriptionPattern") String descriptionPattern,
+                        @Param("minPrice") Double minPrice,
+                        @Param("maxPrice") Double maxPrice,
+                        @Param("inStock") boolean inStock,
+                        @Param("onSale") boolean onSale);
 
         // ✅ FIXED: Low Rating logic
         // We explicitly put Unrated (0 reviews) at the bottom, so "Low" means "1 Star",
         // not "0 Stars"
         @Query("SELECT p FROM Product p " +
-                        "LEFT JOIN p.variants v " +
                         "WHERE (:qPattern IS NULL OR LOWER(p.name) LIKE :qPattern " +
                         "OR LOWER(p.description) LIKE :qPattern " +
                         "OR LOWER(p.brand) LIKE :qPattern) " +
                         "AND (:productType IS NULL OR LOWER(p.productType) = :productType) " +
                         "AND (:targetAudience IS NULL OR p.targetAudience = :targetAudience) " +
-                        "AND (:color IS NULL OR v.color = :color) " +
+                        "AND (:color IS NULL OR EXISTS (SELECT 1 FROM ProductVariant v " +
+                        "WHERE v.product = p AND v.color = :color)) " +
                         "AND (:descriptionPattern IS NULL OR LOWER(p.description) LIKE :descriptionPattern) " +
+                        "AND (:minPrice IS NULL OR COALESCE(p.discountedPrice, p.price) >= :minPrice) " +
+                        "AND (:maxPrice IS NULL OR COALESCE(p.discountedPrice, p.price) <= :maxPrice) " +
+                        "AND (:inStock = false OR p.stock > 0) " +
+                        "AND (:onSale = false OR p.discountedPrice IS NOT NULL) " +
                         "ORDER BY CASE WHEN p.reviewCount > 0 THEN 0 ELSE 1 END, " +
                         "p.averageRating ASC, p.reviewCount DESC, p.name ASC")
         List<Product> searchOrderByRatingAsc(@Param("qPattern") String qPattern,
                         @Param("productType") String productType,
                         @Param("targetAudience") TargetAudience targetAudience,
                         @Param("color") Color color,
-                        @Param("descriptionPattern") String descriptionPattern);
-}
\ No newline at end of file
+                        @Param("descriptionPattern") String descriptionPattern,
+                        @Param("minPrice") Double minPrice,
+                        @Param("maxPrice") Double maxPrice,
+                        @Param("inStock") boolean inStock,
+                        @Param("onSale") boolean onSale);
+
+        /**
+         * (productId, color) pairs of all variants, for building the facet
+         * index without initializing every product's variant collection.
+         */
+        @Query("SELECT DISTINCT v.product.id, v.color FROM ProductVariant v WHERE v.color IS NOT NULL")
+        List<Object[]> findAllVariantColors();
+
+        @Query("SELECT " + SUMMARY_SELECT + " FROM Product p WHERE p.id IN :ids")
+        List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+        /**
+         * Every product as the columns the in-memory indexes read, for the
+         * startup rebuild (see SearchIndexRunner).
+         */
+        @Query("SELECT new com.cs308.product.model.ProductIndexRow(p.id, p.name, p.brand, p.material, " +
+                        "p.description, p.productType, p.targetAudience, p.season, p.fit, p.salesCount) " +
+                        "FROM Product p")
+        List<ProductIndexRow> findAllIndexRows();
+
+        /**
+         * Adds the coalesced rating changes of new reviews to the product's
+         * running aggregates and recomputes averageRating from them, in a
+         * single row UPDATE whose cost does not depend on the number of
+         * reviews. The right-hand sides read the pre-update values, so
+         * concurrent writers serialize on the row lock instead of
+         * overwriting each other.
+         *
+         * Matches no row if a rebuild from the reviews table has already
+         * counted a review at or above {@code minReviewId} (its watermark);
+         * the caller then recomputes the product instead of adding twice.
+         *
+         * @param minReviewId lowest review id among the changes
+         * @param sumDelta    change of the sum of ratings
+         * @param countDelta  change of the number of rated reviews
+         * @param d1          change of the 1-star count (d2..d5 likewise)
+         * @return 1 if applied, 0 if the product is gone or the watermark
+         *         has reached the changes
+         */
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("UPDATE Product p SET " +
+                        "p.ratingSum = COALESCE(p.ratingSum, 0) + :sumDelta, " +
+                        "p.reviewCount = COALESCE(p.reviewCount, 0) + :countDelta, " +
+                        "p.averageRating = CASE WHEN COALESCE(p.reviewCount, 0) + :countDelta > 0 " +
+                        "THEN CAST(COALESCE(p.ratingSum, 0) + :sumDelta AS Double) / (COALESCE(p.reviewCount, 0) + :countDelta) " +
+                        "ELSE 0.0 END, " +
+                        "p.rating1Count = COALESCE(p.rating1Count, 0) + :d1, " +
+                        "p.rating2Count = COALESCE(p.rating2Count, 0) + :d2, " +
+                        "p.rating3Count = COALESCE(p.rating3Count, 0) + :d3, " +
+                        "p.rating4Count = COALESCE(p.rating4Count, 0) + :d4, " +
+                        "p.rating5Count = COALESCE(p.rating5Count, 0) + :d5, " +
+                        "p.updatedAt = :now " +
+                        "WHERE p.id = :id AND COALESCE(p.ratingWatermark, 0) < :minReviewId")
+        int applyRatingDelta(@Param("id") Long id, @Param("minReviewId") long minReviewId,
+                        @Param("sumDelta") long sumDelta, @Param("countDelta") long countDelta,
+                        @Param("d1") long d1, @Param("d2") long d2, @Param("d3") long d3,
+                        @Param("d4") long d4, @Param("d5") long d5, @Param("now") Instant now);
+
+        /**
+         * Discount campaign: sets the rate and the rounded discounted price of
+         * all given products in one statement. Bulk updates bypass
+         * {@code @UpdateTimestamp}, so updatedAt is set explicitly.
+         */
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("UPDATE Product p SET p.discountRate = :rate, " +
+                        "p.discountedPrice = ROUND(p.price * (1 - :rate / 100.0), 2), " +
+                        "p.updatedAt = :now " +
+                        "WHERE p.id IN :ids")
+        int applyDiscount(@Param("ids") Collection<Long> ids, @Param("rate") double rate,
+                        @Param("now") Instant now);
+
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("UPDATE Product p SET p.discountRate = NULL, p.discountedPrice = NULL, p.updatedAt = :now " +
+                        "WHERE p.id IN :ids")
+        int clearDiscount(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+        // Bulk product deletion: children first, one statement per table.
+        // Bypasses the cascade on Product.images/variants, which would load
+        // and delete them row by row.
+
+        @Modifying
+        @Query("DELETE FROM ProductImage i WHERE i.product.id IN :ids")
+        int deleteImagesOf(@Param("ids") Collection<Long> ids);
+
+        @Modifying
+        @Query("DELETE FROM ProductVariant v WHERE v.product.id IN :ids")
+        int deleteVariantsOf(@Param("ids") Collection<Long> ids);
+
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("DELETE FROM Product p WHERE p.id IN :ids")
+        int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+        /**
+         * Products changed after position (at, id) in (updatedAt, id) order,
+         * up to {@code until} inclusive (change feed).
+         */
+        @Query("SELECT p FROM Product p " +
+                        "WHERE (p.updatedAt > :at OR (p.updatedAt = :at AND p.id > :id)) " +
+                        "AND p.updatedAt <= :until " +
+                        "ORDER BY p.updatedAt, p.id")
+        List<Product> findChangedAfter(@Param("at") Instant at, @Param("id") Long id,
+                        @Param("until") Instant until, Limit limit);
+
+        // Catalog export: read through a server-side cursor (Postgres only
+        // honours the fetch size inside a transaction), in updatedAt order so
+        // an export can be resumed with the last updatedAt seen
+
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+        @Query("SELECT p FROM Product p ORDER BY p.updatedAt, p.id")
+        Stream<Product> streamAllForExport();
+
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+        @Query("SELECT p FROM Product p WHERE p.updatedAt > :since ORDER BY p.updatedAt, p.id")
+        Stream<Product> streamUpdatedSince(@Param("since") Instant since);
+}
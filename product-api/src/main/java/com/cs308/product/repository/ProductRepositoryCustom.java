@@ -0,0 +1,45 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.model.ProductSummary;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset (seek) page of the catalog search.
+     *
+     * @param criteria filters to apply
+     * @param sort     ordering; its keys define the seek predicate
+     * @param after    key values of the last row of the previous page, in
+     *                 {@link ProductSort#getKeys()} order, or null for the
+     *                 first page
+     * @param limit    maximum number of rows to return
+     */
+    List<Product> searchPage(ProductSearchCriteria criteria, ProductSort sort, List<Object> after, int limit);
+
+    /**
+     * searchPage() projected to ProductSummary. Each row is the summary
+     * followed by the values of {@code sort}'s keys, which the caller needs
+     * to build the next cursor.
+     *
+     * @param limit maximum number of rows, or null for all
+     */
+    List<SummaryRow> searchSummaries(ProductSearchCriteria criteria, ProductSort sort, List<Object> after,
+            Integer limit);
+
+    /**
+     * Unpaged catalog search with the same filters and orderings as searchPage().
+     */
+    List<Product> searchAll(ProductSearchCriteria criteria, ProductSort sort);
+
+    /**
+     * Ids of the products matching the criteria, unordered. Used to intersect
+     * SQL filters with in-memory relevance ranking without loading entities.
+     */
+    List<Long> searchIds(ProductSearchCriteria criteria);
+
+    record SummaryRow(ProductSummary summary, List<Object> sortValues) {
+    }
+}
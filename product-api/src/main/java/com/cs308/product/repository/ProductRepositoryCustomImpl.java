@@ -0,0 +1,183 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.model.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // Keeps each IN list well below the JDBC bind-parameter limit
+    public static final int IN_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Consecutive views of at most {@link #IN_CHUNK_SIZE} values each, one per
+     * IN (...) list a query over all of them has to be split into.
+     */
+    public static <T> List<List<T>> inChunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>((values.size() + IN_CHUNK_SIZE - 1) / IN_CHUNK_SIZE);
+        for (int from = 0; from < values.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + IN_CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    @Override
+    public List<Product> searchPage(ProductSearchCriteria criteria, ProductSort sort, List<Object> after, int limit) {
+        TypedQuery<Product> query = buildQuery("p", Product.class, criteria, sort, after);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<SummaryRow> searchSummaries(ProductSearchCriteria criteria, ProductSort sort, List<Object> after,
+            Integer limit) {
+        List<String> select = new ArrayList<>();
+        select.add(ProductRepository.SUMMARY_SELECT);
+        for (ProductSort.SortKey key : sort.getKeys()) {
+            select.add(key.expression());
+        }
+        TypedQuery<Object[]> query = buildQuery(String.join(", ", select), Object[].class, criteria, sort, after);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        List<SummaryRow> rows = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            rows.add(new SummaryRow((ProductSummary) row[0], Arrays.asList(row).subList(1, row.length)));
+        }
+        return rows;
+    }
+
+    @Override
+    public List<Product> searchAll(ProductSearchCriteria criteria, ProductSort sort) {
+        return buildQuery("p", Product.class, criteria, sort, null).getResultList();
+    }
+
+    @Override
+    public List<Long> searchIds(ProductSearchCriteria criteria) {
+        Map<String, Object> params = new HashMap<>();
+        String jpql = "SELECT p.id FROM Product p WHERE " + whereClause(criteria, params);
+        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private <T> TypedQuery<T> buildQuery(String select, Class<T> resultType, ProductSearchCriteria criteria,
+            ProductSort sort, List<Object> after) {
+        if (sort == ProductSort.RELEVANCE) {
+            throw new IllegalArgumentException("Relevance is ranked in memory, not in SQL");
+        }
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT ").append(select).append(" FROM Product p WHERE ")
+                .append(whereClause(criteria, params));
+
+        List<ProductSort.SortKey> keys = sort.getKeys();
+        if (after != null) {
+            jpql.append(" AND (").append(seekPredicate(keys)).append(")");
+            for (int i = 0; i < keys.size(); i++) {
+                params.put("k" + i, after.get(i));
+            }
+        }
+
+        List<String> orderBy = new ArrayList<>();
+        for (ProductSort.SortKey key : keys) {
+            orderBy.add(key.expression() + (key.ascending() ? " ASC" : " DESC"));
+        }
+        jpql.append(" ORDER BY ").append(String.join(", ", orderBy));
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), resultType);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private static String whereClause(ProductSearchCriteria criteria, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder("1 = 1");
+
+        if (criteria.getProductIds() != null) {
+            List<Long> ids = new ArrayList<>(criteria.getProductIds());
+            if (ids.isEmpty()) {
+                return "1 = 0";
+            }
+            List<String> chunks = new ArrayList<>();
+            for (List<Long> chunk : inChunks(ids)) {
+                String param = "ids" + chunks.size();
+                chunks.add("p.id IN :" + param);
+                params.put(param, chunk);
+            }
+            where.append(" AND (").append(String.join(" OR ", chunks)).append(")");
+        } else if (criteria.getQPattern() != null) {
+            where.append(" AND (LOWER(p.name) LIKE :qPattern")
+                    .append(" OR LOWER(p.description) LIKE :qPattern")
+                    .append(" OR LOWER(p.brand) LIKE :qPattern)");
+            params.put("qPattern", criteria.getQPattern());
+        }
+        if (criteria.getProductType() != null) {
+            where.append(" AND LOWER(p.productType) = :productType");
+            params.put("productType", criteria.getProductType());
+        }
+        if (criteria.getBrand() != null) {
+            where.append(" AND LOWER(p.brand) = :brand");
+            params.put("brand", criteria.getBrand());
+        }
+        if (criteria.getTargetAudience() != null) {
+            where.append(" AND p.targetAudience = :targetAudience");
+            params.put("targetAudience", criteria.getTargetAudience());
+        }
+        if (criteria.getColor() != null) {
+            // EXISTS instead of JOIN + DISTINCT so every product appears once and LIMIT stays exact
+            where.append(" AND EXISTS (SELECT 1 FROM ProductVariant v WHERE v.product = p AND v.color = :color)");
+            params.put("color", criteria.getColor());
+        }
+        if (criteria.getDescriptionPattern() != null) {
+            where.append(" AND LOWER(p.description) LIKE :descriptionPattern");
+            params.put("descriptionPattern", criteria.getDescriptionPattern());
+        }
+        if (criteria.getMinPrice() != null) {
+            where.append(" AND ").append(ProductSort.EFFECTIVE_PRICE).append(" >= :minPrice");
+            params.put("minPrice", criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            where.append(" AND ").append(ProductSort.EFFECTIVE_PRICE).append(" <= :maxPrice");
+            params.put("maxPrice", criteria.getMaxPrice());
+        }
+        if (criteria.isInStock()) {
+            where.append(" AND p.stock > 0");
+        }
+        if (criteria.isOnSale()) {
+            where.append(" AND p.discountedPrice IS NOT NULL");
+        }
+        return where.toString();
+    }
+
+    /**
+     * Lexicographic "row comes after the cursor" predicate:
+     * (k0 > :k0) OR (k0 = :k0 AND k1 > :k1) OR ..., with the comparison
+     * flipped for descending keys.
+     */
+    private static String seekPredicate(List<ProductSort.SortKey> keys) {
+        List<String> branches = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            StringBuilder branch = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                branch.append(keys.get(j).expression()).append(" = :k").append(j).append(" AND ");
+            }
+            ProductSort.SortKey key = keys.get(i);
+            branch.append(key.expression())
+                    .append(key.ascending() ? " > :k" : " < :k")
+                    .append(i)
+                    .append(")");
+            branches.add(branch.toString());
+        }
+        return String.join(" OR ", branches);
+    }
+}
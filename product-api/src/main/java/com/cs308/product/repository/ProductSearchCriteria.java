@@ -0,0 +1,39 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.TargetAudience;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Collection;
+
+/**
+ * Already-normalized catalog filters (lowercased patterns, parsed enums).
+ * A null field (or false flag) means "no restriction".
+ */
+@Value
+@Builder(toBuilder = true)
+public class ProductSearchCriteria {
+    String qPattern;
+    String productType;
+    // Lowercased, matched exactly
+    String brand;
+    TargetAudience targetAudience;
+    Color color;
+    String descriptionPattern;
+    // Inclusive bounds on the effective price, COALESCE(discountedPrice, price)
+    Double minPrice;
+    Double maxPrice;
+    boolean inStock;
+    boolean onSale;
+    // Candidate ids from the in-memory search index; replaces qPattern when set
+    Collection<Long> productIds;
+
+    /**
+     * Whether a price or stock filter is set. ProductFacetIndex does not
+     * track these, so they have to be resolved to productIds in SQL first.
+     */
+    public boolean hasRangeFilters() {
+        return minPrice != null || maxPrice != null || inStock || onSale;
+    }
+}
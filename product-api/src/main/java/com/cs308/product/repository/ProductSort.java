@@ -0,0 +1,124 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Sort modes supported by the catalog search, expressed as an ordered list of
+ * keyset columns. Every mode ends with the product id so the ordering is total
+ * and a page boundary can always be resumed with a seek predicate.
+ */
+public enum ProductSort {
+
+    NAME_ASC(
+            SortKey.asc("p.name", String.class, Product::getName),
+            SortKey.asc("p.id", Long.class, Product::getId)),
+    NAME_DESC(
+            SortKey.desc("p.name", String.class, Product::getName),
+            SortKey.desc("p.id", Long.class, Product::getId)),
+    PRICE_ASC(
+            SortKey.asc("p.price", Double.class, Product::getPrice),
+            SortKey.asc("p.id", Long.class, Product::getId)),
+    PRICE_DESC(
+            SortKey.desc("p.price", Double.class, Product::getPrice),
+            SortKey.desc("p.id", Long.class, Product::getId)),
+    // What the customer pays: the discounted price when there is one
+    EFFECTIVE_PRICE_ASC(
+            SortKey.asc(ProductSort.EFFECTIVE_PRICE, Double.class, ProductSort::effectivePrice),
+            SortKey.asc("p.id", Long.class, Product::getId)),
+    EFFECTIVE_PRICE_DESC(
+            SortKey.desc(ProductSort.EFFECTIVE_PRICE, Double.class, ProductSort::effectivePrice),
+            SortKey.desc("p.id", Long.class, Product::getId)),
+    NEWEST(
+            SortKey.desc("p.createdAt", Instant.class, Product::getCreatedAt),
+            SortKey.desc("p.id", Long.class, Product::getId)),
+    POPULARITY(
+            SortKey.desc("COALESCE(p.salesCount, 0)", Integer.class,
+                    p -> p.getSalesCount() == null ? 0 : p.getSalesCount()),
+            SortKey.desc("p.id", Long.class, Product::getId)),
+    // Highest rated -> lowest, unrated last
+    RATING_DESC(
+            SortKey.desc("COALESCE(p.averageRating, 0.0)", Double.class,
+                    p -> p.getAverageRating() == null ? 0.0 : p.getAverageRating()),
+            SortKey.desc("COALESCE(p.reviewCount, 0)", Long.class,
+                    p -> p.getReviewCount() == null ? 0L : p.getReviewCount()),
+            SortKey.asc("p.name", String.class, Product::getName),
+            SortKey.asc("p.id", Long.class, Product::getId)),
+    // Lowest rated -> highest, unrated (0 reviews) explicitly at the bottom
+    RATING_ASC(
+            SortKey.asc("CASE WHEN COALESCE(p.reviewCount, 0) > 0 THEN 0 ELSE 1 END", Integer.class,
+                    p -> p.getReviewCount() != null && p.getReviewCount() > 0 ? 0 : 1),
+            SortKey.asc("COALESCE(p.averageRating, 0.0)", Double.class,
+                    p -> p.getAverageRating() == null ? 0.0 : p.getAverageRating()),
+            SortKey.desc("COALESCE(p.reviewCount, 0)", Long.class,
+                    p -> p.getReviewCount() == null ? 0L : p.getReviewCount()),
+            SortKey.asc("p.name", String.class, Product::getName),
+            SortKey.asc("p.id", Long.class, Product::getId)),
+    // Text relevance from ProductSearchIndex. The score only exists in memory,
+    // so this mode has no JPQL expression and is ranked by ProductService.
+    RELEVANCE(
+            SortKey.desc(null, Double.class, null),
+            SortKey.asc("p.id", Long.class, Product::getId));
+
+    /**
+     * JPQL for the price a customer pays; also used by the price filters.
+     */
+    public static final String EFFECTIVE_PRICE = "COALESCE(p.discountedPrice, p.price)";
+
+    private final List<SortKey> keys;
+
+    ProductSort(SortKey... keys) {
+        this.keys = List.of(keys);
+    }
+
+    public List<SortKey> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Maps the public ?sort= parameter to a sort mode.
+     * Missing, blank and unknown values fall back to Name A–Z.
+     */
+    public static ProductSort fromParam(String sortParam) {
+        if (sortParam == null || sortParam.isBlank()) {
+            return NAME_ASC;
+        }
+        return switch (sortParam.toLowerCase(Locale.ENGLISH)) {
+            case "relevance" -> RELEVANCE;
+            case "namedesc" -> NAME_DESC;
+            case "priceasc" -> PRICE_ASC;
+            case "pricedesc" -> PRICE_DESC;
+            case "effectivepriceasc" -> EFFECTIVE_PRICE_ASC;
+            case "effectivepricedesc" -> EFFECTIVE_PRICE_DESC;
+            case "newest" -> NEWEST;
+            case "popularity" -> POPULARITY;
+            case "ratingdesc" -> RATING_DESC;
+            case "ratingasc" -> RATING_ASC;
+            default -> NAME_ASC;
+        };
+    }
+
+    private static Object effectivePrice(Product product) {
+        return product.getDiscountedPrice() != null ? product.getDiscountedPrice() : product.getPrice();
+    }
+
+    /**
+     * One column of a keyset ordering: the JPQL expression, its direction,
+     * the Java type of its value and how to read that value off a loaded row.
+     */
+    public record SortKey(String expression, boolean ascending, Class<?> type,
+            Function<Product, Object> extractor) {
+
+        static SortKey asc(String expression, Class<?> type, Function<Product, Object> extractor) {
+            return new SortKey(expression, true, type, extractor);
+        }
+
+        static SortKey desc(String expression, Class<?> type, Function<Product, Object> extractor) {
+            return new SortKey(expression, false, type, extractor);
+        }
+    }
+}
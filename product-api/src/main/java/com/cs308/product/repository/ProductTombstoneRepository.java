@@ -0,0 +1,41 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Records a tombstone for each of the given products that exists; call
+     * before deleting them.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO product_tombstones (product_id, deleted_at) " +
+            "SELECT id, :now FROM products WHERE id IN :ids", nativeQuery = true)
+    int recordDeletes(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Tombstones after position (at, id) in (deletedAt, productId) order, up
+     * to {@code until} inclusive.
+     */
+    @Query("SELECT t FROM ProductTombstone t " +
+            "WHERE (t.deletedAt > :at OR (t.deletedAt = :at AND t.productId > :id)) " +
+            "AND t.deletedAt <= :until " +
+            "ORDER BY t.deletedAt, t.productId")
+    List<ProductTombstone> findAfter(@Param("at") Instant at, @Param("id") Long id,
+            @Param("until") Instant until, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM ProductTombstone t WHERE t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") Instant before);
+}
@@ -0,0 +1,35 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.model.VariantLookup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
+
+    String LOOKUP_SELECT = "SELECT new com.cs308.product.model.VariantLookup(" +
+            "v.id, v.product.id, v.sku, v.barcode, v.color, v.size, v.stockQuantity, v.price) " +
+            "FROM ProductVariant v ";
+
+    /**
+     * Every variant, for loading VariantLookupIndex at startup.
+     */
+    @Query(LOOKUP_SELECT)
+    List<VariantLookup> findAllLookups();
+
+    /**
+     * Variants whose SKU or barcode is one of the codes (idx_variant_sku,
+     * idx_variant_barcode).
+     */
+    @Query(LOOKUP_SELECT + "WHERE v.sku IN :codes OR v.barcode IN :codes")
+    List<VariantLookup> findLookupsByCodeIn(@Param("codes") Collection<String> codes);
+
+    @Query(LOOKUP_SELECT + "WHERE v.product.id IN :productIds")
+    List<VariantLookup> findLookupsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,103 @@
+package com.cs308.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Set-based rebuild of the products' rating aggregates, for the whole catalog
+ * or for single products (see ProductRepository.applyRatingDelta for the
+ * incremental path).
+ *
+ * One grouped scan of the reviews is joined to products in a single
+ * UPDATE ... FROM, and only rows whose stored values differ are written, so
+ * a resync of a consistent catalog changes nothing. Corrected rows get a new
+ * updated_at, so the change feed and incremental exports pick them up.
+ *
+ * A corrected row also records the highest review id it counted as its
+ * rating watermark. Pending deltas (ProductRepository.applyRatingDelta) of
+ * reviews at or below it are not added again, so a resync can overlap with
+ * the RatingRecomputeScheduler without counting a review twice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RatingAggregateRepository {
+
+    private static final String AGGREGATES_SQL = "SELECT product_id, " +
+            "COUNT(*) AS cnt, SUM(rating) AS total, MAX(id) AS max_id, " +
+            "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) AS c1, " +
+            "SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) AS c2, " +
+            "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) AS c3, " +
+            "SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) AS c4, " +
+            "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) AS c5 " +
+            "FROM reviews WHERE rating IS NOT NULL %s GROUP BY product_id";
+
+    private static final String RESYNC_SQL = "UPDATE products SET " +
+            "review_count = s.cnt, rating_sum = s.total, " +
+            "average_rating = CAST(s.total AS DOUBLE PRECISION) / s.cnt, " +
+            "rating_1_count = s.c1, rating_2_count = s.c2, rating_3_count = s.c3, " +
+            "rating_4_count = s.c4, rating_5_count = s.c5, rating_watermark = s.max_id, updated_at = ? " +
+            "FROM (" + AGGREGATES_SQL + ") s " +
+            "WHERE products.id = s.product_id AND (" +
+            "products.review_count IS DISTINCT FROM s.cnt OR products.rating_sum IS DISTINCT FROM s.total " +
+            "OR products.rating_1_count IS DISTINCT FROM s.c1 OR products.rating_2_count IS DISTINCT FROM s.c2 " +
+            "OR products.rating_3_count IS DISTINCT FROM s.c3 OR products.rating_4_count IS DISTINCT FROM s.c4 " +
+            "OR products.rating_5_count IS DISTINCT FROM s.c5)";
+
+    private static final String ONE_PRODUCT = "AND product_id = ?";
+
+    private static final String CHANGED_SINCE = "AND product_id IN " +
+            "(SELECT product_id FROM reviews WHERE updated_at > ?)";
+
+    // Products without any rated review (never rated, or their reviews were
+    // removed behind the service's back) that still carry aggregates
+    private static final String RESET_UNRATED_SQL = "UPDATE products SET " +
+            "review_count = 0, rating_sum = 0, average_rating = 0.0, rating_1_count = 0, " +
+            "rating_2_count = 0, rating_3_count = 0, rating_4_count = 0, rating_5_count = 0, updated_at = ? " +
+            "WHERE (review_count IS DISTINCT FROM 0 OR rating_sum IS DISTINCT FROM 0 " +
+            "OR rating_1_count IS DISTINCT FROM 0 OR rating_2_count IS DISTINCT FROM 0 " +
+            "OR rating_3_count IS DISTINCT FROM 0 OR rating_4_count IS DISTINCT FROM 0 " +
+            "OR rating_5_count IS DISTINCT FROM 0) " +
+            "AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.product_id = products.id AND r.rating IS NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rebuilds the aggregates of every product.
+     *
+     * @return number of product rows that had to be corrected
+     */
+    public int resyncAll() {
+        Timestamp now = Timestamp.from(Instant.now());
+        return jdbcTemplate.update(String.format(RESYNC_SQL, ""), now)
+                + jdbcTemplate.update(RESET_UNRATED_SQL, now);
+    }
+
+    /**
+     * Rebuilds the aggregates of products with a review written after
+     * {@code since}. Rated reviews are never deleted on their own (only with
+     * their product), so this catches every rating change made through the
+     * service.
+     *
+     * @return number of product rows that had to be corrected
+     */
+    public int resyncChangedSince(Instant since) {
+        return jdbcTemplate.update(String.format(RESYNC_SQL, CHANGED_SINCE), Timestamp.from(Instant.now()),
+                Timestamp.from(since));
+    }
+
+    /**
+     * Rebuilds one product's aggregates from its rated reviews; a product
+     * without any is left as it is. Used when a pending delta overlaps with
+     * a resync.
+     *
+     * @return 1 if the row had to be corrected, else 0
+     */
+    public int resyncProduct(Long productId) {
+        return jdbcTemplate.update(String.format(RESYNC_SQL, ONE_PRODUCT), Timestamp.from(Instant.now()),
+                productId);
+    }
+}
@@ -1,11 +1,15 @@
 package com.cs308.product.repository;
 
 import com.cs308.product.domain.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,11 +26,72 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     List<Review> findByProductIdOrderByCreatedAtDesc(Long productId);
 
+    /**
+     * Find a product's rated reviews, newest first (rating-less comments are
+     * filtered in SQL, not in Java)
+     */
+    List<Review> findByProductIdAndRatingIsNotNullOrderByCreatedAtDesc(Long productId);
+
+    // Keyset pages over idx_reviews_product_created: newest first by
+    // (createdAt, id), the "after" variants continue below the cursor
+
+    @Query("SELECT r FROM Review r WHERE r.productId = :productId AND r.rating IS NOT NULL " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findRatedPage(@Param("productId") Long productId, Limit limit);
+
+    @Query("SELECT r FROM Review r WHERE r.productId = :productId AND r.rating IS NOT NULL " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findRatedPageAfter(@Param("productId") Long productId, @Param("createdAt") Instant createdAt,
+            @Param("id") Long id, Limit limit);
+
+    @Query("SELECT r FROM Review r WHERE r.productId = :productId ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findPage(@Param("productId") Long productId, Limit limit);
+
+    @Query("SELECT r FROM Review r WHERE r.productId = :productId " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findPageAfter(@Param("productId") Long productId, @Param("createdAt") Instant createdAt,
+            @Param("id") Long id, Limit limit);
+
     /**
      * Find pending reviews (not approved yet)
      */
     List<Review> findByApprovedFalseOrderByCreatedAtAsc();
 
+    // Moderation queue, oldest first, over the partial index on pending
+    // reviews (see schema.sql)
+
+    @Query("SELECT r FROM Review r WHERE r.approved = false ORDER BY r.createdAt ASC, r.id ASC")
+    List<Review> findPendingPage(Limit limit);
+
+    @Query("SELECT r FROM Review r WHERE r.approved = false " +
+            "AND (r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id)) " +
+            "ORDER BY r.createdAt ASC, r.id ASC")
+    List<Review> findPendingPageAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
+
+    /**
+     * Approve the given pending reviews in one statement
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Review r SET r.approved = true, r.updatedAt = :now WHERE r.id IN :ids AND r.approved = false")
+    int approveAll(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Disapprove rated reviews: drop the comment, keep and approve the rating
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Review r SET r.comment = NULL, r.approved = true, r.updatedAt = :now " +
+            "WHERE r.id IN :ids AND r.rating IS NOT NULL")
+    int clearCommentsOf(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Disapprove comment-only reviews, which leaves nothing to keep
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Review r WHERE r.id IN :ids AND r.rating IS NULL")
+    int deleteUnratedIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Check if user already reviewed this product
      */
@@ -44,6 +109,13 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.productId = :productId AND r.rating IS NOT NULL")
     long countByProductIdAndRatingIsNotNull(@Param("productId") Long productId);
 
+    /**
+     * (rating, count) pairs of a product's rated reviews
+     */
+    @Query("SELECT r.rating, COUNT(r) FROM Review r WHERE r.productId = :productId AND r.rating IS NOT NULL " +
+            "GROUP BY r.rating")
+    List<Object[]> countRatingsByStar(@Param("productId") Long productId);
+
     /**
      * Count approved reviews (for comment count display)
      */
@@ -55,7 +127,9 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findTop10ByApprovedTrueAndCommentIsNotNullOrderByCreatedAtDesc();
 
     /**
-     * Delete all reviews for a product (cascade delete support)
+     * Delete all reviews of the given products (cascade delete support)
      */
-    void deleteByProductId(Long productId);
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.productId IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
@@ -0,0 +1,186 @@
+package com.cs308.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock changes as conditional UPDATEs, so the availability check and the
+ * decrement are one atomic statement instead of a read-modify-write.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockRepository {
+
+    private static final String DECREMENT_SQL = "UPDATE products " +
+            "SET stock = stock - ?, updated_at = ? " +
+            "WHERE id = ? AND stock >= ?";
+
+    private static final String DECREMENT_VARIANT_SQL = "UPDATE product_variants " +
+            "SET stock_quantity = stock_quantity - ? " +
+            "WHERE id = ? AND stock_quantity >= ?";
+
+    private static final String RESTORE_SQL = "UPDATE products " +
+            "SET stock = COALESCE(stock, 0) + ?, updated_at = ? WHERE id = ?";
+
+    private static final String RESTORE_VARIANT_SQL = "UPDATE product_variants " +
+            "SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    private static final String LOCK_VARIANT_SQL = "SELECT stock_quantity FROM product_variants " +
+            "WHERE id = ? AND product_id = ? FOR UPDATE";
+
+    private static final String SET_VARIANT_SQL = "UPDATE product_variants SET stock_quantity = ? WHERE id = ?";
+
+    // Products with variants whose stock is not the sum of theirs
+    private static final String SYNC_WITH_VARIANTS_SQL = "UPDATE products SET " +
+            "stock = (SELECT SUM(v.stock_quantity) FROM product_variants v WHERE v.product_id = products.id), " +
+            "updated_at = ? " +
+            "WHERE EXISTS (SELECT 1 FROM product_variants v WHERE v.product_id = products.id) " +
+            "AND stock IS DISTINCT FROM " +
+            "(SELECT SUM(v.stock_quantity) FROM product_variants v WHERE v.product_id = products.id)";
+
+    private static final String SALES_SQL = "UPDATE products " +
+            "SET sales_count = COALESCE(sales_count, 0) + ?, updated_at = ? WHERE id = ?";
+
+    private static final String STOCK_SQL = "SELECT id, stock FROM products WHERE id IN (%s)";
+
+    private static final String VARIANT_STOCK_SQL = "SELECT id, product_id, stock_quantity FROM product_variants " +
+            "WHERE product_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Decrements stock for every line in one JDBC batch. Lines are applied in
+     * the map's iteration order; callers pass them sorted by id so concurrent
+     * orders lock rows in the same order. salesCount is written behind by
+     * SalesCounter.
+     *
+     * @param held units per product that must stay in stock after the
+     *             decrement (reserved for other carts); missing means 0
+     * @return per-line update counts: 1 = decremented, 0 = product missing or
+     *         not enough stock (nothing changed for that line)
+     */
+    public int[] decrementStock(Map<Long, Integer> quantities, Map<Long, Integer> held) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> args.add(new Object[] {
+                quantity, now, productId, quantity + held.getOrDefault(productId, 0) }));
+        return jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+    }
+
+    /**
+     * Decrements variant stock for every line in one JDBC batch, in the map's
+     * iteration order (callers sort by variant id). The product's own stock
+     * column is the sum over its variants; the caller decrements it by the
+     * same amounts with {@link #decrementStock}.
+     *
+     * @param held units per variant that must stay in stock after the
+     *             decrement (reserved for other carts); missing means 0
+     * @return per-line update counts: 1 = decremented, 0 = not enough stock
+     */
+    public int[] decrementVariantStock(Map<Long, Integer> quantities, Map<Long, Integer> held) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((variantId, quantity) -> args.add(new Object[] {
+                quantity, variantId, quantity + held.getOrDefault(variantId, 0) }));
+        return jdbcTemplate.batchUpdate(DECREMENT_VARIANT_SQL, args);
+    }
+
+    /**
+     * Puts units back on a product and, if given, on one of its variants.
+     *
+     * @return false if the product does not exist
+     */
+    public boolean restoreStock(Long productId, Long variantId, int quantity) {
+        if (variantId != null) {
+            jdbcTemplate.update(RESTORE_VARIANT_SQL, quantity, variantId);
+        }
+        return jdbcTemplate.update(RESTORE_SQL, quantity, Timestamp.from(Instant.now()), productId) > 0;
+    }
+
+    /**
+     * Sets one variant's stock and moves the product's total by the same
+     * difference. The variant row is locked first, like a decrement does, so
+     * concurrent orders on the variant wait instead of being overwritten.
+     * Must run inside a transaction.
+     *
+     * @return the change applied, or null if the product has no such variant
+     */
+    public Integer setVariantStock(Long productId, Long variantId, int stock) {
+        List<Integer> current = jdbcTemplate.queryForList(LOCK_VARIANT_SQL, Integer.class, variantId, productId);
+        if (current.isEmpty()) {
+            return null;
+        }
+        int delta = stock - current.get(0);
+        if (delta != 0) {
+            jdbcTemplate.update(SET_VARIANT_SQL, stock, variantId);
+            jdbcTemplate.update(RESTORE_SQL, delta, Timestamp.from(Instant.now()), productId);
+        }
+        return delta;
+    }
+
+    /**
+     * Sets the stock of every product with variants to the sum of its
+     * variants' stock, for rows written before the total was maintained.
+     *
+     * @return number of products corrected
+     */
+    public int syncStockWithVariants() {
+        return jdbcTemplate.update(SYNC_WITH_VARIANTS_SQL, Timestamp.from(Instant.now()));
+    }
+
+    /**
+     * Adds the given amounts to salesCount in one JDBC batch. Missing
+     * products are skipped.
+     */
+    public void incrementSalesCounts(Map<Long, Long> increments) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = new ArrayList<>(increments.size());
+        increments.forEach((productId, sold) -> args.add(new Object[] { sold, now, productId }));
+        jdbcTemplate.batchUpdate(SALES_SQL, args);
+    }
+
+    /**
+     * Current stock column of the given products; unknown ids are absent.
+     */
+    public Map<Long, Integer> findStock(Collection<Long> productIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return stock;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query(String.format(STOCK_SQL, placeholders),
+                rs -> {
+                    stock.put(rs.getLong("id"), rs.getInt("stock"));
+                },
+                productIds.toArray());
+        return stock;
+    }
+
+    /**
+     * Current stock_quantity of every variant of the given products, by
+     * product id and then variant id; products without variants are absent.
+     */
+    public Map<Long, Map<Long, Integer>> findVariantStock(Collection<Long> productIds) {
+        Map<Long, Map<Long, Integer>> stock = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return stock;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query(String.format(VARIANT_STOCK_SQL, placeholders),
+                rs -> {
+                    stock.computeIfAbsent(rs.getLong("product_id"), id -> new HashMap<>())
+                            .put(rs.getLong("id"), rs.getInt("stock_quantity"));
+                },
+                productIds.toArray());
+        return stock;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.SyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, String> {
+}
@@ -7,11 +7,21 @@ import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long> {
     @Modifying
-    @Query("DELETE FROM WishlistItem w WHERE w.product.id = :productId")
-    void deleteByProductId(Long productId);
+    @Query("DELETE FROM WishlistItem w WHERE w.product.id IN :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * (productId, userId) pairs for the given products, one row per wishlist.
+     */
+    @Query("SELECT DISTINCT w.product.id, w.wishlist.userId FROM WishlistItem w WHERE w.product.id IN :productIds")
+    List<Object[]> findUserIdsByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
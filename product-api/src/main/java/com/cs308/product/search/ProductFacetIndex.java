@@ -0,0 +1,314 @@
+package com.cs308.product.search;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Fit;
+import com.cs308.product.domain.enums.Season;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.model.ProductFacets;
+import com.cs308.product.repository.ProductSearchCriteria;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar snapshot of the catalog's enum-like columns for facet counting.
+ *
+ * Every product gets a dense slot number; each facet value owns a BitSet of
+ * the slots having that value (a product is in a color's set when any of its
+ * variants has that color). Filtering is a handful of ANDs and counting is
+ * BitSet.cardinality(), so the sidebar never has to run one query per value.
+ * Loaded at startup by SearchIndexRunner and kept current by ProductService.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+
+    public static final String PRODUCT_TYPE = "productType";
+    public static final String TARGET_AUDIENCE = "targetAudience";
+    public static final String COLOR = "color";
+    public static final String SEASON = "season";
+    public static final String FIT = "fit";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private int slotCount;
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    // lowercased productType -> slots; labels keep the stored spelling for display
+    private final Map<String, BitSet> productTypes = new TreeMap<>();
+    private final Map<String, String> productTypeLabels = new HashMap<>();
+    private final BitSet[] audiences = bitSets(TargetAudience.values().length);
+    private final BitSet[] colors = bitSets(Color.values().length);
+    private final BitSet[] seasons = bitSets(Season.values().length);
+    private final BitSet[] fits = bitSets(Fit.values().length);
+    private volatile boolean ready;
+
+    /**
+     * Starts recording the products written from now on, before a rebuild
+     * loads its snapshot.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            tracker.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops recording and returns the products written since startRebuild();
+     * the rebuilt index may hold them stale, so the caller re-indexes them.
+     */
+    public Set<Long> finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            return tracker.finish();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole snapshot. {@code variantColors} holds
+     * (productId, Color) pairs, see ProductRepository#findAllVariantColors().
+     */
+    public void rebuild(Iterable<Product> products, Collection<Object[]> variantColors) {
+        Map<Long, Set<Color>> colorsByProduct = new HashMap<>();
+        for (Object[] row : variantColors) {
+            colorsByProduct.computeIfAbsent((Long) row[0], k -> EnumSet.noneOf(Color.class)).add((Color) row[1]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            slotCount = 0;
+            freeSlots.clear();
+            live.clear();
+            productTypes.clear();
+            productTypeLabels.clear();
+            for (BitSet[] column : Arrays.asList(audiences, colors, seasons, fits)) {
+                for (BitSet bits : column) {
+                    bits.clear();
+                }
+            }
+
+            for (Product product : products) {
+                int slot = allocate(product.getId());
+                setColumns(slot, product, colorsByProduct.getOrDefault(product.getId(), Set.of()));
+            }
+            ready = true;
+            log.info("Product facet index built: {} products", slots.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or refreshes a product. Variant colors are taken from the entity
+     * when its variants are loaded, otherwise the previous colors are kept
+     * (the product endpoints never change variants).
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            tracker.touched(product.getId());
+            Integer existing = slots.get(product.getId());
+            Set<Color> productColors;
+            if (Hibernate.isInitialized(product.getVariants())) {
+                productColors = EnumSet.noneOf(Color.class);
+                for (ProductVariant variant : product.getVariants()) {
+                    if (variant.getColor() != null) {
+                        productColors.add(variant.getColor());
+                    }
+                }
+            } else {
+                productColors = existing == null ? Set.of() : colorsAt(existing);
+            }
+
+            int slot = existing != null ? existing : allocate(product.getId());
+            clearSlot(slot);
+            live.set(slot);
+            setColumns(slot, product, productColors);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            tracker.touched(productId);
+            Integer slot = slots.remove(productId);
+            if (slot != null) {
+                clearSlot(slot);
+                freeSlots.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Total and facet counts for the enum filters of {@code criteria}.
+     * {@code criteria.productIds}, when set, restricts the candidates (text
+     * search hits); text patterns and price/stock filters must already have
+     * been resolved to ids.
+     */
+    public ProductFacets facets(ProductSearchCriteria criteria) {
+        if (criteria.getQPattern() != null || criteria.getDescriptionPattern() != null
+                || criteria.getBrand() != null || criteria.hasRangeFilters()) {
+            throw new IllegalArgumentException(
+                    "Text, brand, price and stock filters must be resolved to productIds first");
+        }
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (criteria.getProductIds() != null) {
+                BitSet candidates = new BitSet(slotCount);
+                for (Long id : criteria.getProductIds()) {
+                    Integer slot = slots.get(id);
+                    if (slot != null) {
+                        candidates.set(slot);
+                    }
+                }
+                base.and(candidates);
+            }
+
+            BitSet typeFilter = criteria.getProductType() == null ? null
+                    : productTypes.getOrDefault(criteria.getProductType().toLowerCase(Locale.ROOT), new BitSet());
+            BitSet audienceFilter = criteria.getTargetAudience() == null ? null
+                    : audiences[criteria.getTargetAudience().ordinal()];
+            BitSet colorFilter = criteria.getColor() == null ? null : colors[criteria.getColor().ordinal()];
+
+            BitSet all = and(base, typeFilter, audienceFilter, colorFilter);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            Map<String, Integer> typeCounts = new LinkedHashMap<>();
+            BitSet withoutType = and(base, audienceFilter, colorFilter);
+            productTypes.forEach((key, bits) -> put(typeCounts, productTypeLabels.get(key), withoutType, bits));
+            facets.put(PRODUCT_TYPE, typeCounts);
+            facets.put(TARGET_AUDIENCE, counts(TargetAudience.values(), audiences, and(base, typeFilter, colorFilter)));
+            facets.put(COLOR, counts(Color.values(), colors, and(base, typeFilter, audienceFilter)));
+            facets.put(SEASON, counts(Season.values(), seasons, all));
+            facets.put(FIT, counts(Fit.values(), fits, all));
+
+            return new ProductFacets(all.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocate(Long productId) {
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        slots.put(productId, slot);
+        live.set(slot);
+        return slot;
+    }
+
+    private void setColumns(int slot, Product product, Set<Color> productColors) {
+        if (product.getProductType() != null) {
+            String key = product.getProductType().toLowerCase(Locale.ROOT);
+            productTypes.computeIfAbsent(key, k -> new BitSet()).set(slot);
+            productTypeLabels.putIfAbsent(key, product.getProductType());
+        }
+        if (product.getTargetAudience() != null) {
+            audiences[product.getTargetAudience().ordinal()].set(slot);
+        }
+        if (product.getSeason() != null) {
+            seasons[product.getSeason().ordinal()].set(slot);
+        }
+        if (product.getFit() != null) {
+            fits[product.getFit().ordinal()].set(slot);
+        }
+        for (Color color : productColors) {
+            colors[color.ordinal()].set(slot);
+        }
+    }
+
+    private void clearSlot(int slot) {
+        live.clear(slot);
+        productTypes.values().removeIf(bits -> {
+            bits.clear(slot);
+            return bits.isEmpty();
+        });
+        productTypeLabels.keySet().retainAll(productTypes.keySet());
+        for (BitSet[] column : Arrays.asList(audiences, colors, seasons, fits)) {
+            for (BitSet bits : column) {
+                bits.clear(slot);
+            }
+        }
+    }
+
+    private Set<Color> colorsAt(int slot) {
+        Set<Color> result = EnumSet.noneOf(Color.class);
+        for (Color color : Color.values()) {
+            if (colors[color.ordinal()].get(slot)) {
+                result.add(color);
+            }
+        }
+        return result;
+    }
+
+    private static <E extends Enum<E>> Map<String, Integer> counts(E[] values, BitSet[] column, BitSet mask) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (E value : values) {
+            put(counts, value.name(), mask, column[value.ordinal()]);
+        }
+        return counts;
+    }
+
+    private static void put(Map<String, Integer> counts, String label, BitSet mask, BitSet bits) {
+        BitSet hit = (BitSet) bits.clone();
+        hit.and(mask);
+        int count = hit.cardinality();
+        if (count > 0) {
+            counts.put(label, count);
+        }
+    }
+
+    private static BitSet and(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet[] bitSets(int n) {
+        BitSet[] result = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = new BitSet();
+        }
+        return result;
+    }
+}
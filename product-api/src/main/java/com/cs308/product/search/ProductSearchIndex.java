@@ -0,0 +1,300 @@
+package com.cs308.product.search;
+
+import com.cs308.product.domain.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, brand, material and description
+ * with BM25F-style scoring (field-weighted term frequency, one shared length
+ * normalization).
+ *
+ * Query terms are ANDed; the last query term also matches as a prefix so
+ * "ove" already finds "oversize" while the user is typing. A prefix is
+ * expanded to at most MAX_PREFIX_EXPANSIONS terms; a broader one is left to
+ * the SQL LIKE search (see canAnswer), which finds every match. The index is
+ * loaded once at startup (see SearchIndexRunner) and kept current by
+ * ProductService.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float MATERIAL_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    // term -> (productId -> field-weighted term frequency)
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    // productId -> (term -> weighted tf), kept so a product can be unindexed
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    // productId -> weighted document length
+    private final Map<Long, Float> lengths = new HashMap<>();
+    private double totalLength;
+    private volatile boolean ready;
+
+    /**
+     * Replaces the whole index. Called once at startup, between
+     * startRebuild() and finishRebuild().
+     */
+    public void rebuild(Iterable<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+            for (Product product : products) {
+                add(product);
+            }
+            ready = true;
+            log.info("Product search index built: {} products, {} terms", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts recording the products written from now on, before a rebuild
+     * loads its snapshot.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            tracker.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops recording and returns the products written since startRebuild();
+     * the rebuilt index may hold them stale, so the caller re-indexes them.
+     */
+    public Set<Long> finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            return tracker.finish();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or re-indexes a product.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            tracker.touched(product.getId());
+            removeInternal(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            tracker.touched(productId);
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * False until the startup load finished; callers fall back to SQL LIKE.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether search() finds every match of the query: the index is loaded,
+     * the query has terms, and its last term does not prefix more terms than
+     * are expanded. Otherwise callers use SQL LIKE.
+     */
+    public boolean canAnswer(String query) {
+        List<String> terms = TextAnalyzer.tokenize(query);
+        if (!ready || terms.isEmpty()) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return prefixExpansions(terms.get(terms.size() - 1)).size() <= MAX_PREFIX_EXPANSIONS;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Products matching every term of the query, ordered by descending BM25
+     * score (ties broken by ascending id). Empty when nothing matches or the
+     * query has no usable terms.
+     */
+    public LinkedHashMap<Long, Double> search(String query) {
+        List<String> terms = TextAnalyzer.tokenize(query);
+        LinkedHashMap<Long, Double> ranked = new LinkedHashMap<>();
+        if (terms.isEmpty()) {
+            return ranked;
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return ranked;
+            }
+            double avgLength = totalLength / docCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean last = i == terms.size() - 1;
+                Map<Long, Double> termScores = scoreTerm(terms.get(i), last, docCount, avgLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // AND semantics: keep only products that matched every term so far
+                    Map<Long, Double> intersected = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double other = termScores.get(entry.getKey());
+                        if (other != null) {
+                            intersected.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = intersected;
+                }
+                if (scores.isEmpty()) {
+                    return ranked;
+                }
+            }
+
+            List<Map.Entry<Long, Double>> entries = new ArrayList<>(scores.entrySet());
+            entries.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            for (Map.Entry<Long, Double> entry : entries) {
+                ranked.put(entry.getKey(), entry.getValue());
+            }
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String term, boolean allowPrefix, int docCount, double avgLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<Long, Float> exact = postings.get(term);
+        if (exact != null) {
+            accumulate(scores, exact, docCount, avgLength);
+        }
+        if (allowPrefix) {
+            List<Map<Long, Float>> expansions = prefixExpansions(term);
+            for (Map<Long, Float> posting : expansions.subList(0, Math.min(expansions.size(), MAX_PREFIX_EXPANSIONS))) {
+                accumulate(scores, posting, docCount, avgLength);
+            }
+        }
+        return scores;
+    }
+
+    // Postings of the terms that extend the prefix, up to one more than are expanded
+    private List<Map<Long, Float>> prefixExpansions(String prefix) {
+        List<Map<Long, Float>> expansions = new ArrayList<>();
+        for (Map.Entry<String, Map<Long, Float>> entry : postings.tailMap(prefix, false).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || expansions.size() > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            expansions.add(entry.getValue());
+        }
+        return expansions;
+    }
+
+    private void accumulate(Map<Long, Double> scores, Map<Long, Float> posting, int docCount, double avgLength) {
+        int df = posting.size();
+        double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            double tf = entry.getValue();
+            double length = lengths.getOrDefault(entry.getKey(), 0f);
+            double norm = K1 * (1 - B + B * (avgLength > 0 ? length / avgLength : 1));
+            double score = idf * (tf * (K1 + 1)) / (tf + norm);
+            scores.merge(entry.getKey(), score, Double::sum);
+        }
+    }
+
+    private void add(Product product) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = 0;
+        length += addField(termFrequencies, product.getName(), NAME_WEIGHT);
+        length += addField(termFrequencies, product.getBrand(), BRAND_WEIGHT);
+        length += addField(termFrequencies, product.getMaterial(), MATERIAL_WEIGHT);
+        length += addField(termFrequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        Long id = product.getId();
+        for (Map.Entry<String, Float> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(id, entry.getValue());
+        }
+        documents.put(id, termFrequencies);
+        lengths.put(id, length);
+        totalLength += length;
+    }
+
+    private static float addField(Map<String, Float> termFrequencies, String text, float weight) {
+        List<String> terms = TextAnalyzer.tokenize(text);
+        for (String term : terms) {
+            termFrequencies.merge(term, weight, Float::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private void removeInternal(Long productId) {
+        Map<String, Float> previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        Float length = lengths.remove(productId);
+        if (length != null) {
+            totalLength -= length;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.cs308.product.search;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.model.ProductSuggestion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over product names, brands and category names, ranked by sales.
+ *
+ * Product suggestions weigh their own salesCount; a brand weighs the summed
+ * sales of its products and a category the summed sales of products whose
+ * productType matches it. The trie caches the top entries per prefix node, so
+ * a lookup never scans the catalog. Loaded at startup by SearchIndexRunner and
+ * kept current by ProductService / CategoryService.
+ */
+@Slf4j
+@Component
+public class ProductSuggester {
+
+    public static final int DEFAULT_LIMIT = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+    private final SuggestionTrie<ProductSuggestion> trie = new SuggestionTrie<>();
+
+    private final Map<Long, ProductRef> products = new HashMap<>();
+    private final Map<String, Aggregate> brands = new HashMap<>();
+    // compact productType key -> summed sales
+    private final Map<String, Long> typeSales = new HashMap<>();
+    // compact category key -> category name as stored
+    private final Map<String, String> categories = new HashMap<>();
+    // Category writes since startRebuild(), replayed on top of the rebuilt
+    // trie; adding or removing a name is idempotent, so replaying is safe
+    private List<Runnable> categoryWrites;
+
+    /**
+     * Starts recording the products and categories written from now on,
+     * before a rebuild loads its snapshot.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            tracker.start();
+            categoryWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops recording and returns the products written since startRebuild();
+     * the rebuilt trie may hold them stale, so the caller re-indexes them.
+     * Category writes were already replayed by rebuild().
+     */
+    public Set<Long> finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            categoryWrites = null;
+            return tracker.finish();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole trie. Called once at startup, between
+     * startRebuild() and finishRebuild().
+     */
+    public void rebuild(Iterable<Product> allProducts, Iterable<String> categoryNames) {
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            products.clear();
+            brands.clear();
+            typeSales.clear();
+            categories.clear();
+
+            for (Product product : allProducts) {
+                ProductRef ref = ProductRef.of(product);
+                products.put(product.getId(), ref);
+                addToAggregates(ref);
+                trie.putUnrefreshed(productKey(product.getId()), normalize(ref.name), ref.sales, toSuggestion(product.getId(), ref));
+            }
+            for (Map.Entry<String, Aggregate> brand : brands.entrySet()) {
+                Aggregate aggregate = brand.getValue();
+                trie.putUnrefreshed(brandKey(brand.getKey()), normalize(aggregate.display), aggregate.sales,
+                        brandSuggestion(aggregate));
+            }
+            for (String name : categoryNames) {
+                String key = compact(name);
+                categories.put(key, name);
+                trie.putUnrefreshed(categoryKey(key), normalize(name), typeSales.getOrDefault(key, 0L),
+                        categorySuggestion(name));
+            }
+            trie.refreshAll();
+            if (categoryWrites != null) {
+                categoryWrites.forEach(Runnable::run);
+            }
+            log.info("Product suggester built: {} entries", trie.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top suggestions for a prefix typed by the user (any word of the entry
+     * may start with it). Blank prefixes return nothing.
+     */
+    public List<ProductSuggestion> suggest(String prefix, Integer limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int k = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, SuggestionTrie.MAX_K));
+        lock.readLock().lock();
+        try {
+            return trie.top(normalized, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or refreshes a product (name, brand, type or salesCount changed).
+     */
+    public void upsertProduct(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            tracker.touched(product.getId());
+            ProductRef previous = products.remove(product.getId());
+            if (previous != null) {
+                removeFromAggregates(previous);
+            }
+            ProductRef ref = ProductRef.of(product);
+            products.put(product.getId(), ref);
+            addToAggregates(ref);
+
+            trie.put(productKey(product.getId()), normalize(ref.name), ref.sales, toSuggestion(product.getId(), ref));
+            if (previous != null) {
+                refreshBrand(previous.brandKey);
+                refreshCategory(previous.typeKey);
+            }
+            refreshBrand(ref.brandKey);
+            refreshCategory(ref.typeKey);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(Long productId) {
+        lock.writeLock().lock();
+        try {
+            tracker.touched(productId);
+            ProductRef previous = products.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            removeFromAggregates(previous);
+            trie.remove(productKey(productId));
+            refreshBrand(previous.brandKey);
+            refreshCategory(previous.typeKey);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addCategory(String name) {
+        lock.writeLock().lock();
+        try {
+            addCategoryInternal(name);
+            if (categoryWrites != null) {
+                categoryWrites.add(() -> addCategoryInternal(name));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(String name) {
+        lock.writeLock().lock();
+        try {
+            removeCategoryInternal(name);
+            if (categoryWrites != null) {
+                categoryWrites.add(() -> removeCategoryInternal(name));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addCategoryInternal(String name) {
+        categories.put(compact(name), name);
+        refreshCategory(compact(name));
+    }
+
+    private void removeCategoryInternal(String name) {
+        String key = compact(name);
+        categories.remove(key);
+        trie.remove(categoryKey(key));
+    }
+
+    private void refreshBrand(String brandKey) {
+        if (brandKey == null) {
+            return;
+        }
+        Aggregate aggregate = brands.get(brandKey);
+        if (aggregate == null) {
+            trie.remove(brandKey(brandKey));
+        } else {
+            trie.put(brandKey(brandKey), normalize(aggregate.display), aggregate.sales, brandSuggestion(aggregate));
+        }
+    }
+
+    private void refreshCategory(String typeKey) {
+        if (typeKey == null) {
+            return;
+        }
+        String name = categories.get(typeKey);
+        if (name != null) {
+            trie.put(categoryKey(typeKey), normalize(name), typeSales.getOrDefault(typeKey, 0L),
+                    categorySuggestion(name));
+        }
+    }
+
+    private void addToAggregates(ProductRef ref) {
+        if (ref.brandKey != null) {
+            Aggregate aggregate = brands.computeIfAbsent(ref.brandKey, k -> new Aggregate(ref.brand));
+            aggregate.sales += ref.sales;
+            aggregate.products++;
+        }
+        if (ref.typeKey != null) {
+            typeSales.merge(ref.typeKey, ref.sales, Long::sum);
+        }
+    }
+
+    private void removeFromAggregates(ProductRef ref) {
+        if (ref.brandKey != null) {
+            Aggregate aggregate = brands.get(ref.brandKey);
+            if (aggregate != null) {
+                aggregate.sales -= ref.sales;
+                if (--aggregate.products == 0) {
+                    brands.remove(ref.brandKey);
+                }
+            }
+        }
+        if (ref.typeKey != null) {
+            typeSales.merge(ref.typeKey, -ref.sales, Long::sum);
+        }
+    }
+
+    private static ProductSuggestion toSuggestion(Long id, ProductRef ref) {
+        return ProductSuggestion.builder()
+                .type(ProductSuggestion.Type.PRODUCT)
+                .text(ref.name)
+                .productId(id)
+                .build();
+    }
+
+    private static ProductSuggestion brandSuggestion(Aggregate aggregate) {
+        return ProductSuggestion.builder()
+                .type(ProductSuggestion.Type.BRAND)
+                .text(aggregate.display)
+                .build();
+    }
+
+    private static ProductSuggestion categorySuggestion(String name) {
+        return ProductSuggestion.builder()
+                .type(ProductSuggestion.Type.CATEGORY)
+                .text(name)
+                .build();
+    }
+
+    private static String productKey(Long id) {
+        return "p:" + id;
+    }
+
+    private static String brandKey(String key) {
+        return "b:" + key;
+    }
+
+    private static String categoryKey(String key) {
+        return "c:" + key;
+    }
+
+    static String normalize(String text) {
+        return TextAnalyzer.normalize(text).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * "T_SHIRT", "T-Shirt" and "TSHIRT" all compact to "tshirt", so category
+     * names line up with Product.productType values.
+     */
+    private static String compact(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return TextAnalyzer.normalize(text).replaceAll("[^\\p{L}\\p{N}]", "");
+    }
+
+    private static final class ProductRef {
+        final String name;
+        final String brand;
+        final String brandKey;
+        final String typeKey;
+        final long sales;
+
+        private ProductRef(String name, String brand, String brandKey, String typeKey, long sales) {
+            this.name = name;
+            this.brand = brand;
+            this.brandKey = brandKey;
+            this.typeKey = typeKey;
+            this.sales = sales;
+        }
+
+        static ProductRef of(Product product) {
+            String brand = product.getBrand() == null || product.getBrand().isBlank() ? null : product.getBrand().trim();
+            return new ProductRef(
+                    product.getName() == null ? "" : product.getName(),
+                    brand,
+                    brand == null ? null : normalize(brand),
+                    compact(product.getProductType()),
+                    product.getSalesCount() == null ? 0 : product.getSalesCount());
+        }
+    }
+
+    private static final class Aggregate {
+        final String display;
+        long sales;
+        int products;
+
+        Aggregate(String display) {
+            this.display = display;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.cs308.product.search;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The products an index was written for while a rebuild was loading its
+ * snapshot. Such a write may be older or newer than the snapshot, so instead
+ * of trusting either the caller re-reads those products once the rebuilt
+ * index is in place (see SearchIndexRunner). Guarded by the owning index's
+ * write lock.
+ */
+final class RebuildTracker {
+
+    private Set<Long> touched;
+
+    void start() {
+        touched = new HashSet<>();
+    }
+
+    void touched(Long productId) {
+        if (touched != null) {
+            touched.add(productId);
+        }
+    }
+
+    /**
+     * Stops recording; empty when no rebuild was started.
+     */
+    Set<Long> finish() {
+        Set<Long> result = touched == null ? Set.of() : touched;
+        touched = null;
+        return result;
+    }
+}
@@ -0,0 +1,265 @@
+package com.cs308.product.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix trie whose nodes cache their best {@link #MAX_K} entries, so a lookup
+ * is one walk down the prefix plus a copy of at most K references.
+ *
+ * Every entry is reachable from each word start of its normalized text
+ * ("basic t-shirt" is found by "bas", "t-sh" and "shi"). Children are kept in
+ * sorted parallel arrays instead of maps to keep nodes small. Not thread-safe;
+ * {@link ProductSuggester} guards it with a read/write lock.
+ */
+class SuggestionTrie<T> {
+
+    static final int MAX_K = 10;
+
+    private static final Comparator<Entry<?>> BY_WEIGHT = Comparator
+            .<Entry<?>>comparingLong(e -> -e.weight)
+            .thenComparing(e -> e.key);
+
+    private final Node<T> root = new Node<>();
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+
+    /**
+     * Inserts or replaces the entry with the given key.
+     */
+    void put(String key, String normalizedText, long weight, T value) {
+        remove(key);
+        Entry<T> entry = new Entry<>(key, weight, value, wordStarts(normalizedText));
+        entries.put(key, entry);
+        for (String suffix : entry.paths) {
+            Node<T>[] path = walk(suffix, true);
+            path[path.length - 1].terminals.add(entry);
+            refresh(path);
+        }
+    }
+
+    /**
+     * Inserts without maintaining the top-K caches; call {@link #refreshAll()}
+     * once afterwards. Used for the startup bulk load, where refreshing every
+     * path per insert would touch the upper nodes N times.
+     */
+    void putUnrefreshed(String key, String normalizedText, long weight, T value) {
+        Entry<T> entry = new Entry<>(key, weight, value, wordStarts(normalizedText));
+        entries.put(key, entry);
+        for (String suffix : entry.paths) {
+            Node<T>[] path = walk(suffix, true);
+            path[path.length - 1].terminals.add(entry);
+        }
+    }
+
+    /**
+     * Recomputes every node's top-K in one post-order pass.
+     */
+    void refreshAll() {
+        refreshSubtree(root);
+    }
+
+    private void refreshSubtree(Node<T> node) {
+        for (Node<T> child : node.children) {
+            refreshSubtree(child);
+        }
+        recompute(node);
+    }
+
+    void remove(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String suffix : entry.paths) {
+            Node<T>[] path = walk(suffix, false);
+            if (path == null) {
+                continue;
+            }
+            path[path.length - 1].terminals.remove(entry);
+            refresh(prune(path, suffix));
+        }
+    }
+
+    boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Best entries (by descending weight) whose text has a word starting with
+     * the normalized prefix.
+     */
+    List<T> top(String normalizedPrefix, int k) {
+        Node<T>[] path = walk(normalizedPrefix, false);
+        if (path == null) {
+            return List.of();
+        }
+        List<Entry<T>> best = path[path.length - 1].top;
+        List<T> result = new ArrayList<>(Math.min(k, best.size()));
+        for (int i = 0; i < best.size() && i < k; i++) {
+            result.add(best.get(i).value);
+        }
+        return result;
+    }
+
+    void clear() {
+        root.clear();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Nodes below the root; bounded by the text of the current entries.
+     */
+    int nodeCount() {
+        return countBelow(root);
+    }
+
+    private int countBelow(Node<T> node) {
+        int count = node.children.length;
+        for (Node<T> child : node.children) {
+            count += countBelow(child);
+        }
+        return count;
+    }
+
+    /**
+     * Unlinks the nodes at the end of the path that no longer lead to any
+     * entry, so removed and renamed entries do not leave dead branches behind.
+     *
+     * @return the part of the path that is still in the trie
+     */
+    private Node<T>[] prune(Node<T>[] path, String text) {
+        int last = path.length - 1;
+        while (last > 0 && path[last].terminals.isEmpty() && path[last].children.length == 0) {
+            path[last - 1].removeChild(text.charAt(last - 1));
+            last--;
+        }
+        return last == path.length - 1 ? path : Arrays.copyOf(path, last + 1);
+    }
+
+    /**
+     * Recomputes the cached top-K bottom-up along a path.
+     */
+    private void refresh(Node<T>[] path) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            recompute(path[i]);
+        }
+    }
+
+    private void recompute(Node<T> node) {
+        List<Entry<T>> candidates = new ArrayList<>(node.terminals);
+        for (Node<T> child : node.children) {
+            candidates.addAll(child.top);
+        }
+        // The same entry can reach a node through several of its word starts
+        node.top = candidates.stream()
+                .distinct()
+                .sorted(BY_WEIGHT)
+                .limit(MAX_K)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<T>[] walk(String text, boolean create) {
+        Node<T>[] path = new Node[text.length() + 1];
+        Node<T> node = root;
+        path[0] = node;
+        for (int i = 0; i < text.length(); i++) {
+            Node<T> next = node.child(text.charAt(i));
+            if (next == null) {
+                if (!create) {
+                    return null;
+                }
+                next = node.addChild(text.charAt(i));
+            }
+            node = next;
+            path[i + 1] = node;
+        }
+        return path;
+    }
+
+    private static List<String> wordStarts(String normalizedText) {
+        List<String> starts = new ArrayList<>();
+        for (int i = 0; i < normalizedText.length(); i++) {
+            char c = normalizedText.charAt(i);
+            boolean wordStart = Character.isLetterOrDigit(c)
+                    && (i == 0 || !Character.isLetterOrDigit(normalizedText.charAt(i - 1)));
+            if (wordStart) {
+                starts.add(normalizedText.substring(i));
+            }
+        }
+        return starts;
+    }
+
+    private static final class Entry<T> {
+        final String key;
+        final long weight;
+        final T value;
+        final List<String> paths;
+
+        Entry(String key, long weight, T value, List<String> paths) {
+            this.key = key;
+            this.weight = weight;
+            this.value = value;
+            this.paths = paths;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final class Node<T> {
+        char[] keys = new char[0];
+        Node<T>[] children = new Node[0];
+        List<Entry<T>> terminals = new ArrayList<>(1);
+        List<Entry<T>> top = List.of();
+
+        Node<T> child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node<T> addChild(char c) {
+            int insertAt = -(Arrays.binarySearch(keys, c) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node<T>[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            Node<T> created = new Node<>();
+            newChildren[insertAt] = created;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return created;
+        }
+
+        void removeChild(char c) {
+            int removeAt = Arrays.binarySearch(keys, c);
+            if (removeAt < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node<T>[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, removeAt);
+            System.arraycopy(children, 0, newChildren, 0, removeAt);
+            System.arraycopy(keys, removeAt + 1, newKeys, removeAt, keys.length - removeAt - 1);
+            System.arraycopy(children, removeAt + 1, newChildren, removeAt, children.length - removeAt - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void clear() {
+            keys = new char[0];
+            children = new Node[0];
+            terminals = new ArrayList<>(1);
+            top = List.of();
+        }
+    }
+}
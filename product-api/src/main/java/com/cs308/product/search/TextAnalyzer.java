@@ -0,0 +1,67 @@
+package com.cs308.product.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns catalog text into normalized search terms.
+ *
+ * Lowercasing uses the Turkish locale so "İ" becomes "i" and "I" becomes "ı"
+ * (Locale.ROOT would produce "i̇" for "İ"), and then Turkish letters are folded
+ * to ASCII ("ı"->"i", "ş"->"s", "ğ"->"g", ...) so "gomlek" finds "Gömlek" and
+ * English words like "SHIRT" still end up as "shirt".
+ */
+public final class TextAnalyzer {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextAnalyzer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(TURKISH).replace('ı', 'i');
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Splits text into terms. Hyphenated/compound chunks such as "T-Shirt"
+     * produce their parts plus the joined form ("t", "shirt", "tshirt").
+     * Single letters are dropped; single digits are kept.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        String normalized = normalize(text);
+        if (normalized.isBlank()) {
+            return terms;
+        }
+        for (String chunk : WHITESPACE.split(normalized.trim())) {
+            String[] parts = NON_ALNUM.split(chunk);
+            int nonEmpty = 0;
+            StringBuilder joined = new StringBuilder();
+            for (String part : parts) {
+                if (part.isEmpty()) {
+                    continue;
+                }
+                nonEmpty++;
+                joined.append(part);
+                if (part.length() > 1 || Character.isDigit(part.charAt(0))) {
+                    terms.add(part);
+                }
+            }
+            if (nonEmpty > 1) {
+                terms.add(joined.toString());
+            }
+        }
+        return terms;
+    }
+}
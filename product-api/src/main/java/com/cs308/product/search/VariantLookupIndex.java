@@ -0,0 +1,314 @@
+package com.cs308.product.search;
+
+import com.cs308.product.model.VariantLookup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory SKU/barcode to variant index for scanner lookups.
+ *
+ * Each code type has its own open-addressing hash table: keys and entries
+ * sit in two flat arrays, a key's home slot comes from Fibonacci hashing and
+ * collisions probe linearly, so a lookup is one hash plus a short scan over
+ * adjacent slots with no per-entry objects or chains. Removal shifts the rest
+ * of the probe run back instead of leaving tombstones. Tables are kept at
+ * most half full.
+ *
+ * Loaded once at startup (see SearchIndexRunner) and kept current by the
+ * variant write paths; VariantLookupService falls back to the database on a
+ * miss.
+ */
+@Slf4j
+@Component
+public class VariantLookupIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    private final CodeTable bySku = new CodeTable();
+    private final CodeTable byBarcode = new CodeTable();
+    // productId -> its variants, so a deleted product can be unindexed
+    private final Map<Long, List<VariantLookup>> byProduct = new HashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * Replaces the whole index. Called once at startup, between
+     * startRebuild() and finishRebuild().
+     */
+    public void rebuild(Collection<VariantLookup> variants) {
+        lock.writeLock().lock();
+        try {
+            bySku.clear(variants.size());
+            byBarcode.clear(variants.size());
+            byProduct.clear();
+            for (VariantLookup variant : variants) {
+                putInternal(variant);
+            }
+            ready = true;
+            log.info("Variant lookup index built: {} SKUs, {} barcodes", bySku.size(), byBarcode.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts recording the products written from now on, before a rebuild
+     * loads its snapshot.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            tracker.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops recording and returns the products written since startRebuild();
+     * the rebuilt index may hold them stale, so the caller re-indexes them.
+     */
+    public Set<Long> finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            return tracker.finish();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces variants (matched by variant id).
+     */
+    public void putAll(Collection<VariantLookup> variants) {
+        lock.writeLock().lock();
+        try {
+            for (VariantLookup variant : variants) {
+                tracker.touched(variant.getProductId());
+                putInternal(variant);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(Long productId) {
+        lock.writeLock().lock();
+        try {
+            tracker.touched(productId);
+            List<VariantLookup> variants = byProduct.remove(productId);
+            if (variants != null) {
+                variants.forEach(this::unlink);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a committed stock change to an indexed variant. Deltas rather
+     * than absolute values, so concurrent orders can be applied in any order.
+     */
+    public void adjustStock(Long productId, Long variantId, int delta) {
+        lock.writeLock().lock();
+        try {
+            tracker.touched(productId);
+            List<VariantLookup> siblings = byProduct.get(productId);
+            if (siblings == null) {
+                return;
+            }
+            for (int i = 0; i < siblings.size(); i++) {
+                VariantLookup variant = siblings.get(i);
+                if (variant.getVariantId().equals(variantId)) {
+                    VariantLookup updated = variant.withStockQuantity(variant.getStockQuantity() + delta);
+                    siblings.set(i, updated);
+                    bySku.put(updated.getSku(), updated);
+                    if (updated.getBarcode() != null) {
+                        byBarcode.put(updated.getBarcode(), updated);
+                    }
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The variant with this SKU, or else with this barcode; null when neither
+     * is indexed.
+     */
+    public VariantLookup find(String code) {
+        lock.readLock().lock();
+        try {
+            VariantLookup variant = bySku.get(code);
+            return variant != null ? variant : byBarcode.get(code);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * False until the startup load finished; callers go to the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bySku.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putInternal(VariantLookup variant) {
+        List<VariantLookup> siblings = byProduct.computeIfAbsent(variant.getProductId(), id -> new ArrayList<>(4));
+        for (int i = 0; i < siblings.size(); i++) {
+            if (siblings.get(i).getVariantId().equals(variant.getVariantId())) {
+                unlink(siblings.remove(i));
+                break;
+            }
+        }
+        siblings.add(variant);
+        bySku.put(variant.getSku(), variant);
+        if (variant.getBarcode() != null) {
+            byBarcode.put(variant.getBarcode(), variant);
+        }
+    }
+
+    private void unlink(VariantLookup variant) {
+        bySku.remove(variant.getSku(), variant.getVariantId());
+        if (variant.getBarcode() != null) {
+            byBarcode.remove(variant.getBarcode(), variant.getVariantId());
+        }
+    }
+
+    /**
+     * Open-addressing (linear probing) map from code to variant. Not
+     * thread-safe; guarded by the index lock.
+     */
+    static final class CodeTable {
+
+        private static final int MIN_BITS = 4;
+
+        private String[] keys;
+        private VariantLookup[] values;
+        private int shift;
+        private int size;
+
+        CodeTable() {
+            allocate(MIN_BITS);
+        }
+
+        int size() {
+            return size;
+        }
+
+        VariantLookup get(String key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                String candidate = keys[i];
+                if (candidate == null) {
+                    return null;
+                }
+                if (candidate.equals(key)) {
+                    return values[i];
+                }
+            }
+        }
+
+        void put(String key, VariantLookup value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(Integer.numberOfTrailingZeros(keys.length) + 1);
+            }
+            int mask = keys.length - 1;
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                String candidate = keys[i];
+                if (candidate == null) {
+                    keys[i] = key;
+                    values[i] = value;
+                    size++;
+                    return;
+                }
+                if (candidate.equals(key)) {
+                    values[i] = value;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Removes the key if it still maps to the given variant (another
+         * variant may have taken the code over since).
+         */
+        void remove(String key, Long variantId) {
+            int mask = keys.length - 1;
+            int hole = slot(key);
+            while (keys[hole] != null && !keys[hole].equals(key)) {
+                hole = (hole + 1) & mask;
+            }
+            if (keys[hole] == null || !values[hole].getVariantId().equals(variantId)) {
+                return;
+            }
+            // Backward-shift: pull later entries of the probe run into the
+            // hole when their home slot is not between the hole and them
+            for (int j = (hole + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j]);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = null;
+            values[hole] = null;
+            size--;
+        }
+
+        /**
+         * Empties the table, sized for the expected number of keys.
+         */
+        void clear(int expected) {
+            int bits = MIN_BITS;
+            while ((1 << bits) < expected * 2L) {
+                bits++;
+            }
+            allocate(bits);
+        }
+
+        private int slot(String key) {
+            // Fibonacci hashing: the top bits of the product are well mixed
+            return (key.hashCode() * 0x9E3779B9) >>> shift;
+        }
+
+        private void resize(int bits) {
+            String[] oldKeys = keys;
+            VariantLookup[] oldValues = values;
+            allocate(bits);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private void allocate(int bits) {
+            keys = new String[1 << bits];
+            values = new VariantLookup[1 << bits];
+            shift = 32 - bits;
+            size = 0;
+        }
+    }
+}
@@ -3,8 +3,9 @@ package com.cs308.product.service;
 import com.cs308.product.domain.Cart;
 import com.cs308.product.domain.CartItem;
 import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
 import com.cs308.product.repository.CartRepository;
-import com.cs308.product.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,15 +15,24 @@ import org.springframework.transaction.annotation.Transactional;
 public class CartService {
 
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
-
+    private final ProductCache productCache;
+
+    /**
+     * Adds units to the cart. For a product with variants, {@code color} and
+     * {@code size} pick the variant and its stock is checked; otherwise the
+     * product's stock is. The check is advisory: the order's conditional
+     * decrement is what prevents overselling.
+     */
     @Transactional
-    public Cart addToCart(Long userId, Long productId, int qty, String size) {
+    public Cart addToCart(Long userId, Long productId, int qty, String size, Color color) {
 
-        Product product = productRepository.findById(productId)
+        Product product = productCache.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        if (product.getStock() == null || product.getStock() <= 0) {
+        ProductVariant variant = VariantResolver.resolve(productId, product.getVariants(),
+                ProductVariant::getColor, ProductVariant::getSize, color, size);
+        int available = available(product, variant);
+        if (available <= 0) {
             throw new OutOfStockException(productId);
         }
 
@@ -33,29 +43,31 @@ public class CartService {
                     return c;
                 });
 
-        // Find existing item by productId AND size
-        final String itemSize = size;
+        // Find existing item by variant, or by productId AND size without one
+        final String itemSize = variant != null ? variant.getSize().name() : size;
         CartItem existing = cart.getItems().stream()
-                .filter(i -> i.getProduct().getId().equals(productId) &&
-                        java.util.Objects.equals(i.getSize(), itemSize))
+                .filter(i -> i.getProduct().getId().equals(productId) && (variant != null
+                        ? i.getVariant() != null && i.getVariant().getId().equals(variant.getId())
+                        : java.util.Objects.equals(i.getSize(), itemSize)))
                 .findFirst()
                 .orElse(null);
 
         if (existing != null) {
             int newQty = existing.getQuantity() + qty;
-            if (newQty > product.getStock()) {
+            if (newQty > available) {
                 throw new OutOfStockException("Not enough stock for product " + productId);
             }
             existing.setQuantity(newQty);
         } else {
-            if (qty > product.getStock()) {
+            if (qty > available) {
                 throw new OutOfStockException("Not enough stock for product " + productId);
             }
             CartItem newItem = CartItem.builder()
                     .cart(cart)
                     .product(product)
+                    .variant(variant)
                     .quantity(qty)
-                    .size(size)
+                    .size(itemSize)
                     .build();
 
             cart.addItem(newItem);
@@ -109,7 +121,7 @@ public class CartService {
             throw new RuntimeException("Quantity must be non-negative");
         }
 
-        Product product = productRepository.findById(productId)
+        Product product = productCache.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
         Cart cart = cartRepository.findByUserId(userId)
@@ -123,7 +135,7 @@ public class CartService {
         if (quantity == 0) {
             cart.removeItem(item);
         } else {
-            if (quantity > product.getStock()) {
+            if (quantity > available(product, item.getVariant())) {
                 throw new RuntimeException("Not enough stock");
             }
             item.setQuantity(quantity);
@@ -160,9 +172,10 @@ public class CartService {
             Product product = guestItem.getProduct();
             int qty = guestItem.getQuantity();
             String size = guestItem.getSize();
+            Color color = guestItem.getVariant() == null ? null : guestItem.getVariant().getColor();
 
             // Reuse addToCart to avoid duplication/stock issues
-            addToCart(userId, product.getId(), qty, size);
+            addToCart(userId, product.getId(), qty, size, color);
         }
 
         // After moving items, delete guest cart (orphans will cascade)
@@ -172,6 +185,18 @@ public class CartService {
         return cartRepository.findByUserId(userId).orElseThrow();
     }
 
+    // Stock of the variant if there is one (as of the cached product), else of the product
+    private static int available(Product product, ProductVariant variant) {
+        if (variant != null) {
+            return product.getVariants().stream()
+                    .filter(v -> v.getId().equals(variant.getId()))
+                    .findFirst()
+                    .orElse(variant)
+                    .getStockQuantity();
+        }
+        return product.getStock() == null ? 0 : product.getStock();
+    }
+
     private void recalcTotals(Cart cart) {
         double totalPrice = 0;
         int totalQty = 0;
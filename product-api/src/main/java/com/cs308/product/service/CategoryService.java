@@ -2,11 +2,17 @@ package com.cs308.product.service;
 
 import com.cs308.product.domain.Category;
 import com.cs308.product.repository.CategoryRepository;
+import com.cs308.product.search.ProductSuggester;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Slf4j
@@ -15,22 +21,37 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductSuggester suggester;
+
+    // Null until first read; replaced as a whole after every committed change
+    private volatile Snapshot snapshot;
+
+    /**
+     * Immutable view of all categories ordered by name. The Category objects
+     * are shared between requests and must not be modified. {@code etag} is
+     * a hash of the content, so it only changes when the categories do and is
+     * the same on every instance.
+     */
+    public record Snapshot(List<Category> categories, List<String> names, String etag) {
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
 
     /**
      * Get all categories ordered by name
      */
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return snapshot().categories();
     }
 
     /**
      * Get all category names as a list of strings
      */
     public List<String> getAllCategoryNames() {
-        return categoryRepository.findAll().stream()
-                .map(Category::getName)
-                .sorted()
-                .toList();
+        return snapshot().names();
     }
 
     /**
@@ -49,6 +70,8 @@ public class CategoryService {
                 .build();
 
         Category saved = categoryRepository.save(category);
+        suggester.addCategory(normalizedName);
+        afterCommit(this::reload);
         log.info("Created new category: {}", normalizedName);
         return saved;
     }
@@ -58,10 +81,11 @@ public class CategoryService {
      */
     @Transactional
     public void deleteCategory(Long id) {
-        if (!categoryRepository.existsById(id)) {
-            throw new IllegalArgumentException("Category not found: " + id);
-        }
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found: " + id));
         categoryRepository.deleteById(id);
+        suggester.removeCategory(category.getName());
+        afterCommit(this::reload);
         log.info("Deleted category: {}", id);
     }
 
@@ -85,4 +109,40 @@ public class CategoryService {
             log.info("Initialized {} default categories", defaults.size());
         }
     }
+
+    /**
+     * Reads the categories and publishes a new snapshot. Serialized, so the
+     * snapshot published last is always built from the latest read.
+     */
+    private synchronized Snapshot reload() {
+        List<Category> categories = List.copyOf(categoryRepository.findAll(Sort.by("name", "id")));
+        StringBuilder content = new StringBuilder();
+        for (Category category : categories) {
+            content.append(category.getId()).append('|')
+                    .append(category.getName()).append('|')
+                    .append(category.getCreatedAt()).append('\n');
+        }
+        Snapshot loaded = new Snapshot(categories,
+                categories.stream().map(Category::getName).toList(),
+                DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)));
+        snapshot = loaded;
+        return loaded;
+    }
+
+    /**
+     * Runs the action once the surrounding transaction has committed (or right
+     * away when there is none), so readers never see a rolled-back category.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 }
@@ -0,0 +1,7 @@
+package com.cs308.product.service;
+
+public class ChangeTokenExpiredException extends RuntimeException {
+    public ChangeTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,97 @@
+package com.cs308.product.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, fields optionally quoted with
+ * {@code "}, quotes doubled inside quoted fields, which may span lines.
+ * Reads one record at a time, so a feed is never held in memory.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+    private int peeked = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * The next record's fields, or null at the end of input.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new EOFException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * 1-based line on which the last returned record started.
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (peeked != -2) {
+            c = peeked;
+            peeked = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+}
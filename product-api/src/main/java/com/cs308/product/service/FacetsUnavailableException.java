@@ -0,0 +1,7 @@
+package com.cs308.product.service;
+
+public class FacetsUnavailableException extends RuntimeException {
+    public FacetsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.cs308.product.service;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
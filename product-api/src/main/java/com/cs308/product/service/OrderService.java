@@ -4,6 +4,7 @@ import com.cs308.product.domain.Cart;
 import com.cs308.product.domain.Order;
 import com.cs308.product.domain.OrderItem;
 import com.cs308.product.domain.enums.OrderStatus;
+import com.cs308.product.model.StockReductionRequest;
 import com.cs308.product.repository.CartRepository;
 import com.cs308.product.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,7 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
+    private final ProductService productService;
 
     @Transactional
     public Order createOrder(Long userId) {
@@ -29,12 +31,13 @@ public class OrderService {
             throw new RuntimeException("Cannot create order from empty cart");
         }
 
-        // Validate stock availability
-        for (var cartItem : cart.getItems()) {
-            if (cartItem.getQuantity() > cartItem.getProduct().getStock()) {
-                throw new RuntimeException("Insufficient stock for product: " + cartItem.getProduct().getName());
-            }
-        }
+        // Take the stock of every line (per variant where the product has
+        // them) with conditional UPDATEs; a shortage rolls the order back
+        List<StockReductionRequest.Line> lines = cart.getItems().stream()
+                .map(item -> new StockReductionRequest.Line(item.getProduct().getId(), item.getQuantity(),
+                        item.getVariant() == null ? null : item.getVariant().getColor(), item.getSize()))
+                .toList();
+        productService.reduceStockBatch(new StockReductionRequest(lines));
 
         // Create order
         Order order = Order.builder()
@@ -48,15 +51,11 @@ public class OrderService {
             OrderItem orderItem = OrderItem.builder()
                     .order(order)
                     .product(cartItem.getProduct())
+                    .variant(cartItem.getVariant())
                     .quantity(cartItem.getQuantity())
                     .unitPrice(cartItem.getProduct().getPrice())
                     .build();
             order.addItem(orderItem);
-
-            // Update product stock
-            cartItem.getProduct().setStock(
-                    cartItem.getProduct().getStock() - cartItem.getQuantity()
-            );
         }
 
         // Save order
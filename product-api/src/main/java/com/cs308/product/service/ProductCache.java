@@ -0,0 +1,158 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache in front of ProductRepository.findById(), bounded by
+ * size (least recently used goes first) and by time-to-live.
+ *
+ * Cached products are detached entities with their images and variants
+ * loaded, so they serialize safely outside a session. They are shared between
+ * requests and must be treated as read-only: code that modifies a product
+ * loads it from the repository and calls {@link #invalidate(Long)}.
+ */
+@Slf4j
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // Bumped on every invalidation; a load that raced with one is not cached
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductCache(ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${product.cache.max-size:2000}") int maxSize,
+            @Value("${product.cache.ttl:5m}") Duration ttl) {
+        this(productRepository, transactionManager, maxSize, ttl, System::nanoTime);
+    }
+
+    ProductCache(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+            int maxSize, Duration ttl, LongSupplier clock) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    public Optional<Product> findById(Long id) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (clock.getAsLong() - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return Optional.of(entry.product);
+                }
+                entries.remove(id);
+                evictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        Product loaded = readOnlyTransaction.execute(status -> productRepository.findById(id)
+                .map(product -> {
+                    Hibernate.initialize(product.getImages());
+                    Hibernate.initialize(product.getVariants());
+                    return product;
+                })
+                .orElse(null));
+        if (loaded == null) {
+            return Optional.empty();
+        }
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(id, new Entry(loaded, clock.getAsLong()));
+                evictOverflow();
+            }
+        }
+        return Optional.of(loaded);
+    }
+
+    /**
+     * Drops the product now and, when called inside a transaction, once more
+     * after commit, so a reader cannot re-cache the pre-commit row.
+     */
+    public void invalidate(Long id) {
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    private synchronized void evict(Long id) {
+        generation++;
+        if (entries.remove(id) != null) {
+            invalidations.increment();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry(Product product, long loadedAt) {
+    }
+
+    /**
+     * Counters since startup; {@code evictions} covers both size and TTL.
+     */
+    public record Stats(int size, int maxSize, long hits, long misses, long evictions, long invalidations) {
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+}
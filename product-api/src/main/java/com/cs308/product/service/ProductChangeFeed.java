@@ -0,0 +1,133 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductTombstone;
+import com.cs308.product.model.ChangeToken;
+import com.cs308.product.model.ProductChange;
+import com.cs308.product.model.ProductChanges;
+import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.ProductTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Incremental catalog sync: consumers pull the changes after their last
+ * token and apply them to a local replica, instead of re-reading the catalog.
+ *
+ * Upserts come from Product.updatedAt, deletes from the tombstones that
+ * ProductService.deleteAll leaves behind. Both are merged in (changedAt,
+ * productId) order. Changes younger than the settle time are held back, so
+ * a transaction that stamped its rows a little before committing is not
+ * skipped by a token that already moved past its timestamp. Tombstones are
+ * pruned after the retention period; a token issued longer ago than that (a
+ * consumer that has not pulled for as long) gets 410 and must resync from the
+ * start. Expiry goes by when the token was issued, not by its position, so a
+ * first sync can page through products last changed before the retention
+ * period: every delete it could miss happened after its previous pull and is
+ * still retained.
+ */
+@Slf4j
+@Service
+public class ProductChangeFeed {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private static final Comparator<ProductChange> FEED_ORDER = Comparator
+            .comparing(ProductChange::getChangedAt)
+            .thenComparing(ProductChange::getProductId);
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final Duration settleTime;
+    private final Duration tombstoneRetention;
+    private final Clock clock;
+
+    @Autowired
+    public ProductChangeFeed(ProductRepository productRepository,
+            ProductTombstoneRepository tombstoneRepository,
+            @Value("${product.changes.settle-time:5s}") Duration settleTime,
+            @Value("${product.changes.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this(productRepository, tombstoneRepository, settleTime, tombstoneRetention, Clock.systemUTC());
+    }
+
+    ProductChangeFeed(ProductRepository productRepository, ProductTombstoneRepository tombstoneRepository,
+            Duration settleTime, Duration tombstoneRetention, Clock clock) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+        this.clock = clock;
+    }
+
+    @Transactional(readOnly = true)
+    public ProductChanges changes(String since, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        ChangeToken from = since == null || since.isBlank() ? ChangeToken.START : ChangeToken.decode(since);
+        Instant now = clock.instant();
+        if (!from.isStart() && from.getIssuedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new ChangeTokenExpiredException("Change token was issued more than " + tombstoneRetention
+                    + " ago; resync from the start");
+        }
+
+        // One extra row from each side tells whether more changes follow
+        Instant until = now.minus(settleTime);
+        Limit fetch = Limit.of(size + 1);
+        List<ProductChange> changes = new ArrayList<>(2 * size + 2);
+        for (Product product : productRepository.findChangedAfter(
+                from.getChangedAt(), from.getProductId(), until, fetch)) {
+            changes.add(new ProductChange(ProductChange.Type.UPSERT, product.getId(), product.getUpdatedAt(), product));
+        }
+        for (ProductTombstone tombstone : tombstoneRepository.findAfter(
+                from.getChangedAt(), from.getProductId(), until, fetch)) {
+            changes.add(new ProductChange(ProductChange.Type.DELETE, tombstone.getProductId(),
+                    tombstone.getDeletedAt(), null));
+        }
+        changes.sort(FEED_ORDER);
+
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = new ArrayList<>(changes.subList(0, size));
+        }
+        for (ProductChange change : changes) {
+            if (change.getProduct() != null) {
+                Hibernate.initialize(change.getProduct().getImages());
+                Hibernate.initialize(change.getProduct().getVariants());
+            }
+        }
+        ChangeToken next = changes.isEmpty()
+                ? from.reissue(now) : ChangeToken.after(changes.get(changes.size() - 1), now);
+        if (!hasMore) {
+            // Caught up: move on to the settle horizon, so an idle consumer's
+            // token does not age into expiry. Changes stamped exactly at the
+            // horizon may be sent again; applying an upsert twice is harmless.
+            ChangeToken horizon = ChangeToken.before(until, now);
+            if (horizon.compareTo(next) > 0) {
+                next = horizon;
+            }
+        }
+        return new ProductChanges(changes, next.encode(), hasMore);
+    }
+
+    @Scheduled(fixedDelayString = "${product.changes.prune-interval:3600000}")
+    @Transactional
+    public void pruneTombstones() {
+        int pruned = tombstoneRepository.deleteOlderThan(clock.instant().minus(tombstoneRetention));
+        if (pruned > 0) {
+            log.info("Pruned {} product tombstones", pruned);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Catalog export for downstream feeds (marketplaces, search vendor) as
+ * NDJSON: one product per line, in the same JSON shape as GET /products/{id}.
+ *
+ * Products come from a server-side cursor and are written in chunks of
+ * {@link #CHUNK_SIZE}. Touching the first product's images or variants
+ * batch-loads them for the whole chunk (Product's collections are
+ * {@code @BatchSize(100)}), and the persistence context is cleared after each
+ * chunk, so memory use does not grow with the catalog.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+    static final int CHUNK_SIZE = 100;
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes every product, or only those updated after {@code since}, to
+     * {@code out}, which is flushed but not closed.
+     *
+     * @return the number of products written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(Instant since, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Product.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        List<Product> chunk = new ArrayList<>(CHUNK_SIZE);
+        long written = 0;
+        try (Stream<Product> products = since == null
+                ? productRepository.streamAllForExport()
+                : productRepository.streamUpdatedSince(since)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    written += write(chunk, writer, out);
+                }
+            }
+            written += write(chunk, writer, out);
+        }
+        out.flush();
+        log.info("Exported {} products (since {})", written, since);
+        return written;
+    }
+
+    private int write(List<Product> chunk, ObjectWriter writer, OutputStream out) throws IOException {
+        for (Product product : chunk) {
+            writer.writeValue(out, product);
+            out.write('\n');
+        }
+        int count = chunk.size();
+        chunk.clear();
+        // Detach what was written; the cursor stays open
+        entityManager.clear();
+        return count;
+    }
+}
@@ -0,0 +1,380 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductImage;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.model.ProductImportResult;
+import com.cs308.product.model.ProductImportRow;
+import com.cs308.product.repository.ProductImportRepository;
+import com.cs308.product.search.ProductFacetIndex;
+import com.cs308.product.search.ProductSearchIndex;
+import com.cs308.product.search.ProductSuggester;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming bulk import of products with their images and variants, for
+ * seeding the catalog or loading supplier feeds.
+ *
+ * The feed is parsed one record at a time and written in batches of
+ * {@link #BATCH_SIZE} products, each batch in its own transaction with one
+ * JDBC batch per table. Rows that fail to parse or validate are reported and
+ * skipped. When the database rejects a batch (e.g. a SKU that already
+ * exists), the batch is retried row by row so only the offending rows fail.
+ * The import as a whole is therefore not atomic: batches committed before a
+ * failure stay.
+ *
+ * Two formats are accepted:
+ * <ul>
+ * <li>NDJSON: one {@link ProductImportRow} JSON object per line.</li>
+ * <li>CSV with a header row naming the fields. {@code imageUrls} holds
+ * {@code |}-separated URLs, and {@code variant.*} columns (e.g.
+ * {@code variant.sku}) describe one variant. Consecutive rows with the same
+ * {@code serialNumber} are variants of one product, whose other columns are
+ * taken from its first row.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String VARIANT_PREFIX = "variant.";
+    private static final String IMAGE_URLS = "imageUrls";
+    private static final String SERIAL_NUMBER = "serialNumber";
+
+    private final ProductImportRepository importRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transaction;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggester suggester;
+    private final ProductFacetIndex facetIndex;
+    private final VariantLookupService variantLookupService;
+
+    public ProductImportService(ProductImportRepository importRepository,
+            ObjectMapper objectMapper,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            ProductSearchIndex searchIndex,
+            ProductSuggester suggester,
+            ProductFacetIndex facetIndex,
+            VariantLookupService variantLookupService) {
+        this.importRepository = importRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.searchIndex = searchIndex;
+        this.suggester = suggester;
+        this.facetIndex = facetIndex;
+        this.variantLookupService = variantLookupService;
+    }
+
+    public ProductImportResult importNdjson(InputStream in) throws IOException {
+        Import batch = new Import();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(line, objectMapper.readValue(text, ProductImportRow.class));
+            } catch (JsonProcessingException e) {
+                batch.reject(line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    public ProductImportResult importCsv(InputStream in) throws IOException {
+        Import batch = new Import();
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return batch.finish();
+        }
+        header = header.stream().map(String::trim).toList();
+
+        // The product being assembled from consecutive rows; null when its
+        // first row failed, so its remaining variant rows are skipped too
+        ProductImportRow pending = null;
+        String pendingSerial = null;
+        long pendingLine = 0;
+        while (true) {
+            List<String> record;
+            try {
+                record = reader.next();
+            } catch (EOFException e) {
+                batch.reject(reader.recordLine(), e.getMessage());
+                break;
+            }
+            if (record == null) {
+                break;
+            }
+            long line = reader.recordLine();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                batch.reject(line, "Expected " + header.size() + " fields but found " + record.size());
+                continue;
+            }
+
+            Map<String, Object> product = new LinkedHashMap<>();
+            Map<String, Object> variant = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i);
+                String value = record.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (name.startsWith(VARIANT_PREFIX)) {
+                    variant.put(name.substring(VARIANT_PREFIX.length()), value);
+                } else if (name.equals(IMAGE_URLS)) {
+                    product.put(name, Arrays.stream(value.split("\\|")).map(String::trim)
+                            .filter(url -> !url.isEmpty()).toList());
+                } else {
+                    product.put(name, value);
+                }
+            }
+
+            Object serial = product.get(SERIAL_NUMBER);
+            boolean sameProduct = pendingSerial != null && pendingSerial.equals(serial);
+            if (!sameProduct) {
+                if (pending != null) {
+                    batch.add(pendingLine, pending);
+                }
+                pendingSerial = serial == null ? null : serial.toString();
+                pendingLine = line;
+                try {
+                    pending = objectMapper.convertValue(product, ProductImportRow.class);
+                } catch (IllegalArgumentException e) {
+                    pending = null;
+                    batch.reject(line, "Invalid product: " + e.getMessage());
+                    continue;
+                }
+            } else if (pending == null) {
+                continue;
+            }
+
+            if (!variant.isEmpty()) {
+                try {
+                    pending.getVariants().add(objectMapper.convertValue(variant, ProductImportRow.Variant.class));
+                } catch (IllegalArgumentException e) {
+                    pending = null;
+                    batch.reject(line, "Invalid variant: " + e.getMessage());
+                }
+            }
+        }
+        if (pending != null) {
+            batch.add(pendingLine, pending);
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Bean validation plus SKU/barcode uniqueness within the feed; the
+     * database catches clashes with existing variants. The stock of a
+     * product with variants is replaced by the sum of theirs.
+     */
+    private String validate(ProductImportRow row, Set<String> skus, Set<String> barcodes) {
+        if (row.getVariants() == null) {
+            row.setVariants(new ArrayList<>());
+        }
+        Set<ConstraintViolation<ProductImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .reduce((a, b) -> a + "; " + b)
+                    .orElseThrow();
+        }
+        Set<String> rowSkus = new HashSet<>();
+        Set<String> rowBarcodes = new HashSet<>();
+        for (ProductImportRow.Variant variant : row.getVariants()) {
+            if (skus.contains(variant.getSku()) || !rowSkus.add(variant.getSku())) {
+                return "Duplicate SKU " + variant.getSku();
+            }
+            if (variant.getBarcode() != null
+                    && (barcodes.contains(variant.getBarcode()) || !rowBarcodes.add(variant.getBarcode()))) {
+                return "Duplicate barcode " + variant.getBarcode();
+            }
+        }
+        skus.addAll(rowSkus);
+        barcodes.addAll(rowBarcodes);
+        if (!row.getVariants().isEmpty()) {
+            // A product with variants stocks what its variants do
+            row.setStock(row.getVariants().stream().mapToInt(ProductImportRow.Variant::getStockQuantity).sum());
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the rows in one transaction.
+     *
+     * @return the generated product ids, in row order
+     */
+    private List<Long> insert(List<ProductImportRow> rows) {
+        return transaction.execute(status -> importRepository.insert(rows, Instant.now()));
+    }
+
+    /**
+     * Adds committed rows to the in-memory search structures and the variant
+     * lookup index. Never throws: the rows are in the database either way,
+     * and the search structures pick them up on their next rebuild (variant
+     * lookups fall back to the database meanwhile).
+     */
+    private void index(List<ProductImportRow> rows, List<Long> ids) {
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                Product product = toProduct(ids.get(i), rows.get(i));
+                searchIndex.index(product);
+                suggester.upsertProduct(product);
+                facetIndex.index(product);
+            }
+            // Variant ids were generated by the batch insert; read them back
+            variantLookupService.reindexProducts(ids);
+        } catch (RuntimeException e) {
+            log.warn("Imported products {} were committed but could not be indexed", ids, e);
+        }
+    }
+
+    private static Product toProduct(Long id, ProductImportRow row) {
+        Product product = Product.builder()
+                .id(id)
+                .name(row.getName())
+                .price(row.getPrice())
+                .stock(row.getStock())
+                .model(row.getModel())
+                .serialNumber(row.getSerialNumber())
+                .description(row.getDescription())
+                .brand(row.getBrand())
+                .productType(row.getProductType())
+                .targetAudience(row.getTargetAudience())
+                .warrantyStatus(row.getWarrantyStatus())
+                .distributorInfo(row.getDistributorInfo())
+                .season(row.getSeason())
+                .fit(row.getFit())
+                .material(row.getMaterial())
+                .careInstructions(row.getCareInstructions())
+                .active(row.getActive() == null || row.getActive())
+                .build();
+        if (row.getImageUrls() != null) {
+            row.getImageUrls().forEach(url -> product.getImages().add(
+                    ProductImage.builder().url(url).product(product).build()));
+        }
+        row.getVariants().forEach(variant -> product.getVariants().add(ProductVariant.builder()
+                .product(product)
+                .sku(variant.getSku())
+                .barcode(variant.getBarcode())
+                .color(variant.getColor())
+                .size(variant.getSize())
+                .stockQuantity(variant.getStockQuantity())
+                .price(variant.getPrice())
+                .discountedPrice(variant.getDiscountedPrice())
+                .sellable(variant.getSellable() == null || variant.getSellable())
+                .build()));
+        return product;
+    }
+
+    /**
+     * State of one import run: the batch being filled and the tallies.
+     */
+    private final class Import {
+        private final List<ProductImportRow> rows = new ArrayList<>(BATCH_SIZE);
+        private final List<Long> lines = new ArrayList<>(BATCH_SIZE);
+        private final Set<String> skus = new HashSet<>();
+        private final Set<String> barcodes = new HashSet<>();
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        void add(long line, ProductImportRow row) {
+            String problem = validate(row, skus, barcodes);
+            if (problem != null) {
+                reject(line, problem);
+                return;
+            }
+            rows.add(row);
+            lines.add(line);
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportResult.RowError(line, message));
+            }
+        }
+
+        ProductImportResult finish() {
+            flush();
+            log.info("Product import finished: {} imported, {} failed", imported, failed);
+            return new ProductImportResult(imported, failed, List.copyOf(errors));
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<ProductImportRow> batch = List.copyOf(rows);
+            List<Long> ids = null;
+            try {
+                ids = insert(batch);
+            } catch (DataAccessException e) {
+                log.debug("Import batch rejected, retrying row by row", e);
+            }
+            if (ids != null) {
+                imported += batch.size();
+                index(batch, ids);
+            } else {
+                // One bad row fails the whole batch; retry one by one to find
+                // it. Only the insert is retried, never rows already committed.
+                for (int i = 0; i < batch.size(); i++) {
+                    List<ProductImportRow> row = List.of(batch.get(i));
+                    List<Long> rowIds;
+                    try {
+                        rowIds = insert(row);
+                    } catch (DataAccessException rowError) {
+                        reject(lines.get(i), rowError.getMostSpecificCause().getMessage());
+                        continue;
+                    }
+                    imported++;
+                    index(row, rowIds);
+                }
+            }
+            rows.clear();
+            lines.clear();
+        }
+    }
+}
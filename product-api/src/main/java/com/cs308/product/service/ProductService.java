@@ -2,26 +2,76 @@ package com.cs308.product.service;
 
 import com.cs308.product.domain.Product;
 import com.cs308.product.domain.ProductImage;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.model.DiscountCampaignRequest;
+import com.cs308.product.model.DiscountCampaignResult;
+import com.cs308.product.model.ProductCursor;
+import com.cs308.product.model.ProductFacets;
 import com.cs308.product.model.ProductFilterRequest;
+import com.cs308.product.model.ProductPage;
+import com.cs308.product.model.ProductSummary;
 import com.cs308.product.model.ProductUpdateRequest;
+import com.cs308.product.model.StockReductionRequest;
 import com.cs308.product.model.StockRestoreRequest;
+import com.cs308.product.model.VariantLookup;
 import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.ProductRepositoryCustom;
+import com.cs308.product.repository.ProductRepositoryCustomImpl;
+import com.cs308.product.repository.ProductSearchCriteria;
+import com.cs308.product.repository.ProductSort;
+import com.cs308.product.repository.StockRepository;
+import com.cs308.product.search.ProductFacetIndex;
+import com.cs308.product.search.ProductSearchIndex;
+import com.cs308.product.search.ProductSuggester;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    static final int DEFAULT_PAGE_SIZE = 24;
+    static final int MAX_PAGE_SIZE = 100;
+    // Above this many text matches the id list is dropped in favour of SQL LIKE
+    // (or, for relevance, truncated to the best-scoring candidates)
+    static final int MAX_INDEXED_CANDIDATES = 10_000;
+
     private final ProductRepository productRepository;
     private final com.cs308.product.repository.ReviewRepository reviewRepository;
     private final com.cs308.product.repository.CartItemRepository cartItemRepository;
     private final com.cs308.product.repository.WishlistItemRepository wishlistItemRepository;
     private final com.cs308.product.repository.OrderItemRepository orderItemRepository;
+    private final com.cs308.product.repository.ProductTombstoneRepository productTombstoneRepository;
+    private final com.cs308.product.repository.ProductVariantRepository productVariantRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggester suggester;
+    private final ProductFacetIndex facetIndex;
+    private final com.cs308.product.search.VariantLookupIndex variantIndex;
+    private final ProductCache productCache;
+    private final StockRepository stockRepository;
+    private final StockLedger stockLedger;
+    private final SalesCounter salesCounter;
+    private final RecentReviewFeed recentReviewFeed;
 
     public Product addProduct(com.cs308.product.model.CreateProductRequest request) {
         Product product = new Product();
@@ -54,35 +104,214 @@ public class ProductService {
             product.getImages().addAll(images);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        searchIndex.index(saved);
+        suggester.upsertProduct(saved);
+        facetIndex.index(saved);
+        return saved;
     }
 
+    /**
+     * Puts refunded or cancelled units back with an atomic increment, on the
+     * variant the request names and on the product's total. Order lines from
+     * before variants were recorded may not name a single variant; for those
+     * only the product's total is restored, so the refund still goes through.
+     */
+    @org.springframework.transaction.annotation.Transactional
     public Product restoreStock(StockRestoreRequest request) {
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new ProductNotFoundException(request.getProductId()));
+        Long productId = request.getProductId();
+        Long variantId = restoredVariantId(request);
+        if (!stockRepository.restoreStock(productId, variantId, request.getQuantity())) {
+            throw new ProductNotFoundException(productId);
+        }
 
-        Integer current = product.getStock() == null ? 0 : product.getStock();
-        product.setStock(current + request.getQuantity());
+        productCache.invalidate(productId);
+        stockLedger.invalidate(productId);
+        if (variantId != null) {
+            afterCommit(() -> variantIndex.adjustStock(productId, variantId, request.getQuantity()));
+        }
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+    }
 
-        return productRepository.save(product);
+    // The variant the restored line names, or null for the product total only
+    private Long restoredVariantId(StockRestoreRequest request) {
+        try {
+            VariantLookup variant = VariantResolver.resolve(request.getProductId(),
+                    productVariantRepository.findLookupsByProductIdIn(List.of(request.getProductId())),
+                    VariantLookup::getColor, VariantLookup::getSize, request.getColor(), request.getSize());
+            return variant == null ? null : variant.getVariantId();
+        } catch (UnknownVariantException e) {
+            return null;
+        }
     }
 
-    public Product reduceStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
+    /**
+     * Sets the stock of one variant (a stock count or correction) and keeps
+     * the product's total, the sum over its variants, in step.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public Product setVariantStock(Long productId, Long variantId, Integer stock) {
+        if (stock == null || stock < 0) {
+            throw new IllegalArgumentException("Stock quantity cannot be negative");
+        }
+        Integer delta = stockRepository.setVariantStock(productId, variantId, stock);
+        if (delta == null) {
+            throw new UnknownVariantException("Product " + productId + " has no variant " + variantId);
+        }
+
+        productCache.invalidate(productId);
+        stockLedger.invalidate(productId);
+        if (delta != 0) {
+            afterCommit(() -> variantIndex.adjustStock(productId, variantId, delta));
+        }
+        return productRepository.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException(productId));
+    }
 
-        Integer currentStock = product.getStock() == null ? 0 : product.getStock();
-        if (currentStock < quantity) {
+    /**
+     * Decrements one product's (or one of its variants') stock with a
+     * conditional UPDATE; concurrent calls can no longer oversell.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public Product reduceStock(Long productId, Integer quantity, Color color, String size) {
+        if (quantity == null || quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (decrementStock(List.of(new StockReductionRequest.Line(productId, quantity, color, size)), false) != null) {
             throw new IllegalArgumentException("Insufficient stock for product: " + productId);
         }
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+    }
+
+    /**
+     * Decrements every line of an order in one transaction with JDBC-batched
+     * conditional UPDATEs. If any line lacks
+     * stock the whole batch is rolled back. Units held by open reservations
+     * are not available to this call.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public void reduceStockBatch(StockReductionRequest request) {
+        Long failed = decrementStock(request.getItems(), false);
+        if (failed != null) {
+            throw new OutOfStockException("Insufficient stock for product " + failed);
+        }
+    }
+
+    /**
+     * Turns a confirmed reservation into a real decrement. The reservation's
+     * own units count as available; units held by other reservations do not.
+     * The caller releases the reservation from the ledger afterwards.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public void reduceReservedStock(List<StockReductionRequest.Line> lines) {
+        Long failed = decrementStock(lines, true);
+        if (failed != null) {
+            throw new OutOfStockException("Insufficient stock for product " + failed);
+        }
+    }
+
+    /**
+     * Units per ledger key (variant, or product when it has no variants) for
+     * the given lines, as StockLedger holds them.
+     *
+     * @throws UnknownVariantException if a line names no single variant
+     */
+    public Map<StockLedger.Key, Integer> ledgerQuantities(List<StockReductionRequest.Line> lines) {
+        return resolveVariants(lines, StockReductionRequest.totals(lines).keySet());
+    }
 
-        product.setStock(currentStock - quantity);
+    /**
+     * Runs the conditional UPDATEs and refreshes caches after commit.
+     * Returns the first product whose line matched no row (the caller's
+     * exception rolls everything back), or null when all lines applied.
+     * A product that does not exist at all raises ProductNotFoundException.
+     *
+     * Lines of products with variants take their units from the variant
+     * first; the product's stock column, which is the sum over its variants
+     * and what listings read, is then decremented by the same amounts.
+     * Products without variants only have the product-level count. Both
+     * levels leave the units held by open reservations in stock.
+     *
+     * @param ownReservation whether the lines are the caller's own confirmed
+     *                       reservation, whose units do not need to stay in
+     *                       stock
+     */
+    private Long decrementStock(List<StockReductionRequest.Line> lines, boolean ownReservation) {
+        Map<Long, Integer> quantities = StockReductionRequest.totals(lines);
+        Map<StockLedger.Key, Integer> keyed = resolveVariants(lines, quantities.keySet());
+        List<StockLedger.Key> keys = new ArrayList<>(keyed.keySet());
+        quantities.keySet().forEach(productId -> keys.add(StockLedger.Key.product(productId)));
+        Map<StockLedger.Key, Integer> held = stockLedger.heldByOthers(keys, ownReservation ? keyed : Map.of());
+
+        // Variant rows in id order, so concurrent orders lock them in the same order
+        Map<Long, StockLedger.Key> variantKeys = new TreeMap<>();
+        keyed.keySet().stream()
+                .filter(key -> key.variantId() != null)
+                .forEach(key -> variantKeys.put(key.variantId(), key));
+        if (!variantKeys.isEmpty()) {
+            Map<Long, Integer> variantQuantities = new LinkedHashMap<>();
+            Map<Long, Integer> variantHeld = new HashMap<>();
+            variantKeys.forEach((variantId, key) -> {
+                variantQuantities.put(variantId, keyed.get(key));
+                variantHeld.put(variantId, held.getOrDefault(key, 0));
+            });
+            int[] updated = stockRepository.decrementVariantStock(variantQuantities, variantHeld);
+            int i = 0;
+            for (StockLedger.Key key : variantKeys.values()) {
+                if (updated[i++] == 0) {
+                    return key.productId();
+                }
+            }
+        }
 
-        // Increment sales count for popularity sorting
-        Integer currentSales = product.getSalesCount() == null ? 0 : product.getSalesCount();
-        product.setSalesCount(currentSales + quantity);
+        Map<Long, Integer> productHeld = new HashMap<>();
+        quantities.keySet().forEach(productId ->
+                productHeld.put(productId, held.getOrDefault(StockLedger.Key.product(productId), 0)));
+        int[] updated = stockRepository.decrementStock(quantities, productHeld);
+        int i = 0;
+        for (Long productId : quantities.keySet()) {
+            if (updated[i++] == 0) {
+                if (!productRepository.existsById(productId)) {
+                    throw new ProductNotFoundException(productId);
+                }
+                return productId;
+            }
+        }
 
-        return productRepository.save(product);
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        ids.forEach(productCache::invalidate);
+        ids.forEach(stockLedger::invalidate);
+        // Popularity is written behind, off the checkout path
+        afterCommit(() -> {
+            salesCounter.record(quantities);
+            variantKeys.values().forEach(key -> variantIndex.adjustStock(
+                    key.productId(), key.variantId(), -keyed.get(key)));
+        });
+        return null;
+    }
+
+    /**
+     * Maps each line to its variant, with one query for all products, and
+     * returns the units per ledger key. Lines of products without variants
+     * are keyed on the product alone.
+     */
+    private Map<StockLedger.Key, Integer> resolveVariants(List<StockReductionRequest.Line> lines,
+            Collection<Long> productIds) {
+        Map<Long, List<VariantLookup>> byProduct = new HashMap<>();
+        productVariantRepository.findLookupsByProductIdIn(productIds).forEach(variant ->
+                byProduct.computeIfAbsent(variant.getProductId(), id -> new ArrayList<>()).add(variant));
+        Map<StockLedger.Key, Integer> quantities = new HashMap<>();
+        for (StockReductionRequest.Line line : lines) {
+            VariantLookup variant = VariantResolver.resolve(line.getProductId(),
+                    byProduct.getOrDefault(line.getProductId(), List.of()),
+                    VariantLookup::getColor, VariantLookup::getSize, line.getColor(), line.getSize());
+            StockLedger.Key key = new StockLedger.Key(line.getProductId(),
+                    variant == null ? null : variant.getVariantId());
+            quantities.merge(key, line.getQuantity(), Integer::sum);
+        }
+        return quantities;
     }
 
     public Product updateProduct(Long id, ProductUpdateRequest request) {
@@ -90,7 +319,13 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(id));
 
         applyUpdates(existing, request);
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        productCache.invalidate(id);
+        stockLedger.invalidate(id);
+        searchIndex.index(saved);
+        suggester.upsertProduct(saved);
+        facetIndex.index(saved);
+        return saved;
     }
 
     /**
@@ -123,7 +358,63 @@ public class ProductService {
             product.setDiscountedPrice(discountedPrice);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.invalidate(productId);
+        return saved;
+    }
+
+    /**
+     * Applies one discount rate to every product matching the campaign's
+     * selector: the matching ids are resolved first, then one set-based
+     * UPDATE per IN chunk computes the discounted prices in the database.
+     *
+     * @throws IllegalArgumentException if no selector is set or the audience
+     *                                  is unknown
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public DiscountCampaignResult applyDiscountCampaign(DiscountCampaignRequest request) {
+        ProductSearchCriteria selector = toSelector(request);
+        List<Long> ids = new ArrayList<>(productRepository.searchIds(selector));
+        ids.sort(null);
+
+        double rate = request.getDiscountRate();
+        Instant now = Instant.now();
+        for (List<Long> chunk : ProductRepositoryCustomImpl.inChunks(ids)) {
+            if (rate > 0) {
+                productRepository.applyDiscount(chunk, rate, now);
+            } else {
+                productRepository.clearDiscount(chunk, now);
+            }
+        }
+        ids.forEach(productCache::invalidate);
+
+        return new DiscountCampaignResult(request.getDiscountRate(), ids, findSummariesByIdIn(ids));
+    }
+
+    private ProductSearchCriteria toSelector(DiscountCampaignRequest request) {
+        ProductSearchCriteria.ProductSearchCriteriaBuilder selector = ProductSearchCriteria.builder();
+        boolean selective = false;
+        if (request.getProductType() != null && !request.getProductType().isBlank()) {
+            selector.productType(request.getProductType().toLowerCase(java.util.Locale.ENGLISH));
+            selective = true;
+        }
+        if (request.getBrand() != null && !request.getBrand().isBlank()) {
+            selector.brand(request.getBrand().toLowerCase(java.util.Locale.ENGLISH));
+            selective = true;
+        }
+        if (request.getTargetAudience() != null && !request.getTargetAudience().isBlank()) {
+            selector.targetAudience(com.cs308.product.domain.enums.TargetAudience
+                    .valueOf(request.getTargetAudience().toUpperCase(java.util.Locale.ENGLISH)));
+            selective = true;
+        }
+        if (request.getProductIds() != null && !request.getProductIds().isEmpty()) {
+            selector.productIds(request.getProductIds());
+            selective = true;
+        }
+        if (!selective) {
+            throw new IllegalArgumentException("A discount campaign needs at least one selector");
+        }
+        return selector.build();
     }
 
     private void applyUpdates(Product target, ProductUpdateRequest request) {
@@ -134,6 +425,11 @@ public class ProductService {
             target.setPrice(request.getPrice());
         }
         if (request.getStock() != null) {
+            if (!target.getVariants().isEmpty()) {
+                // Kept as the sum of the variants' stock by the stock endpoints
+                throw new IllegalArgumentException("Stock of a product with variants is set per variant "
+                        + "(PUT /products/{id}/variants/{variantId}/stock)");
+            }
             target.setStock(request.getStock());
         }
         if (request.getModel() != null) {
@@ -197,14 +493,30 @@ public class ProductService {
                 Sort.by(Sort.Direction.ASC, "name"));
     }
 
+    /**
+     * Served from ProductCache; the returned product must not be modified.
+     */
     public Optional<Product> getById(Long id) {
-        return productRepository.findById(id);
+        return productCache.findById(id);
+    }
+
+    /**
+     * Typeahead suggestions (products, brands, categories) for a prefix.
+     */
+    public List<com.cs308.product.model.ProductSuggestion> suggest(String prefix, Integer limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    public ProductCache.Stats cacheStats() {
+        return productCache.stats();
     }
 
     /**
      * search(): applies filters and sorts.
-     * - Default sort (including "relevance") = Name A–Z.
+     * - Default sort = Name A–Z.
+     * - "relevance" with a q= ranks by ProductSearchIndex score; without q it is Name A–Z.
      * - "ratingDesc"/"ratingAsc" use custom ORDER BY that handles unrated products.
+     * - "effectivePriceAsc"/"effectivePriceDesc" order by the discounted price when set.
      */
     public List<Product> search(ProductFilterRequest filter) {
         // No filter object at all => just return all sorted A–Z
@@ -218,45 +530,16 @@ public class ProductService {
                 ? "nameAsc"
                 : filter.getSort();
 
-        String productType = null;
-        if (filter.getCategory() != null && !filter.getCategory().isBlank()) {
-            productType = filter.getCategory().toLowerCase();
-        }
-
-        com.cs308.product.domain.enums.TargetAudience targetAudience = null;
-        // Check targetAudience first, then fall back to gender for backward
-        // compatibility
-        String audienceStr = filter.getTargetAudience();
-        if (audienceStr == null || audienceStr.isBlank()) {
-            audienceStr = filter.getGender();
-        }
-        if (audienceStr != null && !audienceStr.isBlank()) {
-            try {
-                targetAudience = com.cs308.product.domain.enums.TargetAudience
-                        .valueOf(audienceStr.toUpperCase(java.util.Locale.ENGLISH));
-            } catch (IllegalArgumentException e) {
-                return List.of();
-            }
+        ProductSearchCriteria criteria = toCriteria(filter);
+        if (criteria == null) {
+            return List.of();
         }
 
-        com.cs308.product.domain.enums.Color color = null;
-        if (filter.getColor() != null && !filter.getColor().isBlank()) {
-            try {
-                color = com.cs308.product.domain.enums.Color
-                        .valueOf(filter.getColor().toUpperCase(java.util.Locale.ENGLISH));
-            } catch (IllegalArgumentException e) {
-                return List.of();
-            }
+        // Free-text queries are answered by the in-memory index once it is loaded
+        if (criteria.getQPattern() != null && indexCanAnswer(filter.getQ())) {
+            return searchIndexed(filter.getQ(), criteria, ProductSort.fromParam(sortParam));
         }
 
-        String qPattern = (filter.getQ() != null && !filter.getQ().isBlank())
-                ? "%" + filter.getQ().toLowerCase() + "%"
-                : null;
-
-        String descriptionPattern = (filter.getDescription() != null && !filter.getDescription().isBlank())
-                ? "%" + filter.getDescription().toLowerCase() + "%"
-                : null;
-
         // 🔥 Special handling for rating-based sorts:
         // - rated products first (reviewCount > 0)
         // - then unrated products (reviewCount == 0)
@@ -264,19 +547,33 @@ public class ProductService {
         if ("ratingDesc".equalsIgnoreCase(sortParam)) {
             // Highest rated → lowest, unrated last
             return productRepository.searchOrderByRatingDesc(
-                    qPattern,
-                    productType,
-                    targetAudience,
-                    color,
-                    descriptionPattern);
+                    criteria.getQPattern(),
+                    criteria.getProductType(),
+                    criteria.getTargetAudience(),
+                    criteria.getColor(),
+                    criteria.getDescriptionPattern(),
+                    criteria.getMinPrice(),
+                    criteria.getMaxPrice(),
+                    criteria.isInStock(),
+                    criteria.isOnSale());
         } else if ("ratingAsc".equalsIgnoreCase(sortParam)) {
             // Lowest rated → highest, unrated last
             return productRepository.searchOrderByRatingAsc(
-                    qPattern,
-                    productType,
-                    targetAudience,
-                    color,
-                    descriptionPattern);
+                    criteria.getQPattern(),
+                    criteria.getProductType(),
+                    criteria.getTargetAudience(),
+                    criteria.getColor(),
+                    criteria.getDescriptionPattern(),
+                    criteria.getMinPrice(),
+                    criteria.getMaxPrice(),
+                    criteria.isInStock(),
+                    criteria.isOnSale());
+        }
+
+        // Effective price is an expression, which Sort can't express
+        ProductSort productSort = ProductSort.fromParam(sortParam);
+        if (productSort == ProductSort.EFFECTIVE_PRICE_ASC || productSort == ProductSort.EFFECTIVE_PRICE_DESC) {
+            return productRepository.searchAll(criteria, productSort);
         }
 
         // --- All other sorts use the generic search() + Sort ---
@@ -292,7 +589,7 @@ public class ProductService {
         } else if ("popularity".equalsIgnoreCase(sortParam)) {
             sort = Sort.by(Sort.Direction.DESC, "salesCount");
         } else if ("nameAsc".equalsIgnoreCase(sortParam) || "relevance".equalsIgnoreCase(sortParam)) {
-            // A–Z (also used for "relevance")
+            // A–Z (also used for "relevance" when there is no text query)
             sort = Sort.by(Sort.Direction.ASC, "name");
         } else if ("nameDesc".equalsIgnoreCase(sortParam)) {
             // Z–A
@@ -303,22 +600,409 @@ public class ProductService {
         }
 
         return productRepository.search(
-                qPattern,
-                productType,
-                targetAudience,
-                color,
-                descriptionPattern,
+                criteria.getQPattern(),
+                criteria.getProductType(),
+                criteria.getTargetAudience(),
+                criteria.getColor(),
+                criteria.getDescriptionPattern(),
+                criteria.getMinPrice(),
+                criteria.getMaxPrice(),
+                criteria.isInStock(),
+                criteria.isOnSale(),
                 sort);
     }
 
+    /**
+     * Whether a free-text query goes to ProductSearchIndex. Queries that
+     * analyze to no terms (e.g. a single letter, which the index does not
+     * keep) or whose last term is a prefix of too many terms stay on the SQL
+     * LIKE path, which matches them as substrings.
+     */
+    private boolean indexCanAnswer(String q) {
+        return searchIndex.canAnswer(q);
+    }
+
+    /**
+     * search() for a free-text query: the index supplies candidate ids and
+     * scores, SQL applies the remaining filters. "relevance" orders by BM25
+     * score; the other sorts are still done by the database.
+     */
+    private List<Product> searchIndexed(String q, ProductSearchCriteria criteria, ProductSort sort) {
+        LinkedHashMap<Long, Double> ranked = searchIndex.search(q);
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        if (sort != ProductSort.RELEVANCE && ranked.size() > MAX_INDEXED_CANDIDATES) {
+            // Unselective query: an id list this long would not beat the LIKE scan
+            return productRepository.searchAll(criteria, sort);
+        }
+
+        ProductSearchCriteria indexed = withCandidates(criteria, ranked);
+        if (sort != ProductSort.RELEVANCE) {
+            return productRepository.searchAll(indexed, sort);
+        }
+
+        Map<Long, Integer> rank = new HashMap<>();
+        for (Long id : ranked.keySet()) {
+            rank.put(id, rank.size());
+        }
+        List<Product> products = new ArrayList<>(productRepository.searchAll(indexed, ProductSort.NAME_ASC));
+        products.sort(Comparator.comparing(p -> rank.get(p.getId())));
+        return products;
+    }
+
+    /**
+     * searchPage(): same filters and sort modes as search(), but returns one
+     * keyset page. The cursor encodes the last row's sort-key values, so each
+     * page is an index seek + LIMIT regardless of how deep the client is.
+     */
+    public ProductPage<Product> searchPage(ProductFilterRequest filter) {
+        PageQuery page = resolvePage(filter, true);
+        if (page == null) {
+            return new ProductPage<>(List.of(), null);
+        }
+        if (page.sort() == ProductSort.RELEVANCE) {
+            return relevancePage(page, this::findAllByIdIn, Product::getId);
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        int limit = page.limit();
+        List<Product> rows = productRepository.searchPage(page.criteria(), page.sort(), page.after(), limit + 1);
+        if (rows.size() <= limit) {
+            return new ProductPage<>(rows, null);
+        }
+        List<Product> items = new ArrayList<>(rows.subList(0, limit));
+        String nextCursor = ProductCursor.after(page.sort(), items.get(limit - 1)).encode();
+        return new ProductPage<>(items, nextCursor);
+    }
+
+    /**
+     * Listing tiles (?view=summary): same filters, sorts and cursors as
+     * search()/searchPage(), projected to ProductSummary by a constructor
+     * query, so no TEXT columns or collections are loaded. Unpaged requests
+     * return every match with a null cursor.
+     */
+    public ProductPage<ProductSummary> searchSummaries(ProductFilterRequest filter) {
+        boolean paged = filter != null && filter.isPaged();
+        PageQuery page = resolvePage(filter, paged);
+        if (page == null) {
+            return new ProductPage<>(List.of(), null);
+        }
+        if (page.sort() == ProductSort.RELEVANCE) {
+            return relevancePage(page, this::findSummariesByIdIn, ProductSummary::getId);
+        }
+
+        List<ProductRepositoryCustom.SummaryRow> rows = productRepository.searchSummaries(
+                page.criteria(), page.sort(), page.after(), paged ? page.limit() + 1 : null);
+        List<ProductSummary> summaries = rows.stream().map(ProductRepositoryCustom.SummaryRow::summary).toList();
+        if (!paged || rows.size() <= page.limit()) {
+            return new ProductPage<>(summaries, null);
+        }
+        List<Object> last = rows.get(page.limit() - 1).sortValues();
+        return new ProductPage<>(summaries.subList(0, page.limit()),
+                ProductCursor.of(page.sort(), last).encode());
+    }
+
+    /**
+     * Parsed paging request: criteria (with index candidates already swapped
+     * in), effective sort, seek values and page size. Null means "no results".
+     */
+    private record PageQuery(ProductSearchCriteria criteria, ProductSort sort, LinkedHashMap<Long, Double> ranked,
+            List<Object> after, int limit) {
+    }
+
+    private PageQuery resolvePage(ProductFilterRequest filter, boolean paged) {
+        ProductFilterRequest effective = filter != null ? filter : new ProductFilterRequest();
+        ProductSearchCriteria criteria = toCriteria(effective);
+        if (criteria == null) {
+            return null;
+        }
+
+        LinkedHashMap<Long, Double> ranked = null;
+        if (criteria.getQPattern() != null && indexCanAnswer(effective.getQ())) {
+            ranked = searchIndex.search(effective.getQ());
+            if (ranked.isEmpty()) {
+                return null;
+            }
+        }
+
+        ProductSort sort = ProductSort.fromParam(effective.getSort());
+        if (sort == ProductSort.RELEVANCE && ranked == null) {
+            // Without a text query there is nothing to rank by => Name A–Z
+            sort = ProductSort.NAME_ASC;
+        }
+
+        List<Object> after = null;
+        if (effective.getCursor() != null && !effective.getCursor().isBlank()) {
+            ProductCursor cursor = ProductCursor.decode(effective.getCursor());
+            if (cursor.getSort() != sort) {
+                throw new InvalidCursorException("Cursor was issued for a different sort order");
+            }
+            after = cursor.getValues();
+        }
+
+        int limit;
+        if (!paged) {
+            limit = Integer.MAX_VALUE - 1;
+        } else if (effective.getLimit() == null) {
+            limit = DEFAULT_PAGE_SIZE;
+        } else {
+            limit = Math.max(1, Math.min(effective.getLimit(), MAX_PAGE_SIZE));
+        }
+
+        if (sort == ProductSort.RELEVANCE || (ranked != null && ranked.size() <= MAX_INDEXED_CANDIDATES)) {
+            criteria = withCandidates(criteria, ranked);
+        }
+        return new PageQuery(criteria, sort, ranked, after, limit);
+    }
+
+    /**
+     * Relevance page: ranking happens in memory, SQL only tells which of the
+     * ranked candidates pass the other filters. The cursor is (score, id).
+     */
+    private <T> ProductPage<T> relevancePage(PageQuery page, Function<List<Long>, List<T>> loader,
+            Function<T, Long> idOf) {
+        Set<Long> allowed = new HashSet<>(productRepository.searchIds(page.criteria()));
+        List<Object> after = page.after();
+        int limit = page.limit();
+        Double afterScore = after != null ? (Double) after.get(0) : null;
+        Long afterId = after != null ? (Long) after.get(1) : null;
+
+        List<Map.Entry<Long, Double>> window = new ArrayList<>();
+        for (Map.Entry<Long, Double> entry : page.ranked().entrySet()) {
+            if (!allowed.contains(entry.getKey())) {
+                continue;
+            }
+            if (afterScore != null) {
+                int byScore = Double.compare(entry.getValue(), afterScore);
+                if (byScore > 0 || (byScore == 0 && entry.getKey() <= afterId)) {
+                    continue;
+                }
+            }
+            window.add(entry);
+            if (window.size() > limit) {
+                break;
+            }
+        }
+
+        List<Map.Entry<Long, Double>> pageEntries = window.subList(0, Math.min(limit, window.size()));
+        Map<Long, T> byId = new HashMap<>();
+        loader.apply(pageEntries.stream().map(Map.Entry::getKey).toList())
+                .forEach(item -> byId.put(idOf.apply(item), item));
+        List<T> items = pageEntries.stream()
+                .map(e -> byId.get(e.getKey()))
+                .filter(Objects::nonNull)
+                .toList();
+
+        String nextCursor = null;
+        if (window.size() > limit) {
+            Map.Entry<Long, Double> last = pageEntries.get(pageEntries.size() - 1);
+            nextCursor = ProductCursor.of(ProductSort.RELEVANCE, List.of(last.getValue(), last.getKey())).encode();
+        }
+        return new ProductPage<>(items, nextCursor);
+    }
+
+    private List<Product> findAllByIdIn(List<Long> ids) {
+        return productRepository.findAllById(ids);
+    }
+
+    private List<ProductSummary> findSummariesByIdIn(List<Long> ids) {
+        // Unpaged relevance can ask for up to MAX_INDEXED_CANDIDATES ids
+        List<ProductSummary> summaries = new ArrayList<>();
+        for (List<Long> chunk : ProductRepositoryCustomImpl.inChunks(ids)) {
+            summaries.addAll(productRepository.findSummariesByIdIn(chunk));
+        }
+        return summaries;
+    }
+
+    /**
+     * facets(): result count and per-value counts (productType, audience,
+     * color, season, fit) for the same filters search() takes. Enum filters
+     * are answered by ProductFacetIndex; only a description, price or stock
+     * filter, or q before the text index is loaded, goes to the database for
+     * candidate ids.
+     */
+    public ProductFacets facets(ProductFilterRequest filter) {
+        ProductFilterRequest effective = filter != null ? filter : new ProductFilterRequest();
+        ProductSearchCriteria criteria = toCriteria(effective);
+        if (criteria == null) {
+            return ProductFacets.empty();
+        }
+        if (!facetIndex.isReady()) {
+            throw new FacetsUnavailableException("Facet index is still loading");
+        }
+
+        Collection<Long> candidates = null;
+        String qPattern = criteria.getQPattern();
+        if (qPattern != null && indexCanAnswer(effective.getQ())) {
+            LinkedHashMap<Long, Double> ranked = searchIndex.search(effective.getQ());
+            if (ranked.isEmpty()) {
+                return ProductFacets.empty();
+            }
+            if (ranked.size() <= MAX_INDEXED_CANDIDATES || criteria.getDescriptionPattern() == null) {
+                candidates = ranked.keySet();
+                qPattern = null;
+            }
+        }
+        if (qPattern != null || criteria.getDescriptionPattern() != null || criteria.hasRangeFilters()) {
+            candidates = productRepository.searchIds(ProductSearchCriteria.builder()
+                    .qPattern(qPattern)
+                    .descriptionPattern(criteria.getDescriptionPattern())
+                    .minPrice(criteria.getMinPrice())
+                    .maxPrice(criteria.getMaxPrice())
+                    .inStock(criteria.isInStock())
+                    .onSale(criteria.isOnSale())
+                    .productIds(candidates)
+                    .build());
+        }
+
+        return facetIndex.facets(criteria.toBuilder()
+                .qPattern(null)
+                .descriptionPattern(null)
+                .minPrice(null)
+                .maxPrice(null)
+                .inStock(false)
+                .onSale(false)
+                .productIds(candidates)
+                .build());
+    }
+
+    /**
+     * Swaps the LIKE pattern for the index hits (best MAX_INDEXED_CANDIDATES).
+     */
+    private ProductSearchCriteria withCandidates(ProductSearchCriteria criteria, LinkedHashMap<Long, Double> ranked) {
+        List<Long> ids = ranked.keySet().stream().limit(MAX_INDEXED_CANDIDATES).toList();
+        return criteria.toBuilder()
+                .qPattern(null)
+                .productIds(ids)
+                .build();
+    }
+
+    /**
+     * Normalizes the raw request parameters into repository criteria.
+     * Returns null when an enum filter has an unknown value or the price range
+     * is empty (=> empty result).
+     */
+    private ProductSearchCriteria toCriteria(ProductFilterRequest filter) {
+        String productType = null;
+        if (filter.getCategory() != null && !filter.getCategory().isBlank()) {
+            productType = filter.getCategory().toLowerCase();
+        }
+
+        com.cs308.product.domain.enums.TargetAudience targetAudience = null;
+        // Check targetAudience first, then fall back to gender for backward
+        // compatibility
+        String audienceStr = filter.getTargetAudience();
+        if (audienceStr == null || audienceStr.isBlank()) {
+            audienceStr = filter.getGender();
+        }
+        if (audienceStr != null && !audienceStr.isBlank()) {
+            try {
+                targetAudience = com.cs308.product.domain.enums.TargetAudience
+                        .valueOf(audienceStr.toUpperCase(java.util.Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        com.cs308.product.domain.enums.Color color = null;
+        if (filter.getColor() != null && !filter.getColor().isBlank()) {
+            try {
+                color = com.cs308.product.domain.enums.Color
+                        .valueOf(filter.getColor().toUpperCase(java.util.Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        String qPattern = (filter.getQ() != null && !filter.getQ().isBlank())
+                ? "%" + filter.getQ().toLowerCase() + "%"
+                : null;
+
+        String descriptionPattern = (filter.getDescription() != null && !filter.getDescription().isBlank())
+                ? "%" + filter.getDescription().toLowerCase() + "%"
+                : null;
+
+        Double minPrice = filter.getMinPrice();
+        Double maxPrice = filter.getMaxPrice();
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            return null;
+        }
+
+        return ProductSearchCriteria.builder()
+                .qPattern(qPattern)
+                .productType(productType)
+                .targetAudience(targetAudience)
+                .color(color)
+                .descriptionPattern(descriptionPattern)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(Boolean.TRUE.equals(filter.getInStock()))
+                .onSale(Boolean.TRUE.equals(filter.getOnSale()))
+                .build();
+    }
+
     @org.springframework.transaction.annotation.Transactional
     public void delete(Long id) {
-        // Manually cascade delete dependent items
-        cartItemRepository.deleteByProductId(id);
-        wishlistItemRepository.deleteByProductId(id);
-        orderItemRepository.deleteByProductId(id);
-        reviewRepository.deleteByProductId(id);
+        deleteAll(List.of(id));
+    }
 
-        productRepository.deleteById(id);
+    /**
+     * Deletes the products and everything that references them in one
+     * transaction, with one DELETE ... WHERE product_id IN (...) per table
+     * and chunk, and leaves a tombstone per product for the change feed.
+     * Unknown ids are ignored.
+     *
+     * @return the number of products deleted
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public int deleteAll(Collection<Long> productIds) {
+        // Sorted, so concurrent deletions lock rows in the same order
+        List<Long> ids = new ArrayList<>(new TreeSet<>(productIds));
+        Instant now = Instant.now();
+        int deleted = 0;
+        for (List<Long> chunk : ProductRepositoryCustomImpl.inChunks(ids)) {
+            // Manually cascade delete dependent items
+            cartItemRepository.deleteByProductIdIn(chunk);
+            wishlistItemRepository.deleteByProductIdIn(chunk);
+            orderItemRepository.deleteByProductIdIn(chunk);
+            reviewRepository.deleteByProductIdIn(chunk);
+            productRepository.deleteImagesOf(chunk);
+            productRepository.deleteVariantsOf(chunk);
+            productTombstoneRepository.recordDeletes(chunk, now);
+            deleted += productRepository.deleteAllByIdIn(chunk);
+        }
+
+        ids.forEach(id -> {
+            productCache.invalidate(id);
+            stockLedger.invalidate(id);
+        });
+        afterCommit(() -> {
+            recentReviewFeed.productsRemoved(ids);
+            ids.forEach(id -> {
+                searchIndex.remove(id);
+                suggester.removeProduct(id);
+                facetIndex.remove(id);
+                variantIndex.removeProduct(id);
+            });
+        });
+        return deleted;
+    }
+
+    /**
+     * Runs the action once the surrounding transaction has committed (or right
+     * away when there is none), so in-memory structures never see rolled-back writes.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
@@ -0,0 +1,200 @@
+package com.cs308.product.service;
+
+import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.RatingAggregateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesces rating updates under review bursts. A committed review only marks
+ * its product dirty and adds its star to an in-memory pending delta; a
+ * dedicated thread applies each dirty product's combined delta once per
+ * window with one ProductRepository.applyRatingDelta() UPDATE, whose cost
+ * does not grow with the product's reviews. A viral product therefore takes
+ * one constant-time row write per window instead of one per review, and the
+ * review transaction never locks the product row.
+ *
+ * A resync (ReviewService.resyncRatings) can overlap with pending deltas. It
+ * records the highest review id it counted on the product, and a delta that
+ * reaches down to that watermark is not added; the product is recomputed from
+ * its reviews instead (RatingAggregateRepository.resyncProduct), so no review
+ * is counted twice.
+ *
+ * averageRating lags by at most one window (sub-second by default). Pending
+ * deltas are lost on a crash; the startup rating resync repairs those
+ * products because their reviews are newer than its checkpoint.
+ */
+@Slf4j
+@Component
+public class RatingRecomputeScheduler {
+
+    private final ProductRepository productRepository;
+    private final RatingAggregateRepository ratingAggregateRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate transaction;
+    private final Duration window;
+    private final LongSupplier clock;
+    private ScheduledExecutorService executor;
+
+    // productId -> pending change: [0] = rating sum, [1..5] = per-star counts,
+    // [6] = lowest review id. Arrays are only touched inside compute()/remove(),
+    // which lock the entry.
+    private final Map<Long, long[]> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder marked = new LongAdder();
+    private final LongAdder recomputes = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder recomputeNanos = new LongAdder();
+    private final AtomicLong maxRecomputeNanos = new AtomicLong();
+
+    @Autowired
+    public RatingRecomputeScheduler(ProductRepository productRepository,
+            RatingAggregateRepository ratingAggregateRepository, ProductCache productCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${product.rating-recompute.window:500ms}") Duration window) {
+        this(productRepository, ratingAggregateRepository, productCache, transactionManager, window,
+                System::nanoTime);
+    }
+
+    RatingRecomputeScheduler(ProductRepository productRepository, RatingAggregateRepository ratingAggregateRepository,
+            ProductCache productCache, PlatformTransactionManager transactionManager, Duration window,
+            LongSupplier clock) {
+        this.productRepository = productRepository;
+        this.ratingAggregateRepository = ratingAggregateRepository;
+        this.productCache = productCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rating-recompute");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = window.toMillis();
+        executor.scheduleWithFixedDelay(this::recomputeDirty, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        recomputeDirty();
+    }
+
+    /**
+     * Records a new rating once the surrounding transaction commits (right
+     * away when there is none), so rolled-back reviews are never counted.
+     */
+    public void ratingAdded(Long productId, Long reviewId, int rating) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markDirty(productId, reviewId, rating);
+                }
+            });
+        } else {
+            markDirty(productId, reviewId, rating);
+        }
+    }
+
+    /**
+     * Applies the pending delta of every dirty product, one short transaction
+     * per product. A failed product keeps its delta for the next window.
+     */
+    void recomputeDirty() {
+        for (Long productId : new ArrayList<>(pending.keySet())) {
+            long[] delta = pending.remove(productId);
+            if (delta == null) {
+                continue;
+            }
+            long started = clock.getAsLong();
+            try {
+                transaction.executeWithoutResult(status -> apply(productId, delta));
+                productCache.invalidate(productId);
+                recomputes.increment();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Rating recompute for product {} failed; retrying next window", productId, e);
+                pending.merge(productId, delta, RatingRecomputeScheduler::add);
+            } finally {
+                long elapsed = clock.getAsLong() - started;
+                recomputeNanos.add(elapsed);
+                maxRecomputeNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        }
+    }
+
+    public Stats stats() {
+        long count = recomputes.sum() + failures.sum();
+        return new Stats(pending.size(), marked.sum(), recomputes.sum(), fallbacks.sum(), failures.sum(),
+                count == 0 ? 0.0 : recomputeNanos.sum() / 1e6 / count,
+                maxRecomputeNanos.get() / 1e6);
+    }
+
+    private void apply(Long productId, long[] delta) {
+        int applied = productRepository.applyRatingDelta(productId, delta[6], delta[0],
+                delta[1] + delta[2] + delta[3] + delta[4] + delta[5],
+                delta[1], delta[2], delta[3], delta[4], delta[5], Instant.now());
+        if (applied == 0) {
+            // A resync got to some of these reviews first (or the product is gone)
+            ratingAggregateRepository.resyncProduct(productId);
+            fallbacks.increment();
+        }
+    }
+
+    private void markDirty(Long productId, Long reviewId, int rating) {
+        marked.increment();
+        pending.compute(productId, (id, delta) -> {
+            long[] next = delta == null ? new long[] { 0, 0, 0, 0, 0, 0, Long.MAX_VALUE } : delta;
+            next[0] += rating;
+            next[rating]++;
+            next[6] = Math.min(next[6], reviewId);
+            return next;
+        });
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = new long[a.length];
+        for (int i = 0; i < 6; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        sum[6] = Math.min(a[6], b[6]);
+        return sum;
+    }
+
+    /**
+     * Coalescing counters: {@code marked} rating writes were folded into
+     * {@code recomputes} product updates, {@code fallbacks} of which had to
+     * recompute from the reviews because a resync overlapped.
+     */
+    public record Stats(int dirty, long marked, long recomputes, long fallbacks, long failures,
+            double avgRecomputeMillis, double maxRecomputeMillis) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.cs308.product.service;
+
+import com.cs308.product.model.ReviewResponse;
+import com.cs308.product.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The home page's "recent reviews" widget: the newest approved reviews that
+ * still have a comment, kept in memory so serving it does no database work.
+ *
+ * The entries sit in a small buffer bounded to {@link #SIZE} and ordered like
+ * the query it replaces (newest submission first). Readers get a prebuilt
+ * immutable list through a volatile field and never lock. Moderation updates
+ * the buffer once its transaction commits: a single approval is inserted in
+ * place, while removals and bulk changes reload it with the original query,
+ * as the buffer cannot know which older review moves up to fill the gap.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecentReviewFeed {
+
+    static final int SIZE = 10;
+
+    private static final Comparator<ReviewResponse> NEWEST_FIRST = Comparator
+            .comparing(ReviewResponse::getCreatedAt)
+            .thenComparing(ReviewResponse::getId)
+            .reversed();
+
+    private final ReviewRepository reviewRepository;
+
+    // Guarded by this; newest first, at most SIZE entries
+    private final List<ReviewResponse> buffer = new ArrayList<>(SIZE + 1);
+    // Null until the first load
+    private volatile List<ReviewResponse> snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reload();
+    }
+
+    public List<ReviewResponse> recent() {
+        List<ReviewResponse> recent = snapshot;
+        if (recent == null) {
+            reload();
+            recent = snapshot;
+        }
+        return recent;
+    }
+
+    /**
+     * A review was approved. Only reviews with a comment are shown, and only
+     * if they are newer than the oldest entry of a full buffer.
+     */
+    public void approved(ReviewResponse review) {
+        if (review.getComment() != null) {
+            afterCommit(() -> insert(review));
+        }
+    }
+
+    /**
+     * A review was deleted or lost its comment.
+     */
+    public void removed(Long reviewId) {
+        afterCommit(() -> {
+            if (contains(entry -> entry.getId().equals(reviewId))) {
+                reload();
+            }
+        });
+    }
+
+    /**
+     * All reviews of the products were deleted.
+     */
+    public void productsRemoved(Collection<Long> productIds) {
+        Set<Long> removed = Set.copyOf(productIds);
+        afterCommit(() -> {
+            if (contains(entry -> removed.contains(entry.getProductId()))) {
+                reload();
+            }
+        });
+    }
+
+    /**
+     * Many reviews changed at once (bulk moderation).
+     */
+    public void changed() {
+        afterCommit(this::reload);
+    }
+
+    /**
+     * Refills the buffer from the database. Runs under the lock, query
+     * included, so an insert cannot land in between and be overwritten.
+     */
+    synchronized void reload() {
+        buffer.clear();
+        reviewRepository.findTop10ByApprovedTrueAndCommentIsNotNullOrderByCreatedAtDesc()
+                .forEach(review -> buffer.add(ReviewService.toResponse(review)));
+        publish();
+        log.debug("Loaded {} recent reviews", buffer.size());
+    }
+
+    private synchronized void insert(ReviewResponse review) {
+        if (snapshot == null) {
+            // Not loaded yet; the first load will find it
+            return;
+        }
+        buffer.removeIf(entry -> entry.getId().equals(review.getId()));
+        int position = Collections.binarySearch(buffer, review, NEWEST_FIRST);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position >= SIZE) {
+            return;
+        }
+        buffer.add(position, review);
+        if (buffer.size() > SIZE) {
+            buffer.remove(SIZE);
+        }
+        publish();
+    }
+
+    private synchronized boolean contains(Predicate<ReviewResponse> match) {
+        return buffer.stream().anyMatch(match);
+    }
+
+    private void publish() {
+        snapshot = List.copyOf(buffer);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.cs308.product.service;
+
+public class ReservationMismatchException extends RuntimeException {
+    public ReservationMismatchException(String id) {
+        super("Reservation " + id + " does not hold the lines of this order");
+    }
+}
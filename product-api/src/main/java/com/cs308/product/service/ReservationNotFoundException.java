@@ -0,0 +1,7 @@
+package com.cs308.product.service;
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String id) {
+        super("Reservation not found or expired: " + id);
+    }
+}
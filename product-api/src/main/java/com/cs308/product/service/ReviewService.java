@@ -2,17 +2,32 @@ package com.cs308.product.service;
 
 import com.cs308.product.domain.Product;
 import com.cs308.product.domain.Review;
+import com.cs308.product.domain.SyncCheckpoint;
 import com.cs308.product.model.CreateReviewRequest;
+import com.cs308.product.model.ReviewCursor;
+import com.cs308.product.model.ReviewModerationResult;
+import com.cs308.product.model.ReviewPage;
 import com.cs308.product.model.ReviewResponse;
 import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.RatingAggregateRepository;
 import com.cs308.product.repository.ReviewRepository;
+import com.cs308.product.repository.SyncCheckpointRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,8 +35,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ReviewService {
 
+    static final String RATING_SYNC_CHECKPOINT = "rating-sync";
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final RatingAggregateRepository ratingAggregateRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+    private final RatingRecomputeScheduler ratingRecomputeScheduler;
+    private final RecentReviewFeed recentReviewFeed;
 
     // ... (Your existing addReview, getApprovedReviews, etc. methods remain here)
     // ...
@@ -57,7 +81,7 @@ public class ReviewService {
 
         // Update product rating only if rating was provided
         if (hasRating) {
-            recalculateProductRating(saved.getProductId());
+            ratingRecomputeScheduler.ratingAdded(saved.getProductId(), saved.getId(), saved.getRating());
         }
 
         return toResponse(saved);
@@ -66,28 +90,104 @@ public class ReviewService {
     public List<ReviewResponse> getApprovedReviews(Long productId) {
         // Return all reviews that have ratings (ratings are always visible immediately)
         // But hide comments if not approved yet
-        return reviewRepository.findByProductIdOrderByCreatedAtDesc(productId)
+        return reviewRepository.findByProductIdAndRatingIsNotNullOrderByCreatedAtDesc(productId)
                 .stream()
-                .filter(r -> r.getRating() != null) // Only show reviews that have ratings
-                .map(review -> {
-                    ReviewResponse response = toResponse(review);
-                    // Hide comment if not approved
-                    if (!review.isApproved()) {
-                        response.setComment(null);
-                    }
-                    return response;
-                })
+                .map(this::toPublicResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of getApprovedReviews(), newest first.
+     *
+     * @param cursor token from the previous page, or null for the first page
+     * @param limit  page size, clamped to 1..MAX_PAGE_SIZE (default DEFAULT_PAGE_SIZE)
+     */
+    public ReviewPage getApprovedReviewsPage(Long productId, String cursor, Integer limit) {
+        return page(cursor, limit,
+                size -> reviewRepository.findRatedPage(productId, size),
+                (after, size) -> reviewRepository.findRatedPageAfter(productId, after.getCreatedAt(),
+                        after.getId(), size),
+                this::toPublicResponse);
+    }
+
     public List<ReviewResponse> getAllReviews(Long productId) {
         return reviewRepository.findByProductIdOrderByCreatedAtDesc(productId)
-                .stream().map(this::toResponse).collect(Collectors.toList());
+                .stream().map(ReviewService::toResponse).collect(Collectors.toList());
+    }
+
+    /**
+     * One page of getAllReviews(), newest first.
+     */
+    public ReviewPage getAllReviewsPage(Long productId, String cursor, Integer limit) {
+        return page(cursor, limit,
+                size -> reviewRepository.findPage(productId, size),
+                (after, size) -> reviewRepository.findPageAfter(productId, after.getCreatedAt(), after.getId(), size),
+                ReviewService::toResponse);
+    }
+
+    /**
+     * Fetches one row more than requested to learn whether a next page exists.
+     */
+    private ReviewPage page(String cursor, Integer limit, Function<Limit, List<Review>> first,
+            BiFunction<ReviewCursor, Limit, List<Review>> after, Function<Review, ReviewResponse> mapper) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Limit fetch = Limit.of(size + 1);
+        List<Review> rows = cursor == null || cursor.isBlank()
+                ? first.apply(fetch)
+                : after.apply(ReviewCursor.decode(cursor), fetch);
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = ReviewCursor.after(rows.get(size - 1)).encode();
+        }
+        return new ReviewPage(rows.stream().map(mapper).toList(), nextCursor);
     }
 
     public List<ReviewResponse> getPendingReviews() {
         return reviewRepository.findByApprovedFalseOrderByCreatedAtAsc()
-                .stream().map(this::toResponse).collect(Collectors.toList());
+                .stream().map(ReviewService::toResponse).collect(Collectors.toList());
+    }
+
+    /**
+     * One page of the moderation queue, oldest first.
+     */
+    public ReviewPage getPendingReviewsPage(String cursor, Integer limit) {
+        return page(cursor, limit,
+                reviewRepository::findPendingPage,
+                (after, size) -> reviewRepository.findPendingPageAfter(after.getCreatedAt(), after.getId(), size),
+                ReviewService::toResponse);
+    }
+
+    /**
+     * Approves many reviews with one UPDATE. Approval never changes a
+     * product's set of ratings, so no rating work is needed.
+     */
+    @Transactional
+    public ReviewModerationResult approveReviews(Collection<Long> reviewIds) {
+        int approved = reviewRepository.approveAll(new TreeSet<>(reviewIds), Instant.now());
+        if (approved > 0) {
+            recentReviewFeed.changed();
+        }
+        log.info("Bulk-approved {} of {} reviews", approved, reviewIds.size());
+        return new ReviewModerationResult(approved, 0);
+    }
+
+    /**
+     * Bulk disapproveReview(): rated reviews lose their comment and keep the
+     * rating, comment-only reviews are deleted; one statement each. Neither
+     * changes a product's ratings.
+     */
+    @Transactional
+    public ReviewModerationResult disapproveReviews(Collection<Long> reviewIds) {
+        Set<Long> ids = new TreeSet<>(reviewIds);
+        int cleared = reviewRepository.clearCommentsOf(ids, Instant.now());
+        int deleted = reviewRepository.deleteUnratedIn(ids);
+        if (cleared + deleted > 0) {
+            recentReviewFeed.changed();
+        }
+        log.info("Bulk-disapproved {} reviews: {} comments removed, {} deleted", reviewIds.size(), cleared, deleted);
+        return new ReviewModerationResult(cleared, deleted);
     }
 
     @Transactional
@@ -97,17 +197,17 @@ public class ReviewService {
         review.setApproved(true);
         Review saved = reviewRepository.save(review);
 
-        // Update product table
-        recalculateProductRating(saved.getProductId());
-
-        return toResponse(saved);
+        // Ratings count from the moment they are submitted, so approving the
+        // comment leaves the product's rating aggregates unchanged
+        ReviewResponse response = toResponse(saved);
+        recentReviewFeed.approved(response);
+        return response;
     }
 
     @Transactional
     public void disapproveReview(Long reviewId) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new IllegalArgumentException("Review not found"));
-        Long productId = review.getProductId();
 
         // If review has a rating, only clear the comment and approve it (rating stays)
         // If review has no rating (comment-only), delete the entire review
@@ -122,17 +222,36 @@ public class ReviewService {
             reviewRepository.delete(review);
             log.info("Deleted review {} (no rating)", reviewId);
         }
-
-        // Update product table
-        recalculateProductRating(productId);
+        recentReviewFeed.removed(reviewId);
+        // Either way the product's set of ratings is unchanged, and so are its
+        // rating aggregates
     }
 
     public Double getAverageRating(Long productId) {
-        return reviewRepository.calculateAverageRating(productId);
+        return productCache.findById(productId)
+                .map(Product::getAverageRating)
+                .orElseGet(() -> reviewRepository.calculateAverageRating(productId));
     }
 
     public long getReviewCount(Long productId) {
-        return reviewRepository.countByProductIdAndRatingIsNotNull(productId);
+        return productCache.findById(productId)
+                .map(Product::getReviewCount)
+                .orElseGet(() -> reviewRepository.countByProductIdAndRatingIsNotNull(productId));
+    }
+
+    /**
+     * Number of 1..5 star ratings of the product, keyed by star.
+     */
+    public Map<Integer, Long> getRatingHistogram(Long productId) {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        productCache.findById(productId).ifPresent(product -> {
+            histogram.put(1, nullToZero(product.getRating1Count()));
+            histogram.put(2, nullToZero(product.getRating2Count()));
+            histogram.put(3, nullToZero(product.getRating3Count()));
+            histogram.put(4, nullToZero(product.getRating4Count()));
+            histogram.put(5, nullToZero(product.getRating5Count()));
+        });
+        return histogram;
     }
 
     public long getApprovedCommentCount(Long productId) {
@@ -140,51 +259,109 @@ public class ReviewService {
     }
 
     /**
-     * Get recent approved reviews with comments for home page
+     * Get recent approved reviews with comments for home page. Served from
+     * memory; the returned list is immutable.
      */
     public List<ReviewResponse> getRecentApprovedReviews() {
-        return reviewRepository.findTop10ByApprovedTrueAndCommentIsNotNullOrderByCreatedAtDesc()
-                .stream().map(this::toResponse).collect(Collectors.toList());
+        return recentReviewFeed.recent();
+    }
+
+    public RatingRecomputeScheduler.Stats ratingRecomputeStats() {
+        return ratingRecomputeScheduler.stats();
     }
 
     /**
-     * Helper: Updates the Product entity with latest stats from Review table.
+     * Helper: Rebuilds the Product's rating aggregates from the Review table.
+     * Only needed to repair drift; new ratings go through
+     * RatingRecomputeScheduler.
      */
     @Transactional
     public void recalculateProductRating(Long productId) {
-        Double avg = reviewRepository.calculateAverageRating(productId);
-        long count = reviewRepository.countByProductIdAndRatingIsNotNull(productId);
+        long[] stars = new long[6];
+        for (Object[] row : reviewRepository.countRatingsByStar(productId)) {
+            stars[(Integer) row[0]] = (Long) row[1];
+        }
 
         productRepository.findById(productId).ifPresent(product -> {
-            // Handle nulls safely
-            double safeAvg = (avg != null) ? avg : 0.0;
-            product.setAverageRating(safeAvg);
-            product.setReviewCount(count);
+            applyHistogram(product, stars);
             productRepository.save(product);
-            log.info("Synced rating for Product {}: Avg={}, Count={}", productId, safeAvg, count);
+            productCache.invalidate(productId);
+            log.info("Synced rating for Product {}: Avg={}, Count={}", productId,
+                    product.getAverageRating(), product.getReviewCount());
         });
     }
 
     /**
      * 🟢 NEW: Run this once to fix your database sorting
      */
-    // In ReviewService.java
-
     @Transactional
     public void syncAllRatings() {
-        List<Product> allProducts = productRepository.findAll();
-        for (Product product : allProducts) {
-            Double avg = reviewRepository.calculateAverageRating(product.getId());
-            long count = reviewRepository.countByProductIdAndApprovedTrue(product.getId());
-
-            // Handle NULLs from DB
-            product.setAverageRating(avg != null ? avg : 0.0);
-            product.setReviewCount(count);
-            productRepository.save(product);
+        resyncRatings(false);
+    }
+
+    /**
+     * Rebuilds the products' rating aggregates with set-based UPDATEs and
+     * records the run as a checkpoint.
+     *
+     * @param onlyChanged limit the run to products with reviews written since
+     *                    the previous run's start; a full run is done when
+     *                    there has been none
+     * @return number of product rows that had to be corrected
+     */
+    @Transactional
+    public int resyncRatings(boolean onlyChanged) {
+        // Taken before the UPDATE, so reviews written during the run are
+        // picked up again by the next one
+        Instant startedAt = Instant.now();
+        Optional<SyncCheckpoint> previous = onlyChanged
+                ? syncCheckpointRepository.findById(RATING_SYNC_CHECKPOINT)
+                : Optional.empty();
+
+        int corrected = previous
+                .map(checkpoint -> ratingAggregateRepository.resyncChangedSince(checkpoint.getSyncedAt()))
+                .orElseGet(ratingAggregateRepository::resyncAll);
+        syncCheckpointRepository.save(new SyncCheckpoint(RATING_SYNC_CHECKPOINT, startedAt));
+
+        if (corrected > 0) {
+            productCache.invalidateAll();
+        }
+        log.info("Rating resync ({}) corrected {} products", previous.isPresent() ? "changed only" : "full",
+                corrected);
+        return corrected;
+    }
+
+    // stars[i] = number of i-star ratings (index 0 unused)
+    private static void applyHistogram(Product product, long[] stars) {
+        long count = 0;
+        long sum = 0;
+        for (int star = 1; star <= 5; star++) {
+            count += stars[star];
+            sum += star * stars[star];
+        }
+        product.setRating1Count(stars[1]);
+        product.setRating2Count(stars[2]);
+        product.setRating3Count(stars[3]);
+        product.setRating4Count(stars[4]);
+        product.setRating5Count(stars[5]);
+        product.setRatingSum(sum);
+        product.setReviewCount(count);
+        product.setAverageRating(count > 0 ? (double) sum / count : 0.0);
+    }
+
+    private static long nullToZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    // Ratings are public right away; the comment only once it is approved
+    private ReviewResponse toPublicResponse(Review review) {
+        ReviewResponse response = toResponse(review);
+        if (!review.isApproved()) {
+            response.setComment(null);
         }
+        return response;
     }
 
-    private ReviewResponse toResponse(Review review) {
+    static ReviewResponse toResponse(Review review) {
         return ReviewResponse.builder()
                 .id(review.getId())
                 .productId(review.getProductId())
@@ -0,0 +1,104 @@
+package com.cs308.product.service;
+
+import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.StockRepository;
+import com.cs308.product.search.ProductSuggester;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind salesCount. Checkout only adds to a per-product LongAdder;
+ * a scheduled flush writes all pending increments in one batched UPDATE, so
+ * popularity bookkeeping never takes a row lock on the checkout path and the
+ * popularity sort is at most one flush interval behind.
+ *
+ * Crash semantics: increments are counted after the stock transaction
+ * commits and live only in memory until the next flush. A crash loses at most
+ * one interval of popularity (stock itself is never affected), a failed flush
+ * rolls back as a whole and puts its increments back for the next attempt, and
+ * a clean shutdown flushes once more. salesCount is therefore a ranking signal, not an audit trail;
+ * order-api remains the record of what was sold.
+ */
+@Slf4j
+@Component
+public class SalesCounter {
+
+    private final StockRepository stockRepository;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductSuggester suggester;
+    private final TransactionTemplate transaction;
+
+    // Adders are never removed, so an increment can't land in a discarded one
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public SalesCounter(StockRepository stockRepository, ProductRepository productRepository,
+            ProductCache productCache, ProductSuggester suggester, PlatformTransactionManager transactionManager) {
+        this.stockRepository = stockRepository;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.suggester = suggester;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public void record(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) ->
+                pending.computeIfAbsent(productId, id -> new LongAdder()).add(quantity));
+    }
+
+    @Scheduled(fixedDelayString = "${product.sales.flush-interval:5000}")
+    public void flush() {
+        // sumThenReset() takes each cell with getAndSet, so a concurrent
+        // increment is either in this batch or left for the next one
+        Map<Long, Long> increments = new TreeMap<>();
+        pending.forEach((productId, adder) -> {
+            long sold = adder.sumThenReset();
+            if (sold > 0) {
+                increments.put(productId, sold);
+            }
+        });
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        // One transaction, so a failure leaves none of the batch applied and
+        // putting all of it back cannot count a product twice
+        try {
+            transaction.executeWithoutResult(status -> stockRepository.incrementSalesCounts(increments));
+        } catch (RuntimeException e) {
+            log.warn("Flushing sales counts for {} products failed; retrying next interval", increments.size(), e);
+            increments.forEach((productId, sold) ->
+                    pending.computeIfAbsent(productId, id -> new LongAdder()).add(sold));
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(increments.keySet());
+        ids.forEach(productCache::invalidate);
+        // Sales drive typeahead ranking
+        productRepository.findAllById(ids).forEach(suggester::upsertProduct);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Increments recorded but not yet written to the database.
+     */
+    public long pending(Long productId) {
+        LongAdder adder = pending.get(productId);
+        return adder == null ? 0 : adder.sum();
+    }
+}
@@ -0,0 +1,227 @@
+package com.cs308.product.service;
+
+import com.cs308.product.repository.StockRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory available-to-sell bookkeeping: units on hand (the stock columns,
+ * loaded lazily) minus units held by open reservations.
+ *
+ * Units are held per variant, checked against the variant's own
+ * stock_quantity, and also counted against the product's total; products
+ * without variants are held on the product alone. Products are guarded by a
+ * fixed set of striped locks, so reservations for different products never
+ * contend and a multi-product reservation only locks the stripes it touches
+ * (always in ascending order, which rules out deadlocks). The counts live in
+ * this JVM only; the conditional UPDATEs in StockRepository stay the final
+ * guard against overselling.
+ */
+@Component
+public class StockLedger {
+
+    private static final int STRIPES = 64;
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::productId)
+            .thenComparing(Key::variantId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final StockRepository stockRepository;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Long, OnHand> onHand = new ConcurrentHashMap<>();
+    // Per variant, and per product (variantId null) as the sum over its variants
+    private final Map<Key, Integer> reserved = new ConcurrentHashMap<>();
+
+    public StockLedger(StockRepository stockRepository) {
+        this.stockRepository = stockRepository;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * What units are held on: one variant of a product, or the product itself
+     * (variantId null) when it has no variants.
+     */
+    public record Key(Long productId, Long variantId) {
+
+        public static Key product(Long productId) {
+            return new Key(productId, null);
+        }
+    }
+
+    /**
+     * Holds the wanted units if every variant (or variant-less product) has
+     * enough available stock, otherwise holds nothing.
+     *
+     * @param wanted   units per key to hold
+     * @param released units per key that are released in the same step (a
+     *                 cart replacing its previous reservation); may be empty
+     * @return the first product without enough stock, or null on success
+     * @throws ProductNotFoundException if a product does not exist
+     */
+    public Long tryReserve(Map<Key, Integer> wanted, Map<Key, Integer> released) {
+        TreeSet<Long> ids = new TreeSet<>();
+        wanted.keySet().forEach(key -> ids.add(key.productId()));
+        released.keySet().forEach(key -> ids.add(key.productId()));
+        loadMissing(wanted.keySet());
+
+        List<ReentrantLock> held = lock(ids);
+        try {
+            TreeMap<Key, Integer> sorted = new TreeMap<>(KEY_ORDER);
+            sorted.putAll(wanted);
+            for (Map.Entry<Key, Integer> line : sorted.entrySet()) {
+                Key key = line.getKey();
+                int available = stock(key) - reserved(key) + released.getOrDefault(key, 0);
+                if (available < line.getValue()) {
+                    return key.productId();
+                }
+            }
+            released.forEach((key, quantity) -> adjust(key, -quantity));
+            wanted.forEach(this::adjust);
+            return null;
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Returns held units to the available pool.
+     */
+    public void release(Map<Key, Integer> quantities) {
+        TreeSet<Long> ids = new TreeSet<>();
+        quantities.keySet().forEach(key -> ids.add(key.productId()));
+        List<ReentrantLock> held = lock(ids);
+        try {
+            quantities.forEach((key, quantity) -> adjust(key, -quantity));
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Units of the product, over all its variants, currently held by open
+     * reservations.
+     */
+    public int reserved(Long productId) {
+        return reserved(Key.product(productId));
+    }
+
+    /**
+     * Units held on the key; for a product key, the product's total.
+     */
+    public int reserved(Key key) {
+        return reserved.getOrDefault(key, 0);
+    }
+
+    /**
+     * Held units for each of the given keys, leaving out the given
+     * reservation's own units. Passed to StockRepository as the stock that a
+     * decrement must not touch; product keys count every variant.
+     */
+    public Map<Key, Integer> heldByOthers(Collection<Key> keys, Map<Key, Integer> own) {
+        Map<Key, Integer> ownTotals = new HashMap<>();
+        own.forEach((key, quantity) -> rollUp(key, quantity, ownTotals));
+        Map<Key, Integer> held = new HashMap<>();
+        for (Key key : keys) {
+            int others = reserved(key) - ownTotals.getOrDefault(key, 0);
+            if (others > 0) {
+                held.put(key, others);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Drops the cached on-hand counts of the product and its variants after a
+     * stock write, now and again once the transaction commits, so they are
+     * reloaded from the database.
+     */
+    public void invalidate(Long productId) {
+        onHand.remove(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    onHand.remove(productId);
+                }
+            });
+        }
+    }
+
+    private int stock(Key key) {
+        OnHand counts = onHand.get(key.productId());
+        if (counts == null) {
+            throw new ProductNotFoundException(key.productId());
+        }
+        if (key.variantId() == null) {
+            return counts.product();
+        }
+        return counts.variants().getOrDefault(key.variantId(), 0);
+    }
+
+    // A cached product missing one of the wanted variants (added since) is reloaded
+    private void loadMissing(Collection<Key> keys) {
+        TreeSet<Long> missing = new TreeSet<>();
+        for (Key key : keys) {
+            OnHand counts = onHand.get(key.productId());
+            if (counts == null || key.variantId() != null && !counts.variants().containsKey(key.variantId())) {
+                missing.add(key.productId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, Map<Long, Integer>> variants = stockRepository.findVariantStock(missing);
+        stockRepository.findStock(missing).forEach((productId, stock) -> onHand.put(productId,
+                new OnHand(stock, variants.getOrDefault(productId, Map.of()))));
+    }
+
+    private List<ReentrantLock> lock(Collection<Long> productIds) {
+        // Several ids can share a stripe; each stripe is taken once, in index order
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long productId : productIds) {
+            stripes.add(Math.floorMod(productId.hashCode(), STRIPES));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        for (Integer stripe : stripes) {
+            locks[stripe].lock();
+            held.add(locks[stripe]);
+        }
+        return held;
+    }
+
+    // Drops entries once nothing is held on them
+    private void adjust(Key key, int delta) {
+        rollUp(key, delta, reserved);
+    }
+
+    // Applies the change to the key and, for a variant, to its product's total
+    private static void rollUp(Key key, int delta, Map<Key, Integer> counts) {
+        add(counts, key, delta);
+        if (key.variantId() != null) {
+            add(counts, Key.product(key.productId()), delta);
+        }
+    }
+
+    private static void add(Map<Key, Integer> counts, Key key, int delta) {
+        counts.compute(key, (k, current) -> {
+            int sum = (current == null ? 0 : current) + delta;
+            return sum > 0 ? sum : null;
+        });
+    }
+
+    private record OnHand(int product, Map<Long, Integer> variants) {
+    }
+}
@@ -0,0 +1,267 @@
+package com.cs308.product.service;
+
+import com.cs308.product.model.StockReductionRequest;
+import com.cs308.product.model.StockReservation;
+import com.cs308.product.model.StockReservationRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Holds stock for a cart between "proceed to checkout" and order creation.
+ *
+ * A reservation moves units from available-to-sell into the StockLedger; it
+ * ends in exactly one of three ways, each of which claims it with an atomic
+ * remove from {@code reservations}: confirm (the units are decremented in the
+ * database), release (the user left checkout) or expiry. Expiry times are kept
+ * in a sorted index, so the periodic sweep only looks at reservations that are
+ * actually due instead of scanning all of them.
+ *
+ * The ledger holds units on the variant each line names (or on the product
+ * when it has no variants), so the last unit of one size cannot be reserved
+ * twice or sold to a plain checkout while it is held.
+ *
+ * Reservations are in-memory and per instance; after a restart they are gone
+ * and checkout falls back to a plain batched decrement.
+ */
+@Slf4j
+@Service
+public class StockReservationService {
+
+    private final StockLedger ledger;
+    private final ProductService productService;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final Clock clock;
+
+    private final Map<String, Held> reservations = new ConcurrentHashMap<>();
+    // One open reservation per user; a new one replaces it
+    private final Map<Long, String> byUser = new ConcurrentHashMap<>();
+    private final NavigableSet<Held> expiries = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Held::expiresAt).thenComparing(Held::id));
+
+    @Autowired
+    public StockReservationService(StockLedger ledger, ProductService productService,
+            @Value("${product.reservation.ttl:10m}") Duration defaultTtl,
+            @Value("${product.reservation.max-ttl:30m}") Duration maxTtl) {
+        this(ledger, productService, defaultTtl, maxTtl, Clock.systemUTC());
+    }
+
+    StockReservationService(StockLedger ledger, ProductService productService, Duration defaultTtl,
+            Duration maxTtl, Clock clock) {
+        this.ledger = ledger;
+        this.productService = productService;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Holds the requested units for the user, replacing the user's previous
+     * reservation. Fails as a whole (and keeps the previous reservation) if
+     * any variant or product lacks available stock.
+     *
+     * @throws UnknownVariantException if a line names no single variant
+     */
+    public StockReservation reserve(StockReservationRequest request) {
+        Map<StockLedger.Key, Integer> quantities = productService.ledgerQuantities(request.getItems());
+        Duration ttl = request.getTtlSeconds() == null ? defaultTtl : Duration.ofSeconds(request.getTtlSeconds());
+        if (ttl.compareTo(maxTtl) > 0) {
+            ttl = maxTtl;
+        }
+
+        Held previous = claim(byUser.get(request.getUserId()));
+        Map<StockLedger.Key, Integer> released = previous == null ? Map.of() : previous.quantities();
+        Long failed;
+        try {
+            failed = ledger.tryReserve(quantities, released);
+        } catch (RuntimeException e) {
+            reinstate(previous);
+            throw e;
+        }
+        if (failed != null) {
+            reinstate(previous);
+            throw new OutOfStockException("Insufficient stock for product " + failed);
+        }
+
+        Held held = new Held(UUID.randomUUID().toString(), request.getUserId(), quantities,
+                List.copyOf(request.getItems()), clock.instant().plus(ttl));
+        reservations.put(held.id(), held);
+        byUser.put(held.userId(), held.id());
+        expiries.add(held);
+        return held.toResponse();
+    }
+
+    /**
+     * Decrements the reserved units in the database and closes the
+     * reservation. The reservation is closed even if the decrement fails.
+     *
+     * @param expected the lines of the order being placed; a reservation
+     *                 holding anything else (e.g. from an older cart) is
+     *                 released instead of confirmed
+     * @throws ReservationNotFoundException if it was already confirmed,
+     *                                      released, has expired or belongs
+     *                                      to another user
+     * @throws ReservationMismatchException if it holds different lines
+     */
+    public void confirm(String reservationId, Long userId, List<StockReductionRequest.Line> expected) {
+        Held held = claimOrThrow(reservationId, userId);
+        try {
+            if (!lineTotals(held.lines()).equals(lineTotals(expected))) {
+                throw new ReservationMismatchException(reservationId);
+            }
+            productService.reduceReservedStock(held.lines());
+        } finally {
+            ledger.release(held.quantities());
+        }
+    }
+
+    /**
+     * @throws ReservationNotFoundException if it is already closed or belongs
+     *                                      to another user
+     */
+    public void release(String reservationId, Long userId) {
+        Held held = claimOrThrow(reservationId, userId);
+        ledger.release(held.quantities());
+    }
+
+    /**
+     * Releases every reservation whose time is up. Walks the expiry index from
+     * the earliest entry and stops at the first one that is not due yet.
+     */
+    @Scheduled(fixedDelayString = "${product.reservation.sweep-interval:1000}")
+    public void releaseExpired() {
+        Instant now = clock.instant();
+        int released = 0;
+        Held first;
+        while ((first = firstDue(now)) != null) {
+            if (expiries.remove(first) && reservations.remove(first.id(), first)) {
+                byUser.remove(first.userId(), first.id());
+                ledger.release(first.quantities());
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.debug("Released {} expired stock reservations", released);
+        }
+    }
+
+    /**
+     * Releases every open reservation that holds units of one of the given
+     * products, e.g. once they have been deleted and can no longer be sold.
+     *
+     * @return the number of reservations released
+     */
+    public int releaseProducts(Collection<Long> productIds) {
+        Set<Long> ids = Set.copyOf(productIds);
+        int released = 0;
+        for (Held held : reservations.values()) {
+            boolean holdsAny = held.quantities().keySet().stream().anyMatch(key -> ids.contains(key.productId()));
+            if (holdsAny && claim(held) != null) {
+                ledger.release(held.quantities());
+                released++;
+            }
+        }
+        return released;
+    }
+
+    public int openReservations() {
+        return reservations.size();
+    }
+
+    private Held firstDue(Instant now) {
+        Held first = expiries.isEmpty() ? null : expiries.first();
+        return first != null && !first.expiresAt().isAfter(now) ? first : null;
+    }
+
+    private Held claimOrThrow(String reservationId, Long userId) {
+        Held candidate = reservations.get(reservationId);
+        // Another user's reservation is left alone and reported as unknown
+        Held held = candidate != null && candidate.userId().equals(userId) ? claim(candidate) : null;
+        if (held == null) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        if (!held.expiresAt().isAfter(clock.instant())) {
+            // Due but not swept yet
+            ledger.release(held.quantities());
+            throw new ReservationNotFoundException(reservationId);
+        }
+        return held;
+    }
+
+    /**
+     * Units per product, color and size, so reservations and orders compare
+     * regardless of line order, repeated lines or the case of sizes.
+     */
+    private static Map<String, Integer> lineTotals(List<StockReductionRequest.Line> lines) {
+        Map<String, Integer> totals = new HashMap<>();
+        for (StockReductionRequest.Line line : lines) {
+            String size = line.getSize() == null || line.getSize().isBlank()
+                    ? "" : line.getSize().trim().toUpperCase(Locale.ROOT);
+            totals.merge(line.getProductId() + "|" + line.getColor() + "|" + size, line.getQuantity(), Integer::sum);
+        }
+        return totals;
+    }
+
+    /**
+     * Takes the reservation out of every index; only one caller can win.
+     */
+    private Held claim(String reservationId) {
+        Held held = reservationId == null ? null : reservations.get(reservationId);
+        return held == null ? null : claim(held);
+    }
+
+    private Held claim(Held held) {
+        if (!reservations.remove(held.id(), held)) {
+            return null;
+        }
+        byUser.remove(held.userId(), held.id());
+        expiries.remove(held);
+        return held;
+    }
+
+    // Puts back a reservation whose replacement failed; its units never left the ledger
+    private void reinstate(Held held) {
+        if (held == null) {
+            return;
+        }
+        reservations.put(held.id(), held);
+        byUser.putIfAbsent(held.userId(), held.id());
+        expiries.add(held);
+    }
+
+    /**
+     * @param quantities units per variant or product, as held in the ledger
+     * @param lines      the requested lines with their variants, decremented
+     *                   on confirm
+     */
+    private record Held(String id, Long userId, Map<StockLedger.Key, Integer> quantities, List<StockReductionRequest.Line> lines,
+            Instant expiresAt) {
+
+        StockReservation toResponse() {
+            return StockReservation.builder()
+                    .id(id)
+                    .userId(userId)
+                    .items(lines)
+                    .expiresAt(expiresAt)
+                    .build();
+        }
+    }
+}
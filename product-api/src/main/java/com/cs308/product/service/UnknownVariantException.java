@@ -0,0 +1,11 @@
+package com.cs308.product.service;
+
+/**
+ * A stock line for a product with variants whose color and size do not pick
+ * exactly one of them.
+ */
+public class UnknownVariantException extends RuntimeException {
+    public UnknownVariantException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,96 @@
+package com.cs308.product.service;
+
+import com.cs308.product.model.VariantLookup;
+import com.cs308.product.repository.ProductVariantRepository;
+import com.cs308.product.search.VariantLookupIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves SKUs and barcodes to variants for scanners and POS clients.
+ *
+ * Answers come from VariantLookupIndex; codes it does not know (or all codes
+ * before it finished loading) are looked up in the database in one query, and
+ * whatever is found there is added to the index.
+ */
+@Service
+@RequiredArgsConstructor
+public class VariantLookupService {
+
+    private final VariantLookupIndex index;
+    private final ProductVariantRepository variantRepository;
+
+    public Optional<VariantLookup> lookup(String code) {
+        return Optional.ofNullable(lookupAll(List.of(code)).get(code));
+    }
+
+    /**
+     * The variant for each code that matched, in request order; a SKU match
+     * wins over a barcode match. Unknown codes are left out.
+     */
+    public Map<String, VariantLookup> lookupAll(Collection<String> codes) {
+        Set<String> requested = new LinkedHashSet<>(codes);
+        Map<String, VariantLookup> found = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        boolean indexed = index.isReady();
+        for (String code : requested) {
+            VariantLookup variant = indexed ? index.find(code) : null;
+            if (variant != null) {
+                found.put(code, variant);
+            } else {
+                misses.add(code);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        List<VariantLookup> loaded = variantRepository.findLookupsByCodeIn(misses);
+        if (loaded.isEmpty()) {
+            return found;
+        }
+        if (indexed) {
+            index.putAll(loaded);
+        }
+        Map<String, VariantLookup> bySku = new LinkedHashMap<>();
+        Map<String, VariantLookup> byBarcode = new LinkedHashMap<>();
+        for (VariantLookup variant : loaded) {
+            bySku.put(variant.getSku(), variant);
+            if (variant.getBarcode() != null) {
+                byBarcode.put(variant.getBarcode(), variant);
+            }
+        }
+        // Re-walk the request so the result keeps its order
+        Map<String, VariantLookup> ordered = new LinkedHashMap<>();
+        for (String code : requested) {
+            VariantLookup variant = found.get(code);
+            if (variant == null) {
+                variant = bySku.getOrDefault(code, byBarcode.get(code));
+            }
+            if (variant != null) {
+                ordered.put(code, variant);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Reloads the variants of these products into the index, e.g. after they
+     * were written outside JPA.
+     */
+    public void reindexProducts(Collection<Long> productIds) {
+        if (!index.isReady() || productIds.isEmpty()) {
+            return;
+        }
+        index.putAll(variantRepository.findLookupsByProductIdIn(productIds));
+    }
+}
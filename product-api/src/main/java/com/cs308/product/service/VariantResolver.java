@@ -0,0 +1,55 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Picks the variant a cart item or stock line refers to from its color and
+ * size. Sizes arrive as free text (CartItem.size) and are matched against
+ * {@link Size} ignoring case.
+ */
+final class VariantResolver {
+
+    private VariantResolver() {
+    }
+
+    /**
+     * @return the one variant matching color and size (a missing color or
+     *         size matches any), or null when the product has no variants and
+     *         its stock is kept on the product itself
+     * @throws UnknownVariantException when no variant or more than one matches
+     */
+    static <V> V resolve(Long productId, List<V> variants, Function<V, Color> colorOf, Function<V, Size> sizeOf,
+            Color color, String size) {
+        if (variants.isEmpty()) {
+            return null;
+        }
+        Size wanted = null;
+        if (size != null && !size.isBlank()) {
+            try {
+                wanted = Size.valueOf(size.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new UnknownVariantException("Product " + productId + " has no size " + size);
+            }
+        }
+        V match = null;
+        for (V variant : variants) {
+            if ((color == null || color == colorOf.apply(variant))
+                    && (wanted == null || wanted == sizeOf.apply(variant))) {
+                if (match != null) {
+                    throw new UnknownVariantException("Product " + productId + " needs a color and size to pick a variant");
+                }
+                match = variant;
+            }
+        }
+        if (match == null) {
+            throw new UnknownVariantException("Product " + productId + " has no variant with color " + color
+                    + " and size " + size);
+        }
+        return match;
+    }
+}
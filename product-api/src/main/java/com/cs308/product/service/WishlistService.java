@@ -3,13 +3,18 @@ package com.cs308.product.service;
 import com.cs308.product.domain.Product;
 import com.cs308.product.domain.Wishlist;
 import com.cs308.product.domain.WishlistItem;
-import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.ProductRepositoryCustomImpl;
+import com.cs308.product.repository.WishlistItemRepository;
 import com.cs308.product.repository.WishlistRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,11 +22,12 @@ import java.util.stream.Collectors;
 public class WishlistService {
 
     private final WishlistRepository wishlistRepository;
-    private final ProductRepository productRepository;
+    private final WishlistItemRepository wishlistItemRepository;
+    private final ProductCache productCache;
 
     @Transactional
     public Wishlist addToWishlist(Long userId, Long productId, String size) {
-        Product product = productRepository.findById(productId)
+        Product product = productCache.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException(productId));
 
         Wishlist wishlist = wishlistRepository.findByUserId(userId)
@@ -86,4 +92,18 @@ public class WishlistService {
                 .map(Wishlist::getUserId)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * getUserIdsWithProductInWishlist() for many products in one query,
+     * keyed by product id. Products nobody wishes for are left out.
+     */
+    public Map<Long, List<Long>> getUserIdsByProduct(Collection<Long> productIds) {
+        Map<Long, List<Long>> usersByProduct = new TreeMap<>();
+        for (List<Long> chunk : ProductRepositoryCustomImpl.inChunks(List.copyOf(productIds))) {
+            for (Object[] row : wishlistItemRepository.findUserIdsByProductIdIn(chunk)) {
+                usersByProduct.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+            }
+        }
+        return usersByProduct;
+    }
 }
@@ -1,7 +1,13 @@
 package com.cs308.product.web;
 
+import com.cs308.product.service.ChangeTokenExpiredException;
+import com.cs308.product.service.FacetsUnavailableException;
+import com.cs308.product.service.InvalidCursorException;
 import com.cs308.product.service.OutOfStockException;
 import com.cs308.product.service.ProductNotFoundException;
+import com.cs308.product.service.ReservationMismatchException;
+import com.cs308.product.service.ReservationNotFoundException;
+import com.cs308.product.service.UnknownVariantException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -19,7 +25,43 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(OutOfStockException.class)
     public ResponseEntity<Map<String, Object>> handle(OutOfStockException ex) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(Map.of("error", "out_of_stock", "message", ex.getMessage()));
     }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handle(InvalidCursorException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", "invalid_cursor", "message", ex.getMessage()));
+    }
+
+    @ExceptionHandler(ChangeTokenExpiredException.class)
+    public ResponseEntity<Map<String, Object>> handle(ChangeTokenExpiredException ex) {
+        return ResponseEntity.status(HttpStatus.GONE)
+                .body(Map.of("error", "change_token_expired", "message", ex.getMessage()));
+    }
+
+    @ExceptionHandler(FacetsUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handle(FacetsUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "facets_unavailable", "message", ex.getMessage()));
+    }
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handle(ReservationNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "reservation_not_found", "message", ex.getMessage()));
+    }
+
+    @ExceptionHandler(ReservationMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handle(ReservationMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Map.of("error", "reservation_mismatch", "message", ex.getMessage()));
+    }
+
+    @ExceptionHandler(UnknownVariantException.class)
+    public ResponseEntity<Map<String, Object>> handle(UnknownVariantException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", "unknown_variant", "message", ex.getMessage()));
+    }
 }
@@ -6,3 +6,14 @@ ALTER TABLE reviews ALTER COLUMN rating DROP NOT NULL;
 
 -- Clear existing test reviews for user 42 (for testing purposes)
 DELETE FROM reviews WHERE user_id = 42;
+
+-- Moderation queue: only pending reviews are indexed, so the index stays
+-- small however many approved reviews accumulate
+CREATE INDEX IF NOT EXISTS idx_reviews_pending ON reviews (created_at, id) WHERE approved = false;
+
+-- Catalog price filters and the effectivePrice sorts compare
+-- COALESCE(discounted_price, price); an expression index serves both
+CREATE INDEX IF NOT EXISTS idx_products_effective_price ON products ((COALESCE(discounted_price, price)), id);
+
+-- ?inStock=true: only rows with stock are indexed, in the default name order
+CREATE INDEX IF NOT EXISTS idx_products_in_stock ON products (name, id) WHERE stock > 0;
@@ -51,7 +51,7 @@ class CartControllerTest {
 
                 Cart cart = buildCart(userId);
 
-                when(cartService.addToCart(eq(userId), eq(productId), eq(qty), isNull()))
+                when(cartService.addToCart(eq(userId), eq(productId), eq(qty), isNull(), isNull()))
                                 .thenReturn(cart);
 
                 // WHEN - THEN
@@ -62,7 +62,7 @@ class CartControllerTest {
                                 .andExpect(status().isOk());
 
                 Mockito.verify(cartService, times(1))
-                                .addToCart(userId, productId, qty, null);
+                                .addToCart(userId, productId, qty, null, null);
         }
 
         @Test
@@ -0,0 +1,60 @@
+package com.cs308.product.controller;
+
+import com.cs308.product.domain.Category;
+import com.cs308.product.service.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(CategoryController.class)
+class CategoryControllerTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @MockitoBean
+        private CategoryService categoryService;
+
+        @Test
+        void getAllCategories_shouldReturnSnapshotWithEtag() throws Exception {
+                when(categoryService.snapshot()).thenReturn(snapshot("abc123"));
+
+                mockMvc.perform(get("/categories"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                                .andExpect(jsonPath("$[0].name").value("JACKET"));
+        }
+
+        @Test
+        void getAllCategories_shouldReturnNotModifiedForMatchingEtag() throws Exception {
+                when(categoryService.snapshot()).thenReturn(snapshot("abc123"));
+
+                mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(content().string(""));
+
+                mockMvc.perform(get("/categories").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                                .andExpect(status().isOk());
+        }
+
+        private static CategoryService.Snapshot snapshot(String etag) {
+                Category jacket = Category.builder().id(1L).name("JACKET").build();
+                return new CategoryService.Snapshot(List.of(jacket), List.of("JACKET"), etag);
+        }
+}
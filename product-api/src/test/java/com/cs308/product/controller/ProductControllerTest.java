@@ -5,24 +5,39 @@ import com.cs308.product.domain.Product;
 import com.cs308.product.domain.enums.TargetAudience;
 import com.cs308.product.domain.enums.WarrantyStatus;
 import com.cs308.product.model.ProductUpdateRequest;
+import com.cs308.product.service.ProductChangeFeed;
+import com.cs308.product.service.ProductExportService;
+import com.cs308.product.service.ProductImportService;
 import com.cs308.product.service.ProductNotFoundException;
 import com.cs308.product.service.ProductService;
+import com.cs308.product.service.StockReservationService;
 import com.cs308.product.web.GlobalExceptionHandler;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
@@ -35,6 +50,18 @@ class ProductControllerTest {
         @MockBean
         private ProductService productService;
 
+        @MockBean
+        private ProductImportService productImportService;
+
+        @MockBean
+        private ProductExportService productExportService;
+
+        @MockBean
+        private ProductChangeFeed productChangeFeed;
+
+        @MockBean
+        private StockReservationService stockReservationService;
+
         @Autowired
         private ObjectMapper objectMapper;
 
@@ -131,6 +158,7 @@ class ProductControllerTest {
                                 .andExpect(status().isNoContent());
 
                 verify(productService).delete(10L);
+                verify(stockReservationService).releaseProducts(List.of(10L));
         }
 
         @Test
@@ -140,5 +168,30 @@ class ProductControllerTest {
                 mockMvc.perform(delete("/products/{id}", 55L))
                                 .andExpect(status().isNotFound())
                                 .andExpect(jsonPath("$.error").value("not_found"));
+
+                verifyNoInteractions(stockReservationService);
+        }
+
+        @Test
+        void exportStreamsGzippedNdjsonWhenAccepted() throws Exception {
+                doAnswer(invocation -> {
+                        invocation.<java.io.OutputStream>getArgument(1).write("{\"id\":1}\n".getBytes());
+                        return 1L;
+                }).when(productExportService).exportNdjson(any(), any());
+
+                MvcResult started = mockMvc.perform(get("/products/export")
+                                .param("since", "2024-01-01T00:00:00Z")
+                                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                MvcResult result = mockMvc.perform(asyncDispatch(started))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                .andReturn();
+
+                byte[] body = new GZIPInputStream(new ByteArrayInputStream(
+                                result.getResponse().getContentAsByteArray())).readAllBytes();
+                org.junit.jupiter.api.Assertions.assertEquals("{\"id\":1}\n", new String(body));
+                verify(productExportService).exportNdjson(eq(Instant.parse("2024-01-01T00:00:00Z")), any());
         }
 }
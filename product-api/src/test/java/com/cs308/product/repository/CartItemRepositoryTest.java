@@ -0,0 +1,104 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Cart;
+import com.cs308.product.domain.CartItem;
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.domain.enums.WarrantyStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class CartItemRepositoryTest {
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void backfillsTheVariantOfLegacyCartItems() {
+        Product tee = productRepository.save(sampleProduct("Tee"));
+        Product mug = productRepository.save(sampleProduct("Mug"));
+        ProductVariant blackM = entityManager.persist(variant(tee, "TEE-BLK-M", Color.BLACK, Size.M, 1));
+        ProductVariant whiteM = entityManager.persist(variant(tee, "TEE-WHT-M", Color.WHITE, Size.M, 4));
+        ProductVariant blackL = entityManager.persist(variant(tee, "TEE-BLK-L", Color.BLACK, Size.L, 2));
+
+        Cart cart = new Cart();
+        cart.setUserId(1L);
+        CartItem medium = item(tee, "m", null);
+        CartItem large = item(tee, "L", null);
+        CartItem chosen = item(tee, "M", blackM);
+        CartItem gone = item(tee, "XXL", null);
+        CartItem plain = item(mug, null, null);
+        for (CartItem item : new CartItem[] { medium, large, chosen, gone, plain }) {
+            cart.addItem(item);
+        }
+        entityManager.persist(cart);
+        entityManager.flush();
+
+        assertThat(cartItemRepository.backfillVariants()).isEqualTo(2);
+        entityManager.clear();
+
+        // Several colors of the size: the best-stocked one
+        assertThat(variantOf(medium)).isEqualTo(whiteM.getId());
+        assertThat(variantOf(large)).isEqualTo(blackL.getId());
+        assertThat(variantOf(chosen)).isEqualTo(blackM.getId());
+        assertThat(variantOf(gone)).isNull();
+        assertThat(variantOf(plain)).isNull();
+    }
+
+    private Long variantOf(CartItem item) {
+        ProductVariant variant = cartItemRepository.findById(item.getId()).orElseThrow().getVariant();
+        return variant == null ? null : variant.getId();
+    }
+
+    private static CartItem item(Product product, String size, ProductVariant variant) {
+        return CartItem.builder()
+                .product(product)
+                .quantity(1)
+                .size(size)
+                .variant(variant)
+                .build();
+    }
+
+    private static ProductVariant variant(Product product, String sku, Color color, Size size, int stock) {
+        return ProductVariant.builder()
+                .product(product)
+                .sku(sku)
+                .color(color)
+                .size(size)
+                .stockQuantity(stock)
+                .price(new BigDecimal("99.90"))
+                .sellable(true)
+                .build();
+    }
+
+    private Product sampleProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100.0);
+        product.setStock(5);
+        product.setModel("Model X");
+        product.setSerialNumber("SN-" + name);
+        product.setDescription("Test Description");
+        product.setDistributorInfo("Distributor Info");
+        product.setProductType("TSHIRT");
+        product.setTargetAudience(TargetAudience.UNISEX);
+        product.setWarrantyStatus(WarrantyStatus.STANDARD);
+        return product;
+    }
+}
@@ -0,0 +1,88 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductImage;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.domain.enums.WarrantyStatus;
+import com.cs308.product.model.ProductImportRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ProductImportRepository.class)
+class ProductImportRepositoryTest {
+
+    @Autowired
+    private ProductImportRepository importRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void insertsBatchWithImagesAndVariantsAndReturnsIdsInRowOrder() {
+        ProductImportRow tee = row("Imported tee");
+        tee.setImageUrls(List.of("tee-front.jpg", "tee-back.jpg"));
+        tee.getVariants().add(variant("IMP-TEE-BLACK-M", Color.BLACK));
+        tee.getVariants().add(variant("IMP-TEE-WHITE-M", Color.WHITE));
+        ProductImportRow jacket = row("Imported jacket");
+
+        List<Long> ids = importRepository.insert(List.of(tee, jacket), Instant.now());
+        entityManager.clear();
+
+        assertThat(ids).hasSize(2);
+        Product first = productRepository.findById(ids.get(0)).orElseThrow();
+        assertThat(first.getName()).isEqualTo("Imported tee");
+        assertThat(first.getSalesCount()).isZero();
+        assertThat(first.getReviewCount()).isZero();
+        assertThat(first.isActive()).isTrue();
+        assertThat(first.getImages()).extracting(ProductImage::getUrl)
+                .containsExactly("tee-front.jpg", "tee-back.jpg");
+        assertThat(first.getVariants()).extracting(ProductVariant::getSku)
+                .containsExactlyInAnyOrder("IMP-TEE-BLACK-M", "IMP-TEE-WHITE-M");
+
+        Product second = productRepository.findById(ids.get(1)).orElseThrow();
+        assertThat(second.getName()).isEqualTo("Imported jacket");
+        assertThat(second.getImages()).isEmpty();
+        assertThat(second.getVariants()).isEmpty();
+    }
+
+    private static ProductImportRow row(String name) {
+        ProductImportRow row = new ProductImportRow();
+        row.setName(name);
+        row.setPrice(100.0);
+        row.setStock(5);
+        row.setModel("Model X");
+        row.setSerialNumber("SN-" + name);
+        row.setDescription("Test Description");
+        row.setDistributorInfo("Distributor Info");
+        row.setProductType("TSHIRT");
+        row.setTargetAudience(TargetAudience.UNISEX);
+        row.setWarrantyStatus(WarrantyStatus.STANDARD);
+        return row;
+    }
+
+    private static ProductImportRow.Variant variant(String sku, Color color) {
+        ProductImportRow.Variant variant = new ProductImportRow.Variant();
+        variant.setSku(sku);
+        variant.setColor(color);
+        variant.setSize(Size.M);
+        variant.setStockQuantity(3);
+        variant.setPrice(BigDecimal.TEN);
+        return variant;
+    }
+}
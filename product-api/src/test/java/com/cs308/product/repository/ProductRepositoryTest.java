@@ -1,24 +1,40 @@
 package com.cs308.product.repository;
 
 import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductImage;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import com.cs308.product.model.ProductCursor;
+import com.cs308.product.model.ProductSummary;
 
 import com.cs308.product.domain.enums.TargetAudience;
 import com.cs308.product.domain.enums.WarrantyStatus;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Sort;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class ProductRepositoryTest {
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     public void testSearchWithNullParameters() {
         // Given
@@ -44,9 +60,298 @@ public class ProductRepositoryTest {
                 null,
                 null,
                 null,
+                null,
+                null,
+                false,
+                false,
                 Sort.unsorted());
 
         // Then
         assertThat(results).isNotEmpty();
     }
+
+    @Test
+    public void testSearchPageWalksEveryRowOnceInSortOrder() {
+        for (int i = 0; i < 7; i++) {
+            Product product = sampleProduct("Item " + i);
+            // Duplicate prices force the id tie-breaker to be used across page boundaries
+            product.setPrice(10.0 * (i % 3));
+            productRepository.save(product);
+        }
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().build();
+
+        List<Product> walked = new ArrayList<>();
+        List<Object> after = null;
+        while (true) {
+            List<Product> page = productRepository.searchPage(criteria, ProductSort.PRICE_ASC, after, 3);
+            walked.addAll(page);
+            if (page.size() < 3) {
+                break;
+            }
+            after = ProductCursor.after(ProductSort.PRICE_ASC, page.get(page.size() - 1)).getValues();
+        }
+
+        List<Product> expected = productRepository.findAll(
+                Sort.by(Sort.Direction.ASC, "price").and(Sort.by(Sort.Direction.ASC, "id")));
+        assertThat(walked).extracting(Product::getId)
+                .containsExactlyElementsOf(expected.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    public void testSearchPageRatingAscKeepsUnratedLast() {
+        Product unrated = sampleProduct("Unrated");
+        Product low = sampleProduct("Low");
+        low.setAverageRating(1.5);
+        low.setReviewCount(4L);
+        Product high = sampleProduct("High");
+        high.setAverageRating(4.5);
+        high.setReviewCount(2L);
+        productRepository.saveAll(List.of(unrated, low, high));
+
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().build();
+        List<Product> first = productRepository.searchPage(criteria, ProductSort.RATING_ASC, null, 2);
+        List<Product> second = productRepository.searchPage(criteria, ProductSort.RATING_ASC,
+                ProductCursor.after(ProductSort.RATING_ASC, first.get(1)).getValues(), 2);
+
+        assertThat(first).extracting(Product::getName).containsExactly("Low", "High");
+        assertThat(second).extracting(Product::getName).containsExactly("Unrated");
+    }
+
+    @Test
+    public void testSearchSummariesProjectsFirstImageAndSortKeys() {
+        Product withImages = sampleProduct("With Images");
+        withImages.getImages().add(ProductImage.builder().url("first.jpg").product(withImages).build());
+        withImages.getImages().add(ProductImage.builder().url("second.jpg").product(withImages).build());
+        Product soldOut = sampleProduct("Sold Out");
+        soldOut.setStock(0);
+        productRepository.saveAll(List.of(withImages, soldOut));
+
+        List<ProductRepositoryCustom.SummaryRow> rows = productRepository.searchSummaries(
+                ProductSearchCriteria.builder().build(), ProductSort.NAME_ASC, null, null);
+
+        assertThat(rows).extracting(row -> row.summary().getName()).containsExactly("Sold Out", "With Images");
+        assertThat(rows.get(0).summary().isInStock()).isFalse();
+        assertThat(rows.get(0).summary().getImageUrl()).isNull();
+        assertThat(rows.get(1).summary().getImageUrl()).isEqualTo("first.jpg");
+        assertThat(rows.get(1).sortValues()).containsExactly("With Images", withImages.getId());
+
+        assertThat(productRepository.findSummariesByIdIn(List.of(withImages.getId())))
+                .extracting(ProductSummary::getImageUrl).containsExactly("first.jpg");
+    }
+
+    @Test
+    public void testSearchLoadsCollectionsInConstantStatementCount() {
+        for (int i = 0; i < 20; i++) {
+            Product product = sampleProduct("Batch " + i);
+            product.getImages().add(ProductImage.builder().url("img-" + i + ".jpg").product(product).build());
+            product.getVariants().add(sampleVariant(product, "SKU-" + i + "-B", Color.BLACK));
+            product.getVariants().add(sampleVariant(product, "SKU-" + i + "-W", Color.WHITE));
+            productRepository.save(product);
+        }
+        entityManager.flush();
+
+        ProductSearchCriteria all = ProductSearchCriteria.builder().build();
+        long smallPage = statementsToLoad(() -> productRepository.searchPage(all, ProductSort.NAME_ASC, null, 5));
+        long largePage = statementsToLoad(() -> productRepository.searchPage(all, ProductSort.NAME_ASC, null, 20));
+        // Page query + one batch for images + one batch for variants
+        assertThat(smallPage).isEqualTo(3);
+        assertThat(largePage).isEqualTo(3);
+
+        long colorFiltered = statementsToLoad(() -> productRepository.searchOrderByRatingDesc(
+                null, null, null, Color.BLACK, null, null, null, false, false));
+        assertThat(colorFiltered).isEqualTo(3);
+    }
+
+    @Test
+    public void testPriceAndStockFiltersUseTheEffectivePrice() {
+        Product cheap = sampleProduct("Cheap");
+        cheap.setPrice(20.0);
+        Product discounted = sampleProduct("Discounted");
+        discounted.setPrice(200.0);
+        discounted.setDiscountedPrice(50.0);
+        discounted.setDiscountRate(75.0);
+        Product soldOut = sampleProduct("Sold out");
+        soldOut.setPrice(60.0);
+        soldOut.setStock(0);
+        Product expensive = sampleProduct("Expensive");
+        expensive.setPrice(300.0);
+        productRepository.saveAll(List.of(cheap, discounted, soldOut, expensive));
+
+        List<Product> inRange = productRepository.search(null, null, null, null, null,
+                40.0, 100.0, false, false, Sort.by("name"));
+        assertThat(inRange).extracting(Product::getName).containsExactly("Discounted", "Sold out");
+
+        List<Product> inStockInRange = productRepository.searchOrderByRatingDesc(null, null, null, null, null,
+                40.0, 100.0, true, false);
+        assertThat(inStockInRange).extracting(Product::getName).containsExactly("Discounted");
+
+        ProductSearchCriteria onSale = ProductSearchCriteria.builder().onSale(true).build();
+        assertThat(productRepository.searchAll(onSale, ProductSort.NAME_ASC))
+                .extracting(Product::getName).containsExactly("Discounted");
+
+        ProductSearchCriteria upTo100 = ProductSearchCriteria.builder().maxPrice(100.0).inStock(true).build();
+        assertThat(productRepository.searchIds(upTo100))
+                .containsExactlyInAnyOrder(cheap.getId(), discounted.getId());
+    }
+
+    @Test
+    public void testSearchPageOrdersByEffectivePrice() {
+        Product full = sampleProduct("Full price");
+        full.setPrice(80.0);
+        Product discounted = sampleProduct("Discounted");
+        discounted.setPrice(200.0);
+        discounted.setDiscountedPrice(50.0);
+        Product cheapest = sampleProduct("Cheapest");
+        cheapest.setPrice(10.0);
+        productRepository.saveAll(List.of(full, discounted, cheapest));
+
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().build();
+        List<Product> first = productRepository.searchPage(criteria, ProductSort.EFFECTIVE_PRICE_ASC, null, 2);
+        List<Product> second = productRepository.searchPage(criteria, ProductSort.EFFECTIVE_PRICE_ASC,
+                ProductCursor.after(ProductSort.EFFECTIVE_PRICE_ASC, first.get(1)).getValues(), 2);
+
+        assertThat(first).extracting(Product::getName).containsExactly("Cheapest", "Discounted");
+        assertThat(second).extracting(Product::getName).containsExactly("Full price");
+    }
+
+    @Test
+    public void testDiscountCampaignUpdatesTheSelectedProductsInOneStatement() {
+        Product acme = sampleProduct("Acme tee");
+        acme.setBrand("Acme");
+        acme.setPrice(19.99);
+        Product acmeJacket = sampleProduct("Acme jacket");
+        acmeJacket.setBrand("ACME");
+        acmeJacket.setProductType("JACKET");
+        Product other = sampleProduct("Other tee");
+        productRepository.saveAll(List.of(acme, acmeJacket, other));
+        entityManager.flush();
+
+        List<Long> ids = productRepository.searchIds(ProductSearchCriteria.builder()
+                .brand("acme").productType("tshirt").build());
+        assertThat(ids).containsExactly(acme.getId());
+
+        Instant now = Instant.now();
+        assertThat(productRepository.applyDiscount(List.of(acme.getId(), acmeJacket.getId()), 25.0, now))
+                .isEqualTo(2);
+        Product discounted = productRepository.findById(acme.getId()).orElseThrow();
+        assertThat(discounted.getDiscountRate()).isEqualTo(25.0);
+        assertThat(discounted.getDiscountedPrice()).isEqualTo(14.99);
+        assertThat(productRepository.findById(other.getId()).orElseThrow().getDiscountedPrice()).isNull();
+
+        productRepository.clearDiscount(List.of(acme.getId()), now);
+        assertThat(productRepository.findById(acme.getId()).orElseThrow().getDiscountedPrice()).isNull();
+    }
+
+    @Test
+    public void testBulkDeleteRemovesProductsWithImagesAndVariants() {
+        Product first = sampleProduct("Doomed tee");
+        first.getImages().add(ProductImage.builder().url("doomed.jpg").product(first).build());
+        first.getVariants().add(sampleVariant(first, "SKU-DOOMED", Color.BLACK));
+        Product second = sampleProduct("Doomed jacket");
+        second.getVariants().add(sampleVariant(second, "SKU-DOOMED-2", Color.WHITE));
+        Product kept = sampleProduct("Kept tee");
+        kept.getImages().add(ProductImage.builder().url("kept.jpg").product(kept).build());
+        productRepository.saveAll(List.of(first, second, kept));
+        entityManager.flush();
+
+        List<Long> ids = List.of(first.getId(), second.getId(), -1L);
+        assertThat(productRepository.deleteImagesOf(ids)).isEqualTo(1);
+        assertThat(productRepository.deleteVariantsOf(ids)).isEqualTo(2);
+        assertThat(productRepository.deleteAllByIdIn(ids)).isEqualTo(2);
+
+        assertThat(productRepository.findAll()).extracting(Product::getId).containsExactly(kept.getId());
+        assertThat(productRepository.findById(kept.getId()).orElseThrow().getImages()).hasSize(1);
+    }
+
+    @Test
+    public void testExportStreamsInUpdatedAtOrder() {
+        Product older = productRepository.save(sampleProduct("Older"));
+        Product newer = productRepository.save(sampleProduct("Newer"));
+        Product newest = productRepository.save(sampleProduct("Newest"));
+        entityManager.flush();
+        Instant t0 = Instant.parse("2024-01-01T00:00:00Z");
+        setUpdatedAt(newest, t0.plusSeconds(30));
+        setUpdatedAt(older, t0.plusSeconds(10));
+        setUpdatedAt(newer, t0.plusSeconds(20));
+        entityManager.clear();
+
+        try (var all = productRepository.streamAllForExport()) {
+            assertThat(all.map(Product::getName)).containsExactly("Older", "Newer", "Newest");
+        }
+        try (var changed = productRepository.streamUpdatedSince(t0.plusSeconds(10))) {
+            assertThat(changed.map(Product::getName)).containsExactly("Newer", "Newest");
+        }
+    }
+
+    @Test
+    public void testApplyRatingDeltaKeepsAggregatesAndAverageInStep() {
+        Product product = productRepository.save(sampleProduct("Rated"));
+        entityManager.flush();
+
+        productRepository.applyRatingDelta(product.getId(), 1, 5, 1, 0, 0, 0, 0, 1, Instant.now());
+        productRepository.applyRatingDelta(product.getId(), 2, 2, 1, 0, 1, 0, 0, 0, Instant.now());
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getReviewCount()).isEqualTo(2);
+        assertThat(reloaded.getRatingSum()).isEqualTo(7);
+        assertThat(reloaded.getAverageRating()).isEqualTo(3.5);
+        assertThat(reloaded.getRating2Count()).isEqualTo(1);
+        assertThat(reloaded.getRating5Count()).isEqualTo(1);
+    }
+
+    private Product sampleProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100.0);
+        product.setStock(10);
+        product.setModel("Model X");
+        product.setSerialNumber("SN-" + name);
+        product.setDescription("Test Description");
+        product.setBrand("Test Brand");
+        product.setProductType("TSHIRT");
+        product.setTargetAudience(TargetAudience.UNISEX);
+        product.setWarrantyStatus(WarrantyStatus.STANDARD);
+        product.setDistributorInfo("Distributor Info");
+        product.setActive(true);
+        return product;
+    }
+
+    private ProductVariant sampleVariant(Product product, String sku, Color color) {
+        return ProductVariant.builder()
+                .product(product)
+                .sku(sku)
+                .color(color)
+                .size(Size.M)
+                .stockQuantity(5)
+                .price(BigDecimal.TEN)
+                .sellable(true)
+                .build();
+    }
+
+    private void setUpdatedAt(Product product, Instant updatedAt) {
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE products SET updated_at = ?1 WHERE id = ?2")
+                .setParameter(1, updatedAt)
+                .setParameter(2, product.getId())
+                .executeUpdate();
+    }
+
+    /**
+     * SQL statements needed to run the query and initialize every returned
+     * product's images and variants, as serialization would.
+     */
+    private long statementsToLoad(Supplier<List<Product>> query) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Product> products = query.get();
+        assertThat(products).isNotEmpty();
+        for (Product product : products) {
+            product.getImages().size();
+            product.getVariants().size();
+        }
+        return statistics.getPrepareStatementCount();
+    }
 }
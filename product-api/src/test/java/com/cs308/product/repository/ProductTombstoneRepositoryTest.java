@@ -0,0 +1,82 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductTombstone;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.domain.enums.WarrantyStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ProductTombstoneRepositoryTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void recordsTombstonesForExistingProductsOnly() {
+        Product first = productRepository.save(sampleProduct("First"));
+        Product second = productRepository.save(sampleProduct("Second"));
+        entityManager.flush();
+
+        int recorded = tombstoneRepository.recordDeletes(List.of(first.getId(), second.getId(), 999_999L), T0);
+
+        assertThat(recorded).isEqualTo(2);
+        assertThat(tombstoneRepository.findAll()).extracting(ProductTombstone::getProductId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    @Test
+    void readsTombstonesAfterAPositionInFeedOrder() {
+        tombstoneRepository.saveAll(List.of(
+                tombstone(5L, T0.plusSeconds(1)),
+                tombstone(3L, T0.plusSeconds(2)),
+                tombstone(4L, T0.plusSeconds(2)),
+                tombstone(1L, T0.plusSeconds(3)),
+                tombstone(2L, T0.plusSeconds(9))));
+        entityManager.flush();
+
+        List<ProductTombstone> page = tombstoneRepository.findAfter(T0.plusSeconds(2), 3L, T0.plusSeconds(5),
+                Limit.of(10));
+
+        assertThat(page).extracting(ProductTombstone::getProductId).containsExactly(4L, 1L);
+
+        assertThat(tombstoneRepository.deleteOlderThan(T0.plusSeconds(2))).isEqualTo(1);
+        assertThat(tombstoneRepository.count()).isEqualTo(4);
+    }
+
+    private static ProductTombstone tombstone(Long productId, Instant deletedAt) {
+        return ProductTombstone.builder().productId(productId).deletedAt(deletedAt).build();
+    }
+
+    private Product sampleProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100.0);
+        product.setStock(1);
+        product.setModel("Model X");
+        product.setSerialNumber("SN-" + name);
+        product.setDescription("Test Description");
+        product.setDistributorInfo("Distributor Info");
+        product.setProductType("TSHIRT");
+        product.setTargetAudience(TargetAudience.UNISEX);
+        product.setWarrantyStatus(WarrantyStatus.STANDARD);
+        return product;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.domain.enums.WarrantyStatus;
+import com.cs308.product.model.VariantLookup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ProductVariantRepositoryTest {
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void looksVariantsUpBySkuOrBarcode() {
+        Product tee = productRepository.save(sampleProduct("Tee"));
+        Product cap = productRepository.save(sampleProduct("Cap"));
+        variantRepository.saveAll(List.of(
+                variant(tee, "TEE-BLK-M", "8690000000011", Color.BLACK),
+                variant(tee, "TEE-WHT-M", null, Color.WHITE),
+                variant(cap, "CAP-1", "8690000000028", Color.BLACK)));
+        entityManager.flush();
+
+        List<VariantLookup> found = variantRepository.findLookupsByCodeIn(List.of("TEE-WHT-M", "8690000000028", "nope"));
+
+        assertThat(found).extracting(VariantLookup::getSku).containsExactlyInAnyOrder("TEE-WHT-M", "CAP-1");
+        VariantLookup white = found.stream().filter(v -> v.getSku().equals("TEE-WHT-M")).findFirst().orElseThrow();
+        assertThat(white.getProductId()).isEqualTo(tee.getId());
+        assertThat(white.getColor()).isEqualTo(Color.WHITE);
+        assertThat(white.getStockQuantity()).isEqualTo(5);
+
+        assertThat(variantRepository.findLookupsByProductIdIn(List.of(tee.getId()))).hasSize(2);
+        assertThat(variantRepository.findAllLookups()).hasSize(3);
+    }
+
+    private static ProductVariant variant(Product product, String sku, String barcode, Color color) {
+        return ProductVariant.builder()
+                .product(product)
+                .sku(sku)
+                .barcode(barcode)
+                .color(color)
+                .size(Size.M)
+                .stockQuantity(5)
+                .price(new BigDecimal("99.90"))
+                .sellable(true)
+                .build();
+    }
+
+    private Product sampleProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100.0);
+        product.setStock(1);
+        product.setModel("Model X");
+        product.setSerialNumber("SN-" + name);
+        product.setDescription("Test Description");
+        product.setDistributorInfo("Distributor Info");
+        product.setProductType("TSHIRT");
+        product.setTargetAudience(TargetAudience.UNISEX);
+        product.setWarrantyStatus(WarrantyStatus.STANDARD);
+        return product;
+    }
+}
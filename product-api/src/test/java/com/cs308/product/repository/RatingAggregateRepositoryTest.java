@@ -0,0 +1,158 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.Review;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.domain.enums.WarrantyStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// UPDATE ... FROM is PostgreSQL syntax, so H2 runs in its PostgreSQL mode here
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ratings;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RatingAggregateRepository.class)
+class RatingAggregateRepositoryTest {
+
+    private static final Instant LONG_AGO = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Autowired
+    private RatingAggregateRepository ratingAggregateRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void resyncAllRebuildsDriftedAggregatesAndSkipsConsistentRows() {
+        Product rated = productRepository.save(sampleProduct("Rated"));
+        Product drifted = sampleProduct("Drifted");
+        drifted.setReviewCount(3L);
+        drifted.setRatingSum(12L);
+        drifted.setAverageRating(4.0);
+        drifted = productRepository.save(drifted);
+        productRepository.save(sampleProduct("Unrated"));
+        entityManager.persist(review(rated.getId(), 1L, 5));
+        entityManager.persist(review(rated.getId(), 2L, 2));
+        entityManager.persist(review(rated.getId(), 3L, null));
+        entityManager.flush();
+
+        assertThat(ratingAggregateRepository.resyncAll()).isEqualTo(2);
+        entityManager.clear();
+
+        Product reloaded = productRepository.findById(rated.getId()).orElseThrow();
+        assertThat(reloaded.getReviewCount()).isEqualTo(2);
+        assertThat(reloaded.getRatingSum()).isEqualTo(7);
+        assertThat(reloaded.getAverageRating()).isEqualTo(3.5);
+        assertThat(reloaded.getRating5Count()).isEqualTo(1);
+        assertThat(reloaded.getRating2Count()).isEqualTo(1);
+        assertThat(productRepository.findById(drifted.getId()).orElseThrow().getReviewCount()).isZero();
+
+        assertThat(ratingAggregateRepository.resyncAll()).isZero();
+    }
+
+    @Test
+    void resyncChangedSinceOnlyTouchesRecentlyReviewedProducts() {
+        Product product = productRepository.save(sampleProduct("Recent"));
+        entityManager.persist(review(product.getId(), 1L, 4));
+        entityManager.flush();
+
+        assertThat(ratingAggregateRepository.resyncChangedSince(Instant.now().plusSeconds(60))).isZero();
+        assertThat(ratingAggregateRepository.resyncChangedSince(Instant.now().minusSeconds(60))).isEqualTo(1);
+    }
+
+    @Test
+    void resyncProductCountsEachReviewOnce() {
+        Product product = productRepository.save(sampleProduct("Single"));
+        Product other = productRepository.save(sampleProduct("Other"));
+        entityManager.persist(review(product.getId(), 1L, 5));
+        entityManager.persist(review(other.getId(), 1L, 1));
+        entityManager.flush();
+
+        assertThat(ratingAggregateRepository.resyncAll()).isEqualTo(2);
+        // A recompute right after the resync does not add the review again
+        assertThat(ratingAggregateRepository.resyncProduct(product.getId())).isZero();
+        entityManager.persist(review(product.getId(), 2L, 3));
+        entityManager.flush();
+        backdate(product.getId());
+        assertThat(ratingAggregateRepository.resyncProduct(product.getId())).isEqualTo(1);
+        entityManager.clear();
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getReviewCount()).isEqualTo(2);
+        assertThat(reloaded.getRatingSum()).isEqualTo(8);
+        assertThat(reloaded.getAverageRating()).isEqualTo(4.0);
+        assertThat(reloaded.getUpdatedAt()).isAfter(LONG_AGO);
+    }
+
+    private void backdate(Long productId) {
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE products SET updated_at = :t WHERE id = :id")
+                .setParameter("t", LONG_AGO)
+                .setParameter("id", productId)
+                .executeUpdate();
+    }
+
+    @Test
+    void deltaOfAReviewTheResyncCountedIsNotAddedAgain() {
+        Product product = productRepository.save(sampleProduct("Overlap"));
+        Review counted = entityManager.persist(review(product.getId(), 1L, 5));
+        entityManager.flush();
+
+        assertThat(ratingAggregateRepository.resyncAll()).isEqualTo(1);
+        // The review's pending delta arrives after the resync counted it
+        assertThat(productRepository.applyRatingDelta(product.getId(), counted.getId(), 5, 1, 0, 0, 0, 0, 1,
+                Instant.now())).isZero();
+        Review later = entityManager.persist(review(product.getId(), 2L, 3));
+        entityManager.flush();
+        assertThat(productRepository.applyRatingDelta(product.getId(), later.getId(), 3, 1, 0, 0, 1, 0, 0,
+                Instant.now())).isEqualTo(1);
+        entityManager.clear();
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getReviewCount()).isEqualTo(2);
+        assertThat(reloaded.getRatingSum()).isEqualTo(8);
+        assertThat(reloaded.getAverageRating()).isEqualTo(4.0);
+        assertThat(reloaded.getRatingWatermark()).isEqualTo(counted.getId());
+        assertThat(ratingAggregateRepository.resyncProduct(product.getId())).isZero();
+    }
+
+    private Review review(Long productId, Long userId, Integer rating) {
+        return Review.builder()
+                .productId(productId)
+                .userId(userId)
+                .rating(rating)
+                .approved(true)
+                .build();
+    }
+
+    private Product sampleProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100.0);
+        product.setStock(5);
+        product.setModel("Model X");
+        product.setSerialNumber("SN-" + name);
+        product.setDescription("Test Description");
+        product.setDistributorInfo("Distributor Info");
+        product.setProductType("TSHIRT");
+        product.setTargetAudience(TargetAudience.UNISEX);
+        product.setWarrantyStatus(WarrantyStatus.STANDARD);
+        return product;
+    }
+}
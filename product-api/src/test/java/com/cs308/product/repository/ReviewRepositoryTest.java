@@ -0,0 +1,96 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Review;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ReviewRepositoryTest {
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Test
+    void ratedPagesWalkEveryRatedReviewOnceNewestFirst() {
+        List<Review> saved = new ArrayList<>();
+        for (long user = 1; user <= 7; user++) {
+            saved.add(reviewRepository.save(Review.builder()
+                    .productId(1L)
+                    .userId(user)
+                    .rating(user == 4 ? null : (int) (user % 5) + 1)
+                    .approved(true)
+                    .build()));
+        }
+        reviewRepository.save(Review.builder().productId(2L).userId(1L).rating(5).approved(true).build());
+        reviewRepository.flush();
+
+        List<Long> walked = new ArrayList<>();
+        List<Review> page = reviewRepository.findRatedPage(1L, Limit.of(2));
+        while (!page.isEmpty()) {
+            page.forEach(review -> walked.add(review.getId()));
+            Review last = page.get(page.size() - 1);
+            page = reviewRepository.findRatedPageAfter(1L, last.getCreatedAt(), last.getId(), Limit.of(2));
+        }
+
+        List<Long> expected = saved.stream()
+                .filter(review -> review.getRating() != null)
+                .sorted(Comparator.comparing(Review::getCreatedAt).thenComparing(Review::getId).reversed())
+                .map(Review::getId)
+                .toList();
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void pendingPagesWalkTheQueueOldestFirst() {
+        List<Long> pending = new ArrayList<>();
+        for (long user = 1; user <= 5; user++) {
+            pending.add(reviewRepository.save(Review.builder()
+                    .productId(1L).userId(user).comment("c" + user).build()).getId());
+        }
+        reviewRepository.save(Review.builder().productId(1L).userId(9L).comment("ok").approved(true).build());
+        reviewRepository.flush();
+
+        List<Long> walked = new ArrayList<>();
+        List<Review> page = reviewRepository.findPendingPage(Limit.of(2));
+        while (!page.isEmpty()) {
+            page.forEach(review -> walked.add(review.getId()));
+            Review last = page.get(page.size() - 1);
+            page = reviewRepository.findPendingPageAfter(last.getCreatedAt(), last.getId(), Limit.of(2));
+        }
+
+        assertThat(walked).containsExactlyElementsOf(pending);
+    }
+
+    @Test
+    void bulkModerationTouchesOnlyMatchingReviews() {
+        Long rated = reviewRepository.save(Review.builder()
+                .productId(1L).userId(1L).rating(4).comment("rated").build()).getId();
+        Long commentOnly = reviewRepository.save(Review.builder()
+                .productId(1L).userId(2L).comment("only").build()).getId();
+        Long approved = reviewRepository.save(Review.builder()
+                .productId(1L).userId(3L).comment("done").approved(true).build()).getId();
+        reviewRepository.flush();
+
+        assertThat(reviewRepository.approveAll(List.of(rated, approved, 999L), Instant.now())).isEqualTo(1);
+        assertThat(reviewRepository.findById(rated).orElseThrow().isApproved()).isTrue();
+
+        List<Long> ids = List.of(rated, commentOnly);
+        assertThat(reviewRepository.clearCommentsOf(ids, Instant.now())).isEqualTo(1);
+        assertThat(reviewRepository.deleteUnratedIn(ids)).isEqualTo(1);
+
+        Review kept = reviewRepository.findById(rated).orElseThrow();
+        assertThat(kept.getComment()).isNull();
+        assertThat(kept.getRating()).isEqualTo(4);
+        assertThat(reviewRepository.existsById(commentOnly)).isFalse();
+        assertThat(reviewRepository.existsById(approved)).isTrue();
+    }
+}
@@ -0,0 +1,178 @@
+package com.cs308.product.repository;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.domain.enums.WarrantyStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(StockRepository.class)
+class StockRepositoryTest {
+
+    private static final Instant LONG_AGO = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void decrementsOnlyLinesWithEnoughStock() {
+        Product plenty = productRepository.save(sampleProduct("Plenty", 10));
+        Product scarce = productRepository.save(sampleProduct("Scarce", 1));
+        entityManager.flush();
+
+        int[] updated = stockRepository.decrementStock(new TreeMap<>(Map.of(
+                plenty.getId(), 4,
+                scarce.getId(), 2,
+                999_999L, 1)), Map.of());
+        entityManager.clear();
+
+        assertThat(updated).containsExactly(1, 0, 0);
+        Product reloaded = productRepository.findById(plenty.getId()).orElseThrow();
+        assertThat(reloaded.getStock()).isEqualTo(6);
+        assertThat(reloaded.getSalesCount()).isZero();
+        assertThat(productRepository.findById(scarce.getId()).orElseThrow().getStock()).isEqualTo(1);
+    }
+
+    @Test
+    void heldUnitsStayInStock() {
+        Product product = productRepository.save(sampleProduct("Held", 5));
+        entityManager.flush();
+
+        Map<Long, Integer> held = Map.of(product.getId(), 2);
+        assertThat(stockRepository.decrementStock(Map.of(product.getId(), 4), held)).containsExactly(0);
+        assertThat(stockRepository.decrementStock(Map.of(product.getId(), 3), held)).containsExactly(1);
+        assertThat(stockRepository.findStock(List.of(product.getId(), 999_999L)))
+                .isEqualTo(Map.of(product.getId(), 2));
+    }
+
+    @Test
+    void decrementsAndRestoresVariantStock() {
+        Product product = productRepository.save(sampleProduct("Tee", 5));
+        ProductVariant medium = variant(product, "TEE-M", Size.M, 3);
+        ProductVariant large = variant(product, "TEE-L", Size.L, 2);
+        entityManager.persist(medium);
+        entityManager.persist(large);
+        entityManager.flush();
+
+        Map<Long, Integer> held = Map.of(medium.getId(), 1);
+        assertThat(stockRepository.decrementVariantStock(Map.of(medium.getId(), 3), held)).containsExactly(0);
+        int[] updated = stockRepository.decrementVariantStock(new TreeMap<>(Map.of(
+                medium.getId(), 2,
+                large.getId(), 3)), held);
+        assertThat(updated).containsExactly(1, 0);
+        assertThat(stockRepository.findVariantStock(List.of(product.getId(), 999_999L)))
+                .isEqualTo(Map.of(product.getId(), Map.of(medium.getId(), 1, large.getId(), 2)));
+
+        assertThat(stockRepository.restoreStock(product.getId(), large.getId(), 4)).isTrue();
+        assertThat(stockRepository.restoreStock(999_999L, null, 1)).isFalse();
+        entityManager.clear();
+
+        assertThat(entityManager.find(ProductVariant.class, medium.getId()).getStockQuantity()).isEqualTo(1);
+        assertThat(entityManager.find(ProductVariant.class, large.getId()).getStockQuantity()).isEqualTo(6);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(9);
+    }
+
+    @Test
+    void setsVariantStockAndKeepsTheProductTotal() {
+        Product product = productRepository.save(sampleProduct("Tee", 5));
+        ProductVariant medium = variant(product, "TEE-M", Size.M, 3);
+        ProductVariant large = variant(product, "TEE-L", Size.L, 2);
+        entityManager.persist(medium);
+        entityManager.persist(large);
+        entityManager.flush();
+
+        assertThat(stockRepository.setVariantStock(product.getId(), large.getId(), 6)).isEqualTo(4);
+        assertThat(stockRepository.setVariantStock(product.getId(), 999_999L, 1)).isNull();
+        entityManager.clear();
+
+        assertThat(entityManager.find(ProductVariant.class, large.getId()).getStockQuantity()).isEqualTo(6);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(9);
+    }
+
+    @Test
+    void syncsProductStockWithItsVariants() {
+        Product drifted = productRepository.save(sampleProduct("Drifted", 40));
+        Product plain = productRepository.save(sampleProduct("Plain", 7));
+        entityManager.persist(variant(drifted, "DR-M", Size.M, 3));
+        entityManager.persist(variant(drifted, "DR-L", Size.L, 2));
+        entityManager.flush();
+
+        assertThat(stockRepository.syncStockWithVariants()).isEqualTo(1);
+        assertThat(stockRepository.syncStockWithVariants()).isZero();
+        entityManager.clear();
+
+        assertThat(productRepository.findById(drifted.getId()).orElseThrow().getStock()).isEqualTo(5);
+        assertThat(productRepository.findById(plain.getId()).orElseThrow().getStock()).isEqualTo(7);
+    }
+
+    @Test
+    void incrementsSalesCounts() {
+        Product product = productRepository.save(sampleProduct("Popular", 5));
+        entityManager.flush();
+        backdate(product.getId());
+
+        stockRepository.incrementSalesCounts(Map.of(product.getId(), 7L, 999_999L, 1L));
+        stockRepository.incrementSalesCounts(Map.of(product.getId(), 2L));
+        entityManager.clear();
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getSalesCount()).isEqualTo(9);
+        assertThat(reloaded.getUpdatedAt()).isAfter(LONG_AGO);
+    }
+
+    private void backdate(Long productId) {
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE products SET updated_at = :t WHERE id = :id")
+                .setParameter("t", LONG_AGO)
+                .setParameter("id", productId)
+                .executeUpdate();
+    }
+
+    private static ProductVariant variant(Product product, String sku, Size size, int stock) {
+        return ProductVariant.builder()
+                .product(product)
+                .sku(sku)
+                .color(Color.BLACK)
+                .size(size)
+                .stockQuantity(stock)
+                .price(new BigDecimal("99.90"))
+                .sellable(true)
+                .build();
+    }
+
+    private Product sampleProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(100.0);
+        product.setStock(stock);
+        product.setModel("Model X");
+        product.setSerialNumber("SN-" + name);
+        product.setDescription("Test Description");
+        product.setDistributorInfo("Distributor Info");
+        product.setProductType("TSHIRT");
+        product.setTargetAudience(TargetAudience.UNISEX);
+        product.setWarrantyStatus(WarrantyStatus.STANDARD);
+        return product;
+    }
+}
@@ -0,0 +1,97 @@
+package com.cs308.product.search;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Fit;
+import com.cs308.product.domain.enums.Season;
+import com.cs308.product.domain.enums.TargetAudience;
+import com.cs308.product.model.ProductFacets;
+import com.cs308.product.repository.ProductSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex();
+        index.rebuild(
+                List.of(
+                        product(1L, "T_SHIRT", TargetAudience.MEN, Season.SUMMER, Fit.SLIM),
+                        product(2L, "T_SHIRT", TargetAudience.WOMEN, Season.SUMMER, Fit.REGULAR),
+                        product(3L, "JEANS", TargetAudience.MEN, Season.ALL_SEASON, Fit.SLIM)),
+                List.of(
+                        new Object[] { 1L, Color.BLACK },
+                        new Object[] { 1L, Color.WHITE },
+                        new Object[] { 2L, Color.WHITE },
+                        new Object[] { 3L, Color.BLUE }));
+    }
+
+    @Test
+    void countsEveryFacetForTheWholeCatalog() {
+        ProductFacets facets = index.facets(ProductSearchCriteria.builder().build());
+
+        assertThat(facets.getTotal()).isEqualTo(3);
+        assertThat(facets.getFacets().get(ProductFacetIndex.PRODUCT_TYPE))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("JEANS", 1, "T_SHIRT", 2));
+        assertThat(facets.getFacets().get(ProductFacetIndex.COLOR))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("BLACK", 1, "WHITE", 2, "BLUE", 1));
+        assertThat(facets.getFacets().get(ProductFacetIndex.FIT))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("SLIM", 2, "REGULAR", 1));
+    }
+
+    @Test
+    void facetIgnoresItsOwnSelectionButAppliesTheOthers() {
+        ProductFacets facets = index.facets(ProductSearchCriteria.builder()
+                .productType("t_shirt")
+                .targetAudience(TargetAudience.MEN)
+                .build());
+
+        assertThat(facets.getTotal()).isEqualTo(1);
+        // productType counts are restricted by audience only
+        assertThat(facets.getFacets().get(ProductFacetIndex.PRODUCT_TYPE))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("JEANS", 1, "T_SHIRT", 1));
+        // audience counts are restricted by productType only
+        assertThat(facets.getFacets().get(ProductFacetIndex.TARGET_AUDIENCE))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("MEN", 1, "WOMEN", 1));
+        assertThat(facets.getFacets().get(ProductFacetIndex.SEASON))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("SUMMER", 1));
+    }
+
+    @Test
+    void candidateIdsAndIncrementalUpdatesAreApplied() {
+        Product moved = product(2L, "JEANS", TargetAudience.WOMEN, Season.WINTER, Fit.LOOSE);
+        moved.getVariants().add(ProductVariant.builder().product(moved).color(Color.NAVY).build());
+        index.index(moved);
+        index.remove(1L);
+
+        ProductFacets facets = index.facets(ProductSearchCriteria.builder()
+                .productIds(List.of(2L, 3L, 99L))
+                .build());
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getFacets().get(ProductFacetIndex.PRODUCT_TYPE))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("JEANS", 2));
+        assertThat(facets.getFacets().get(ProductFacetIndex.COLOR))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("NAVY", 1, "BLUE", 1));
+    }
+
+    private static Product product(Long id, String type, TargetAudience audience, Season season, Fit fit) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .productType(type)
+                .targetAudience(audience)
+                .season(season)
+                .fit(fit)
+                .build();
+    }
+}
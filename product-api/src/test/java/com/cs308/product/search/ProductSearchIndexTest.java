@@ -0,0 +1,95 @@
+package com.cs308.product.search;
+
+import com.cs308.product.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.rebuild(List.of(
+                product(1L, "Oversize Basic T-Shirt", "BasicLab", "Unisex pamuk t-shirt", "%100 Cotton"),
+                product(2L, "Yün Gömlek", "Denim&Co", "Kışlık şık gömlek", "Wool"),
+                product(3L, "Cotton Shirt", "İSTANBUL Atelier", "Klasik gömlek", "Cotton")));
+    }
+
+    @Test
+    void foldsTurkishCharactersAndCase() {
+        assertThat(index.search("gomlek").keySet()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.search("istanbul").keySet()).containsExactly(3L);
+        assertThat(index.search("KIŞLIK").keySet()).containsExactly(2L);
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        // "gömlek" is in the name of 2 but only in the description of 3
+        assertThat(index.search("gömlek").keySet()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void termsAreAndedAndLastTermMatchesAsPrefix() {
+        assertThat(index.search("cotton shi").keySet()).containsExactly(3L, 1L);
+        assertThat(index.search("tshirt").keySet()).containsExactly(1L);
+        assertThat(index.search("cotton wool").keySet()).isEmpty();
+    }
+
+    @Test
+    void prefixOfTooManyTermsIsLeftToTheSqlSearch() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 70; id++) {
+            products.add(product(id, String.format("Model%03d Jacket", id), "Brand", "", ""));
+        }
+        index.rebuild(products);
+
+        // "mod" prefixes 70 terms, more than are expanded
+        assertThat(index.canAnswer("jacket mod")).isFalse();
+        assertThat(index.canAnswer("model00")).isTrue();
+        assertThat(index.search("model00").keySet()).hasSize(9);
+        // No terms at all: single letters are not indexed
+        assertThat(index.canAnswer("t")).isFalse();
+        assertThat(new ProductSearchIndex().canAnswer("jacket")).isFalse();
+    }
+
+    @Test
+    void reindexAndRemoveKeepPostingsCurrent() {
+        index.index(product(2L, "Wool Coat", "Denim&Co", "Warm coat", "Wool"));
+        assertThat(index.search("gomlek").keySet()).containsExactly(3L);
+        assertThat(index.search("coat").keySet()).containsExactly(2L);
+
+        index.remove(3L);
+        assertThat(index.search("gomlek")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void writesDuringRebuildAreReportedForReplay() {
+        assertThat(index.finishRebuild()).isEmpty();
+
+        index.startRebuild();
+        index.index(product(4L, "Linen Shirt", "Denim&Co", "Summer shirt", "Linen"));
+        index.remove(3L);
+        index.rebuild(List.of(product(1L, "Blue Jeans", "Levi's", "Slim fit", "Denim")));
+
+        assertThat(index.finishRebuild()).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(index.finishRebuild()).isEmpty();
+    }
+
+    private static Product product(Long id, String name, String brand, String description, String material) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .brand(brand)
+                .description(description)
+                .material(material)
+                .build();
+    }
+}
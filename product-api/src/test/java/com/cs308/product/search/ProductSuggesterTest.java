@@ -0,0 +1,70 @@
+package com.cs308.product.search;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.model.ProductSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSuggesterTest {
+
+    private ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new ProductSuggester();
+        suggester.rebuild(List.of(
+                product(1L, "Basic T-Shirt", "BasicLab", "T_SHIRT", 5),
+                product(2L, "Basic Sweater", "BasicLab", "SWEATER", 40),
+                product(3L, "Slim Jeans", "Denim&Co", "JEANS", 20),
+                product(4L, "Şal Yaka Gömlek", "Bosphorus", "SHIRT", 1)),
+                List.of("T_SHIRT", "SWEATER", "JEANS", "SHIRT"));
+    }
+
+    @Test
+    void ranksBySalesAcrossProductsBrandsAndCategories() {
+        assertThat(texts(suggester.suggest("bas", 10)))
+                .containsExactly("BasicLab", "Basic Sweater", "Basic T-Shirt");
+        // Brand weight is the sum of its products' sales (45)
+        assertThat(suggester.suggest("bas", 1).get(0).getType()).isEqualTo(ProductSuggestion.Type.BRAND);
+    }
+
+    @Test
+    void matchesAnyWordStartAndFoldsTurkishCharacters() {
+        assertThat(texts(suggester.suggest("gom", 10))).containsExactly("Şal Yaka Gömlek");
+        assertThat(texts(suggester.suggest("SAL", 10))).containsExactly("Şal Yaka Gömlek");
+        assertThat(texts(suggester.suggest("shirt", 10))).containsExactly("T_SHIRT", "Basic T-Shirt", "SHIRT");
+        assertThat(suggester.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void incrementalUpdatesReorderAndRemoveEntries() {
+        suggester.upsertProduct(product(1L, "Basic T-Shirt", "BasicLab", "T_SHIRT", 100));
+        assertThat(texts(suggester.suggest("basic", 10)))
+                .containsExactly("BasicLab", "Basic T-Shirt", "Basic Sweater");
+
+        suggester.removeProduct(1L);
+        suggester.removeProduct(2L);
+        assertThat(suggester.suggest("basic", 10)).isEmpty();
+
+        suggester.removeCategory("JEANS");
+        assertThat(texts(suggester.suggest("jea", 10))).containsExactly("Slim Jeans");
+    }
+
+    private static List<String> texts(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getText).toList();
+    }
+
+    private static Product product(Long id, String name, String brand, String productType, int sales) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .brand(brand)
+                .productType(productType)
+                .salesCount(sales)
+                .build();
+    }
+}
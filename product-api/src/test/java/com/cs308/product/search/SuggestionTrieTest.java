@@ -0,0 +1,40 @@
+package com.cs308.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    @Test
+    void removePrunesBranchesThatLeadNowhere() {
+        SuggestionTrie<String> trie = new SuggestionTrie<>();
+        trie.put("p:1", "basic tee", 5, "Basic Tee");
+        int nodes = trie.nodeCount();
+
+        // Renaming over and over must not grow the trie
+        for (int i = 0; i < 100; i++) {
+            trie.put("p:2", "limited run " + i, 1, "Limited Run " + i);
+            trie.remove("p:2");
+        }
+        assertThat(trie.nodeCount()).isEqualTo(nodes);
+        assertThat(trie.top("lim", 10)).isEmpty();
+        assertThat(trie.top("bas", 10)).containsExactly("Basic Tee");
+
+        trie.remove("p:1");
+        assertThat(trie.nodeCount()).isZero();
+        assertThat(trie.top("b", 10)).isEmpty();
+    }
+
+    @Test
+    void removeKeepsSharedPrefixesOfOtherEntries() {
+        SuggestionTrie<String> trie = new SuggestionTrie<>();
+        trie.put("p:1", "basic", 5, "Basic");
+        trie.put("p:2", "basics pack", 9, "Basics Pack");
+
+        trie.remove("p:2");
+
+        assertThat(trie.top("bas", 10)).containsExactly("Basic");
+        assertThat(trie.nodeCount()).isEqualTo("basic".length());
+    }
+}
@@ -0,0 +1,107 @@
+package com.cs308.product.search;
+
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import com.cs308.product.model.VariantLookup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VariantLookupIndexTest {
+
+    private VariantLookupIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VariantLookupIndex();
+        index.rebuild(List.of(
+                variant(1L, 10L, "TEE-BLK-M", "8690000000011"),
+                variant(2L, 10L, "TEE-WHT-M", null),
+                variant(3L, 20L, "CAP-1", "8690000000028")));
+    }
+
+    @Test
+    void findsBySkuOrBarcode() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.find("TEE-BLK-M").getVariantId()).isEqualTo(1L);
+        assertThat(index.find("8690000000028").getVariantId()).isEqualTo(3L);
+        assertThat(index.find("TEE-WHT-M").getProductId()).isEqualTo(10L);
+        assertThat(index.find("missing")).isNull();
+    }
+
+    @Test
+    void replacingAVariantDropsItsOldCodes() {
+        index.putAll(List.of(variant(1L, 10L, "TEE-BLK-M2", "8690000000035")));
+
+        assertThat(index.find("TEE-BLK-M")).isNull();
+        assertThat(index.find("8690000000011")).isNull();
+        assertThat(index.find("TEE-BLK-M2").getVariantId()).isEqualTo(1L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void removingAProductDropsAllItsVariants() {
+        index.removeProduct(10L);
+
+        assertThat(index.find("TEE-BLK-M")).isNull();
+        assertThat(index.find("8690000000011")).isNull();
+        assertThat(index.find("TEE-WHT-M")).isNull();
+        assertThat(index.find("CAP-1").getVariantId()).isEqualTo(3L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void survivesGrowthAndRemovalsInsideProbeRuns() {
+        List<VariantLookup> variants = new ArrayList<>();
+        for (long i = 0; i < 5_000; i++) {
+            variants.add(variant(i, i / 4, "SKU-" + i, "BC-" + i));
+        }
+        index.rebuild(List.of());
+        index.putAll(variants);
+        for (long product = 0; product < 1_250; product += 2) {
+            index.removeProduct(product);
+        }
+
+        assertThat(index.size()).isEqualTo(2_500);
+        for (long i = 0; i < 5_000; i++) {
+            boolean kept = (i / 4) % 2 == 1;
+            VariantLookup bySku = index.find("SKU-" + i);
+            VariantLookup byBarcode = index.find("BC-" + i);
+            if (kept) {
+                assertThat(bySku.getVariantId()).isEqualTo(i);
+                assertThat(byBarcode.getVariantId()).isEqualTo(i);
+            } else {
+                assertThat(bySku).isNull();
+                assertThat(byBarcode).isNull();
+            }
+        }
+    }
+
+    @Test
+    void tableKeepsLookupsCorrectWhenKeysShareAHomeSlot() {
+        VariantLookupIndex.CodeTable table = new VariantLookupIndex.CodeTable();
+        // "Aa" and "BB" have the same String.hashCode, so they probe from the same slot
+        table.put("Aa", variant(1L, 1L, "Aa", null));
+        table.put("BB", variant(2L, 1L, "BB", null));
+        table.put("AaAa", variant(3L, 1L, "AaAa", null));
+        table.put("BBBB", variant(4L, 1L, "BBBB", null));
+
+        table.remove("Aa", 1L);
+        table.remove("BB", 99L);
+
+        assertThat(table.get("Aa")).isNull();
+        assertThat(table.get("BB").getVariantId()).isEqualTo(2L);
+        assertThat(table.get("AaAa").getVariantId()).isEqualTo(3L);
+        assertThat(table.get("BBBB").getVariantId()).isEqualTo(4L);
+        assertThat(table.size()).isEqualTo(3);
+    }
+
+    private static VariantLookup variant(Long id, Long productId, String sku, String barcode) {
+        return new VariantLookup(id, productId, sku, barcode, Color.BLACK, Size.M, 5, new BigDecimal("99.90"));
+    }
+}
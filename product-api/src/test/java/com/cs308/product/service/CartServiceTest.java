@@ -3,8 +3,10 @@ package com.cs308.product.service;
 import com.cs308.product.domain.Cart;
 import com.cs308.product.domain.CartItem;
 import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductVariant;
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
 import com.cs308.product.repository.CartRepository;
-import com.cs308.product.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -30,7 +32,7 @@ class CartServiceTest {
     private CartRepository cartRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private ProductCache productCache;
 
     @InjectMocks
     private CartService cartService;
@@ -72,13 +74,13 @@ class CartServiceTest {
 
         Product product = buildProduct(productId, 100.0, 10);
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
         when(cartRepository.save(any(Cart.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        Cart result = cartService.addToCart(userId, productId, qty, "M");
+        Cart result = cartService.addToCart(userId, productId, qty, "M", null);
 
         // THEN
         assertNotNull(result);
@@ -92,7 +94,7 @@ class CartServiceTest {
         assertEquals(100.0 * qty, result.getTotalPrice());
         assertEquals(qty, result.getTotalQuantity());
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
         verify(cartRepository).findByUserId(userId);
     }
 
@@ -108,7 +110,7 @@ class CartServiceTest {
         CartItem existingItem = buildCartItem(cart, product, 2);
         cart.setItems(new ArrayList<>(List.of(existingItem)));
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
         when(cartRepository.save(any(Cart.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
@@ -116,7 +118,7 @@ class CartServiceTest {
         int qtyToAdd = 3;
 
         // WHEN
-        Cart result = cartService.addToCart(userId, productId, qtyToAdd, "M");
+        Cart result = cartService.addToCart(userId, productId, qtyToAdd, "M", null);
 
         // THEN
         assertEquals(1, result.getItems().size());
@@ -126,7 +128,7 @@ class CartServiceTest {
         assertEquals(50.0 * 5, result.getTotalPrice());
         assertEquals(5, result.getTotalQuantity());
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
         verify(cartRepository).findByUserId(userId);
     }
 
@@ -137,14 +139,14 @@ class CartServiceTest {
 
         Product product = buildProduct(productId, 50.0, 0);
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
 
         OutOfStockException ex = assertThrows(OutOfStockException.class,
-                () -> cartService.addToCart(userId, productId, 1, "M"));
+                () -> cartService.addToCart(userId, productId, 1, "M", null));
 
         assertTrue(ex.getMessage().toLowerCase().contains("out of stock"));
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
 
     }
 
@@ -156,17 +158,17 @@ class CartServiceTest {
 
         Product product = buildProduct(productId, 50.0, 2);
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
 
         // WHEN - THEN
         OutOfStockException ex = assertThrows(OutOfStockException.class,
-                () -> cartService.addToCart(userId, productId, 3, "M")); // 3 > stock
+                () -> cartService.addToCart(userId, productId, 3, "M", null)); // 3 > stock
 
         assertTrue(ex.getMessage().toLowerCase().contains("stock")
                 || ex.getMessage().toLowerCase().contains("enough"));
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
         verify(cartRepository).findByUserId(userId);
     }
 
@@ -182,20 +184,45 @@ class CartServiceTest {
         CartItem existingItem = buildCartItem(cart, product, 3);
         cart.setItems(new ArrayList<>(List.of(existingItem)));
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
         when(cartRepository.findByUserId(userId)).thenReturn(Optional.of(cart));
 
         // WHEN - THEN
         OutOfStockException ex = assertThrows(OutOfStockException.class,
-                () -> cartService.addToCart(userId, productId, 2, "M")); // 3 + 2 = 5 > 4
+                () -> cartService.addToCart(userId, productId, 2, "M", null)); // 3 + 2 = 5 > 4
 
         assertTrue(ex.getMessage().toLowerCase().contains("stock")
                 || ex.getMessage().toLowerCase().contains("enough"));
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
         verify(cartRepository).findByUserId(userId);
     }
 
+    @Test
+    void addToCart_shouldCheckTheVariantStock_whenProductHasVariants() {
+        Long userId = 10L;
+        Long productId = 5L;
+
+        Product product = buildProduct(productId, 50.0, 12);
+        ProductVariant medium = ProductVariant.builder().id(50L).product(product)
+                .color(Color.BLACK).size(Size.M).stockQuantity(2).build();
+        ProductVariant large = ProductVariant.builder().id(51L).product(product)
+                .color(Color.BLACK).size(Size.L).stockQuantity(10).build();
+        product.getVariants().addAll(List.of(medium, large));
+
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
+        when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // 3 of 12 in total, but only 2 in size M
+        assertThrows(OutOfStockException.class, () -> cartService.addToCart(userId, productId, 3, "M", null));
+
+        Cart result = cartService.addToCart(userId, productId, 3, "l", Color.BLACK);
+        CartItem item = result.getItems().get(0);
+        assertEquals(large, item.getVariant());
+        assertEquals("L", item.getSize());
+    }
+
     @Test
     void getCart_shouldReturnCart_whenCartExists() {
         // GIVEN
@@ -0,0 +1,114 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong now = new AtomicLong();
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(productRepository, transactionManager, 2, Duration.ofSeconds(60), now::get);
+    }
+
+    @Test
+    void secondLookupIsServedFromCache() {
+        Product product = product(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertSame(product, cache.findById(1L).orElseThrow());
+        assertSame(product, cache.findById(1L).orElseThrow());
+
+        verify(productRepository, times(1)).findById(1L);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+
+        cache.findById(1L);
+        cache.invalidate(1L);
+        cache.findById(1L);
+
+        verify(productRepository, times(2)).findById(1L);
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredEntries() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product(2L)));
+        when(productRepository.findById(3L)).thenReturn(Optional.of(product(3L)));
+
+        cache.findById(1L);
+        cache.findById(2L);
+        cache.findById(1L); // 2 is now the least recently used
+        cache.findById(3L);
+        assertEquals(1, cache.stats().evictions());
+
+        cache.findById(2L);
+        verify(productRepository, times(2)).findById(2L);
+
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        cache.findById(3L);
+        verify(productRepository, times(2)).findById(3L);
+    }
+
+    @Test
+    void loadRacingWithInvalidationIsNotCached() {
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            // A writer commits while the stale row is being read
+            cache.invalidate(1L);
+            return Optional.of(product(1L));
+        });
+
+        cache.findById(1L);
+        cache.findById(1L);
+
+        verify(productRepository, times(2)).findById(1L);
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void missingProductIsNotCached() {
+        when(productRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertFalse(cache.findById(9L).isPresent());
+        assertEquals(0, cache.stats().size());
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        return product;
+    }
+}
@@ -0,0 +1,139 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.domain.ProductTombstone;
+import com.cs308.product.model.ChangeToken;
+import com.cs308.product.model.ProductChange;
+import com.cs308.product.model.ProductChanges;
+import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.ProductTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeFeedTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+    private static final Duration SETTLE = Duration.ofSeconds(5);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    private ProductChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ProductChangeFeed(productRepository, tombstoneRepository, SETTLE, Duration.ofDays(30),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void mergesUpsertsAndDeletesInFeedOrderAndReportsMore() {
+        Instant t = NOW.minusSeconds(60);
+        Instant until = NOW.minus(SETTLE);
+        when(productRepository.findChangedAfter(Instant.EPOCH, 0L, until, Limit.of(3)))
+                .thenReturn(List.of(product(7L, t), product(2L, t.plusSeconds(2))));
+        when(tombstoneRepository.findAfter(Instant.EPOCH, 0L, until, Limit.of(3)))
+                .thenReturn(List.of(tombstone(9L, t), tombstone(1L, t.plusSeconds(1))));
+
+        ProductChanges changes = feed.changes(null, 2);
+
+        assertEquals(List.of(7L, 9L), changes.getChanges().stream().map(ProductChange::getProductId).toList());
+        assertEquals(ProductChange.Type.UPSERT, changes.getChanges().get(0).getType());
+        assertEquals(ProductChange.Type.DELETE, changes.getChanges().get(1).getType());
+        assertNull(changes.getChanges().get(1).getProduct());
+        assertTrue(changes.isHasMore());
+
+        ChangeToken next = ChangeToken.decode(changes.getNextToken());
+        assertEquals(t, next.getChangedAt());
+        assertEquals(9L, next.getProductId());
+    }
+
+    @Test
+    void caughtUpConsumerMovesToTheSettleHorizon() {
+        Instant t = NOW.minusSeconds(60);
+        String since = ChangeToken.before(t, NOW.minusSeconds(60)).encode();
+        Instant until = NOW.minus(SETTLE);
+        when(productRepository.findChangedAfter(eq(t), eq(0L), eq(until), any())).thenReturn(List.of());
+        when(tombstoneRepository.findAfter(eq(t), eq(0L), eq(until), any())).thenReturn(List.of());
+
+        ProductChanges changes = feed.changes(since, null);
+
+        assertTrue(changes.getChanges().isEmpty());
+        assertFalse(changes.isHasMore());
+        assertEquals(until, ChangeToken.decode(changes.getNextToken()).getChangedAt());
+    }
+
+    @Test
+    void firstSyncPagesThroughProductsOlderThanRetention() {
+        Instant old = NOW.minus(Duration.ofDays(400));
+        Instant until = NOW.minus(SETTLE);
+        when(productRepository.findChangedAfter(Instant.EPOCH, 0L, until, Limit.of(2)))
+                .thenReturn(List.of(product(1L, old), product(2L, old.plusSeconds(1))));
+        when(tombstoneRepository.findAfter(any(), any(), any(), any())).thenReturn(List.of());
+        ProductChanges first = feed.changes(null, 1);
+        assertTrue(first.isHasMore());
+
+        when(productRepository.findChangedAfter(old, 1L, until, Limit.of(2)))
+                .thenReturn(List.of(product(2L, old.plusSeconds(1))));
+        ProductChanges second = feed.changes(first.getNextToken(), 1);
+
+        assertEquals(List.of(2L), second.getChanges().stream().map(ProductChange::getProductId).toList());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    void tokenIssuedLongerAgoThanTombstoneRetentionIsRejected() {
+        Instant issued = NOW.minus(Duration.ofDays(31));
+        String since = ChangeToken.before(issued.minusSeconds(60), issued).encode();
+
+        assertThrows(ChangeTokenExpiredException.class, () -> feed.changes(since, null));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> feed.changes("not-a-token", null));
+    }
+
+    @Test
+    void pruneDropsTombstonesPastRetention() {
+        feed.pruneTombstones();
+
+        verify(tombstoneRepository).deleteOlderThan(NOW.minus(Duration.ofDays(30)));
+    }
+
+    private static Product product(Long id, Instant updatedAt) {
+        Product product = Product.builder().id(id).name("Product " + id).build();
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+
+    private static ProductTombstone tombstone(Long productId, Instant deletedAt) {
+        return ProductTombstone.builder().productId(productId).deletedAt(deletedAt).build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ProductExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductExportService(productRepository, objectMapper);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    @Test
+    void writesOneLinePerProductAndDetachesEveryChunk() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        int total = ProductExportService.CHUNK_SIZE + 50;
+        when(productRepository.streamAllForExport()).thenReturn(LongStream.rangeClosed(1, total)
+                .mapToObj(id -> Product.builder().id(id).name("Product " + id).build())
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(total, service.exportNdjson(null, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(total, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("Product 1", first.get("name").asText());
+        assertEquals(total, objectMapper.readTree(lines[total - 1]).get("id").asLong());
+        verify(entityManager, times(2)).clear();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void sinceSelectsTheChangedProductsOnly() throws Exception {
+        Instant since = Instant.parse("2024-01-01T00:00:00Z");
+        when(productRepository.streamUpdatedSince(since)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, service.exportNdjson(since, out));
+        assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,183 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Product;
+import com.cs308.product.model.ProductImportResult;
+import com.cs308.product.model.ProductImportRow;
+import com.cs308.product.repository.ProductImportRepository;
+import com.cs308.product.search.ProductFacetIndex;
+import com.cs308.product.search.ProductSearchIndex;
+import com.cs308.product.search.ProductSuggester;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductImportRepository importRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggester suggester;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private VariantLookupService variantLookupService;
+
+    private ProductImportService service;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductImportService(importRepository, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager,
+                searchIndex, suggester, facetIndex, variantLookupService);
+    }
+
+    @Test
+    void ndjsonReportsBadRowsAndImportsTheRest() throws Exception {
+        answerWithSequentialIds();
+        String feed = product("Tee", "SKU-1") + "\n"
+                + "{not json\n"
+                + "\n"
+                + product("Jacket", "SKU-1") + "\n"
+                + "{\"name\":\"No price\"}\n"
+                + product("Hoodie", "SKU-2") + "\n";
+
+        ProductImportResult result = service.importNdjson(stream(feed));
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2L, 4L, 5L), result.getErrors().stream().map(ProductImportResult.RowError::getLine).toList());
+        assertEquals("Duplicate SKU SKU-1", result.getErrors().get(1).getMessage());
+        verify(importRepository, times(1)).insert(any(), any());
+        verify(searchIndex, times(2)).index(any(Product.class));
+        verify(variantLookupService).reindexProducts(List.of(1L, 2L));
+    }
+
+    @Test
+    void ndjsonWritesInBatches() throws Exception {
+        answerWithSequentialIds();
+        StringBuilder feed = new StringBuilder();
+        for (int i = 0; i < ProductImportService.BATCH_SIZE * 2 + 1; i++) {
+            feed.append(product("Product " + i, "SKU-" + i)).append('\n');
+        }
+
+        ProductImportResult result = service.importNdjson(stream(feed.toString()));
+
+        assertEquals(ProductImportService.BATCH_SIZE * 2 + 1, result.getImported());
+        verify(importRepository, times(3)).insert(any(), any());
+    }
+
+    @Test
+    void rejectedBatchIsRetriedRowByRow() throws Exception {
+        when(importRepository.insert(any(), any())).thenAnswer(invocation -> {
+            List<ProductImportRow> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getName().equals("Clash"))) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return LongStream.range(0, rows.size()).mapToObj(i -> nextId.getAndIncrement()).toList();
+        });
+        String feed = product("Tee", "SKU-1") + "\n" + product("Clash", "SKU-2") + "\n" + product("Hoodie", "SKU-3");
+
+        ProductImportResult result = service.importNdjson(stream(feed));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        verify(searchIndex, times(2)).index(any(Product.class));
+    }
+
+    @Test
+    void failedIndexUpdateDoesNotRetryCommittedRows() throws Exception {
+        answerWithSequentialIds();
+        doThrow(new QueryTimeoutException("variant reload timed out"))
+                .when(variantLookupService).reindexProducts(any());
+        String feed = product("Tee", "SKU-1") + "\n" + product("Hoodie", "SKU-2");
+
+        ProductImportResult result = service.importNdjson(stream(feed));
+
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getFailed());
+        verify(importRepository, times(1)).insert(any(), any());
+    }
+
+    @Test
+    void csvGroupsVariantRowsByProduct() throws Exception {
+        answerWithSequentialIds();
+        String feed = "name,price,stock,model,serialNumber,description,productType,targetAudience,"
+                + "warrantyStatus,distributorInfo,imageUrls,variant.sku,variant.color,variant.size,"
+                + "variant.stockQuantity,variant.price\r\n"
+                + "Tee,99.9,10,M1,SN-1,\"Soft, \"\"heavy\"\"\ncotton\",TSHIRT,UNISEX,STANDARD,Acme,a.jpg|b.jpg,"
+                + "TEE-B-M,BLACK,M,5,99.90\r\n"
+                + "Tee,99.9,10,M1,SN-1,ignored,TSHIRT,UNISEX,STANDARD,Acme,,TEE-W-M,WHITE,M,5,99.90\r\n"
+                + "Cap,x,1,M2,SN-2,Cap,HAT,UNISEX,STANDARD,Acme,,CAP-1,BLACK,M,1,10\r\n"
+                + "Cap,x,1,M2,SN-2,Cap,HAT,UNISEX,STANDARD,Acme,,CAP-2,WHITE,M,1,10\r\n"
+                + "Short row\r\n";
+
+        ProductImportResult result = service.importCsv(stream(feed));
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(5L, 7L), result.getErrors().stream().map(ProductImportResult.RowError::getLine).toList());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductImportRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(importRepository).insert(rows.capture(), any());
+        ProductImportRow tee = rows.getValue().get(0);
+        assertEquals("Soft, \"heavy\"\ncotton", tee.getDescription());
+        assertEquals(List.of("a.jpg", "b.jpg"), tee.getImageUrls());
+        assertEquals(List.of("TEE-B-M", "TEE-W-M"), tee.getVariants().stream().map(ProductImportRow.Variant::getSku).toList());
+        verify(facetIndex).index(argThat(product -> product.getVariants().size() == 2));
+    }
+
+    private void answerWithSequentialIds() {
+        when(importRepository.insert(any(), any())).thenAnswer(invocation -> {
+            List<ProductImportRow> rows = invocation.getArgument(0);
+            return LongStream.range(0, rows.size()).mapToObj(i -> nextId.getAndIncrement()).toList();
+        });
+    }
+
+    private static String product(String name, String sku) {
+        return "{\"name\":\"" + name + "\",\"price\":10.0,\"stock\":1,\"model\":\"M\",\"serialNumber\":\"SN-" + name
+                + "\",\"description\":\"d\",\"productType\":\"TSHIRT\",\"targetAudience\":\"UNISEX\","
+                + "\"warrantyStatus\":\"STANDARD\",\"distributorInfo\":\"Acme\",\"variants\":[{\"sku\":\"" + sku
+                + "\",\"color\":\"BLACK\",\"size\":\"M\",\"stockQuantity\":1,\"price\":10.0}]}";
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
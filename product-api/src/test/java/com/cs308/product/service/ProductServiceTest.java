@@ -1,14 +1,35 @@
 package com.cs308.product.service;
 
 import com.cs308.product.domain.Product;
+import com.cs308.product.domain.enums.Color;
 import com.cs308.product.domain.enums.Fit;
 
 import com.cs308.product.domain.enums.Season;
+import com.cs308.product.domain.enums.Size;
 import com.cs308.product.domain.enums.TargetAudience;
 import com.cs308.product.domain.enums.WarrantyStatus;
+import com.cs308.product.model.DiscountCampaignRequest;
+import com.cs308.product.model.DiscountCampaignResult;
+import com.cs308.product.model.ProductCursor;
+import com.cs308.product.model.ProductFilterRequest;
+import com.cs308.product.model.ProductPage;
 import com.cs308.product.model.ProductUpdateRequest;
+import com.cs308.product.model.StockReductionRequest;
 import com.cs308.product.model.StockRestoreRequest;
+import com.cs308.product.model.VariantLookup;
+import com.cs308.product.repository.CartItemRepository;
+import com.cs308.product.repository.OrderItemRepository;
 import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.ProductSort;
+import com.cs308.product.repository.ProductTombstoneRepository;
+import com.cs308.product.repository.ProductVariantRepository;
+import com.cs308.product.repository.ReviewRepository;
+import com.cs308.product.repository.StockRepository;
+import com.cs308.product.repository.WishlistItemRepository;
+import com.cs308.product.search.ProductFacetIndex;
+import com.cs308.product.search.ProductSearchIndex;
+import com.cs308.product.search.ProductSuggester;
+import com.cs308.product.search.VariantLookupIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -16,12 +37,24 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +63,51 @@ class ProductServiceTest {
     @Mock
     private ProductRepository repository;
 
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Mock
+    private ProductVariantRepository productVariantRepository;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggester suggester;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private VariantLookupIndex variantIndex;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private SalesCounter salesCounter;
+
+    @Mock
+    private RecentReviewFeed recentReviewFeed;
+
     @InjectMocks
     private ProductService service;
 
@@ -41,25 +119,244 @@ class ProductServiceTest {
     @Test
     void deleteRemovesExistingProduct() {
         service.delete(42L);
-        verify(repository).deleteById(42L);
+        verify(repository).deleteAllByIdIn(List.of(42L));
     }
 
     @Test
-    void restoreStockIncreasesQuantity() {
-        Product product = sampleProduct(10L);
-        product.setStock(5);
+    void bulkDeleteCascadesOneStatementPerTableAndChunk() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1500; id >= 1; id--) {
+            ids.add(id);
+        }
+        when(repository.deleteAllByIdIn(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        assertEquals(1500, service.deleteAll(ids));
+
+        verify(cartItemRepository, times(2)).deleteByProductIdIn(any());
+        verify(wishlistItemRepository, times(2)).deleteByProductIdIn(any());
+        verify(orderItemRepository, times(2)).deleteByProductIdIn(any());
+        verify(reviewRepository, times(2)).deleteByProductIdIn(any());
+        verify(repository, times(2)).deleteImagesOf(any());
+        verify(repository, times(2)).deleteVariantsOf(any());
+        verify(productTombstoneRepository, times(2)).recordDeletes(any(), any());
+        verify(repository, never()).deleteById(any());
+    }
+
+    @Test
+    void discountCampaignUpdatesEveryMatchInChunks() {
+        List<Long> matches = new ArrayList<>();
+        for (long id = 2500; id >= 1; id--) {
+            matches.add(id);
+        }
+        when(repository.searchIds(any())).thenReturn(matches);
+
+        DiscountCampaignResult result = service.applyDiscountCampaign(DiscountCampaignRequest.builder()
+                .brand("Acme")
+                .discountRate(20.0)
+                .build());
+
+        assertEquals(2500, result.getProductIds().size());
+        assertEquals(1L, result.getProductIds().get(0));
+        verify(repository, times(3)).applyDiscount(any(), eq(20.0), any());
+        verify(productCache).invalidate(2500L);
+    }
+
+    @Test
+    void discountCampaignWithoutSelectorIsRejected() {
+        DiscountCampaignRequest everything = DiscountCampaignRequest.builder().discountRate(50.0).build();
+
+        assertThrows(IllegalArgumentException.class, () -> service.applyDiscountCampaign(everything));
+        verify(repository, never()).applyDiscount(any(), anyDouble(), any());
+    }
+
+    @Test
+    void searchPageRejectsCursorFromAnotherSort() {
+        Product last = sampleProduct(3L);
+        String priceCursor = ProductCursor.after(ProductSort.PRICE_ASC, last).encode();
+
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setSort("nameAsc");
+        filter.setCursor(priceCursor);
+
+        assertThrows(InvalidCursorException.class, () -> service.searchPage(filter));
+    }
+
+    @Test
+    void searchPageReturnsNextCursorOnlyWhenMoreRowsExist() {
+        when(repository.searchPage(any(), eq(ProductSort.NAME_ASC), isNull(), eq(3)))
+                .thenReturn(List.of(sampleProduct(1L), sampleProduct(2L), sampleProduct(3L)));
+
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setLimit(2);
+        ProductPage<Product> page = service.searchPage(filter);
+
+        assertEquals(2, page.getItems().size());
+        ProductCursor next = ProductCursor.decode(page.getNextCursor());
+        assertEquals(ProductSort.NAME_ASC, next.getSort());
+        assertEquals(2L, next.getValues().get(1));
+    }
+
+    @Test
+    void queryTheIndexCannotAnswerFallsBackToLike() {
+        when(searchIndex.canAnswer("t")).thenReturn(false);
+
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setQ("t");
+        service.search(filter);
+
+        verify(searchIndex, never()).search(any());
+    }
+
+    @Test
+    void relevanceSortRanksByIndexScore() {
+        LinkedHashMap<Long, Double> ranked = new LinkedHashMap<>();
+        ranked.put(2L, 5.0);
+        ranked.put(1L, 1.0);
+        when(searchIndex.canAnswer("jacket")).thenReturn(true);
+        when(searchIndex.search("jacket")).thenReturn(ranked);
+        when(repository.searchAll(any(), eq(ProductSort.NAME_ASC)))
+                .thenReturn(List.of(sampleProduct(1L), sampleProduct(2L)));
+
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setQ("jacket");
+        List<Product> result = service.search(filter);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void reduceStockBatchMergesLinesAndFailsWholeBatchOnShortage() {
+        when(stockRepository.decrementStock(any(), any())).thenReturn(new int[] { 1, 0 });
+        when(repository.existsById(7L)).thenReturn(true);
+
+        StockReductionRequest request = new StockReductionRequest(List.of(
+                new StockReductionRequest.Line(7L, 1),
+                new StockReductionRequest.Line(3L, 2),
+                new StockReductionRequest.Line(7L, 4)));
+
+        OutOfStockException ex = assertThrows(OutOfStockException.class, () -> service.reduceStockBatch(request));
+        assertTrue(ex.getMessage().contains("7"));
+        // One line per product, in id order
+        verify(stockRepository).decrementStock(eq(new TreeMap<>(Map.of(3L, 2, 7L, 5))), any());
+    }
 
+    @Test
+    void restoreStockIncrementsTheProductAndTheNamedVariant() {
+        Product product = sampleProduct(10L);
+        when(productVariantRepository.findLookupsByProductIdIn(List.of(10L))).thenReturn(List.of(
+                variant(100L, 10L, Color.BLACK, Size.M), variant(101L, 10L, Color.BLACK, Size.L)));
+        when(stockRepository.restoreStock(10L, 101L, 3)).thenReturn(true);
         when(repository.findById(10L)).thenReturn(Optional.of(product));
-        when(repository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         StockRestoreRequest request = StockRestoreRequest.builder()
                 .productId(10L)
                 .quantity(3)
+                .size("l")
+                .build();
+
+        assertEquals(product, service.restoreStock(request));
+        verify(stockRepository).restoreStock(10L, 101L, 3);
+        verify(variantIndex).adjustStock(10L, 101L, 3);
+        verify(productCache).invalidate(10L);
+    }
+
+    @Test
+    void restoreStockOfALegacyLineRestoresOnlyTheProductTotal() {
+        Product product = sampleProduct(10L);
+        when(productVariantRepository.findLookupsByProductIdIn(List.of(10L))).thenReturn(List.of(
+                variant(100L, 10L, Color.BLACK, Size.M), variant(101L, 10L, Color.WHITE, Size.M)));
+        when(stockRepository.restoreStock(10L, null, 2)).thenReturn(true);
+        when(repository.findById(10L)).thenReturn(Optional.of(product));
+
+        StockRestoreRequest request = StockRestoreRequest.builder()
+                .productId(10L)
+                .quantity(2)
+                .size("M")
                 .build();
 
-        Product updated = service.restoreStock(request);
+        assertEquals(product, service.restoreStock(request));
+        verify(stockRepository).restoreStock(10L, null, 2);
+        verify(variantIndex, never()).adjustStock(any(), any(), anyInt());
+    }
+
+    @Test
+    void setVariantStockMovesTheProductTotalByTheDifference() {
+        Product product = sampleProduct(10L);
+        when(stockRepository.setVariantStock(10L, 101L, 8)).thenReturn(-2);
+        when(stockRepository.setVariantStock(10L, 999L, 8)).thenReturn(null);
+        when(repository.findById(10L)).thenReturn(Optional.of(product));
+
+        assertEquals(product, service.setVariantStock(10L, 101L, 8));
+        verify(variantIndex).adjustStock(10L, 101L, -2);
+        verify(productCache).invalidate(10L);
+        assertThrows(UnknownVariantException.class, () -> service.setVariantStock(10L, 999L, 8));
+        assertThrows(IllegalArgumentException.class, () -> service.setVariantStock(10L, 101L, -1));
+    }
 
-        assertEquals(8, updated.getStock());
+    @Test
+    void reduceStockBatchTakesVariantStockBeforeTheProductTotal() {
+        when(productVariantRepository.findLookupsByProductIdIn(any())).thenReturn(List.of(
+                variant(100L, 7L, Color.BLACK, Size.M), variant(101L, 7L, Color.WHITE, Size.M)));
+        when(stockRepository.decrementVariantStock(any(), any())).thenReturn(new int[] { 1, 1 });
+        when(stockRepository.decrementStock(any(), any())).thenReturn(new int[] { 1, 1 });
+
+        service.reduceStockBatch(new StockReductionRequest(List.of(
+                new StockReductionRequest.Line(7L, 1, Color.WHITE, "M"),
+                new StockReductionRequest.Line(3L, 2),
+                new StockReductionRequest.Line(7L, 2, Color.BLACK, "m"),
+                new StockReductionRequest.Line(7L, 1, Color.WHITE, null))));
+
+        verify(stockRepository).decrementVariantStock(eq(new TreeMap<>(Map.of(100L, 2, 101L, 2))), any());
+        verify(stockRepository).decrementStock(eq(new TreeMap<>(Map.of(3L, 2, 7L, 4))), any());
+        verify(variantIndex).adjustStock(7L, 101L, -2);
+    }
+
+    @Test
+    void variantShortageFailsTheBatchBeforeTouchingProducts() {
+        when(productVariantRepository.findLookupsByProductIdIn(any()))
+                .thenReturn(List.of(variant(100L, 7L, Color.BLACK, Size.M)));
+        when(stockRepository.decrementVariantStock(any(), any())).thenReturn(new int[] { 0 });
+
+        StockReductionRequest request = new StockReductionRequest(List.of(
+                new StockReductionRequest.Line(7L, 5, null, "M")));
+
+        OutOfStockException ex = assertThrows(OutOfStockException.class, () -> service.reduceStockBatch(request));
+        assertTrue(ex.getMessage().contains("7"));
+        verify(stockRepository, never()).decrementStock(any(), any());
+    }
+
+    @Test
+    void variantUnitsHeldByReservationsAreNotSoldToOtherOrders() {
+        when(productVariantRepository.findLookupsByProductIdIn(any()))
+                .thenReturn(List.of(variant(100L, 7L, Color.BLACK, Size.M)));
+        StockLedger.Key medium = new StockLedger.Key(7L, 100L);
+        when(stockLedger.heldByOthers(any(), eq(Map.of())))
+                .thenReturn(Map.of(medium, 1, StockLedger.Key.product(7L), 1));
+        when(stockLedger.heldByOthers(any(), eq(Map.of(medium, 1)))).thenReturn(Map.of());
+        when(stockRepository.decrementVariantStock(Map.of(100L, 1), Map.of(100L, 1))).thenReturn(new int[] { 0 });
+        when(stockRepository.decrementVariantStock(Map.of(100L, 1), Map.of(100L, 0))).thenReturn(new int[] { 1 });
+        when(stockRepository.decrementStock(any(), any())).thenReturn(new int[] { 1 });
+        List<StockReductionRequest.Line> lines = List.of(new StockReductionRequest.Line(7L, 1, null, "M"));
+
+        assertThrows(OutOfStockException.class, () -> service.reduceStockBatch(new StockReductionRequest(lines)));
+        service.reduceReservedStock(lines);
+
+        verify(stockRepository).decrementStock(Map.of(7L, 1), Map.of(7L, 0));
+    }
+
+    @Test
+    void lineThatDoesNotPickOneVariantIsRejected() {
+        when(productVariantRepository.findLookupsByProductIdIn(any())).thenReturn(List.of(
+                variant(100L, 7L, Color.BLACK, Size.M), variant(101L, 7L, Color.WHITE, Size.M)));
+
+        StockReductionRequest ambiguous = new StockReductionRequest(List.of(
+                new StockReductionRequest.Line(7L, 1, null, "M")));
+        StockReductionRequest unknownSize = new StockReductionRequest(List.of(
+                new StockReductionRequest.Line(7L, 1, Color.BLACK, "XXXL")));
+
+        assertThrows(UnknownVariantException.class, () -> service.reduceStockBatch(ambiguous));
+        assertThrows(UnknownVariantException.class, () -> service.reduceStockBatch(unknownSize));
+        verify(stockRepository, never()).decrementVariantStock(any(), any());
     }
 
     @Test
@@ -136,6 +433,10 @@ class ProductServiceTest {
         assertEquals(saved, saved.getImages().get(0).getProduct());
     }
 
+    private static VariantLookup variant(Long id, Long productId, Color color, Size size) {
+        return new VariantLookup(id, productId, "SKU-" + id, null, color, size, 5, new BigDecimal("99.90"));
+    }
+
     private Product sampleProduct(Long id) {
         return Product.builder()
                 .id(id)
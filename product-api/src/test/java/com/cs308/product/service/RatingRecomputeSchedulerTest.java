@@ -0,0 +1,100 @@
+package com.cs308.product.service;
+
+import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.RatingAggregateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RatingRecomputeSchedulerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RatingAggregateRepository ratingAggregateRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong now = new AtomicLong();
+    private RatingRecomputeScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new RatingRecomputeScheduler(productRepository, ratingAggregateRepository, productCache,
+                transactionManager, Duration.ofMillis(500), now::get);
+    }
+
+    @Test
+    void burstOfRatingsIsAppliedAsOneUpdatePerProduct() {
+        when(productRepository.applyRatingDelta(anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), any())).thenReturn(1);
+        scheduler.ratingAdded(1L, 12L, 5);
+        scheduler.ratingAdded(1L, 11L, 5);
+        scheduler.ratingAdded(1L, 13L, 3);
+        scheduler.ratingAdded(2L, 14L, 1);
+        assertEquals(2, scheduler.stats().dirty());
+
+        scheduler.recomputeDirty();
+
+        verify(productRepository).applyRatingDelta(eq(1L), eq(11L), eq(13L), eq(3L), eq(0L), eq(0L), eq(1L),
+                eq(0L), eq(2L), any());
+        verify(productRepository).applyRatingDelta(eq(2L), eq(14L), eq(1L), eq(1L), eq(1L), eq(0L), eq(0L),
+                eq(0L), eq(0L), any());
+        verify(ratingAggregateRepository, never()).resyncProduct(any());
+        verify(productCache).invalidate(1L);
+        RatingRecomputeScheduler.Stats stats = scheduler.stats();
+        assertEquals(0, stats.dirty());
+        assertEquals(4, stats.marked());
+        assertEquals(2, stats.recomputes());
+    }
+
+    @Test
+    void deltaAResyncAlreadyCountedFallsBackToARecompute() {
+        scheduler.ratingAdded(1L, 11L, 4);
+
+        scheduler.recomputeDirty();
+
+        verify(ratingAggregateRepository).resyncProduct(1L);
+        assertEquals(1, scheduler.stats().fallbacks());
+        verify(productCache).invalidate(1L);
+    }
+
+    @Test
+    void failedRecomputeKeepsTheDeltaForTheNextWindow() {
+        when(productRepository.applyRatingDelta(eq(1L), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), any()))
+                .thenThrow(new RuntimeException("lock timeout"))
+                .thenReturn(1);
+        scheduler.ratingAdded(1L, 11L, 4);
+
+        scheduler.recomputeDirty();
+        assertEquals(1, scheduler.stats().dirty());
+        scheduler.ratingAdded(1L, 10L, 2);
+        scheduler.recomputeDirty();
+
+        verify(productRepository).applyRatingDelta(eq(1L), eq(10L), eq(6L), eq(2L), eq(0L), eq(1L), eq(0L),
+                eq(1L), eq(0L), any());
+        assertEquals(0, scheduler.stats().dirty());
+        assertEquals(1, scheduler.stats().failures());
+    }
+}
@@ -0,0 +1,90 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.Review;
+import com.cs308.product.model.ReviewResponse;
+import com.cs308.product.repository.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecentReviewFeedTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    private RecentReviewFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        // Reviews 1..10, review 10 newest
+        List<Review> seeded = new ArrayList<>();
+        for (long id = 10; id >= 1; id--) {
+            seeded.add(review(id));
+        }
+        when(reviewRepository.findTop10ByApprovedTrueAndCommentIsNotNullOrderByCreatedAtDesc()).thenReturn(seeded);
+        feed = new RecentReviewFeed(reviewRepository);
+        feed.seed();
+    }
+
+    @Test
+    void servesTheSameImmutableListWithoutQuerying() {
+        List<ReviewResponse> first = feed.recent();
+
+        assertSame(first, feed.recent());
+        assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+        verify(reviewRepository, times(1)).findTop10ByApprovedTrueAndCommentIsNotNullOrderByCreatedAtDesc();
+    }
+
+    @Test
+    void approvalIsInsertedInSubmissionOrder() {
+        feed.approved(ReviewService.toResponse(review(11)));
+
+        List<Long> ids = feed.recent().stream().map(ReviewResponse::getId).toList();
+        assertEquals(List.of(11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L), ids);
+    }
+
+    @Test
+    void approvalOlderThanTheFeedIsIgnored() {
+        List<ReviewResponse> before = feed.recent();
+
+        feed.approved(ReviewService.toResponse(review(0)));
+
+        assertSame(before, feed.recent());
+    }
+
+    @Test
+    void removingAShownReviewReloads() {
+        feed.removed(42L);
+        verify(reviewRepository, times(1)).findTop10ByApprovedTrueAndCommentIsNotNullOrderByCreatedAtDesc();
+
+        feed.removed(5L);
+        verify(reviewRepository, times(2)).findTop10ByApprovedTrueAndCommentIsNotNullOrderByCreatedAtDesc();
+    }
+
+    private static Review review(long id) {
+        return Review.builder()
+                .id(id)
+                .productId(1L)
+                .userId(id)
+                .comment("comment " + id)
+                .approved(true)
+                .createdAt(T0.plusSeconds(id))
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.cs308.product.service;
+
+import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.StockRepository;
+import com.cs308.product.search.ProductSuggester;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SalesCounterTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductSuggester suggester;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new SalesCounter(stockRepository, productRepository, productCache, suggester, transactionManager);
+    }
+
+    @Test
+    void flushWritesAccumulatedIncrementsInOneBatch() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> counter.record(Map.of(1L, 1, 2L, 2)));
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        counter.flush();
+
+        verify(stockRepository).incrementSalesCounts(Map.of(1L, 1000L, 2L, 2000L));
+        verify(productCache).invalidate(1L);
+        verify(productRepository).findAllById(List.of(1L, 2L));
+        assertEquals(0, counter.pending(1L));
+    }
+
+    @Test
+    void flushWithNothingPendingSkipsTheDatabase() {
+        counter.record(Map.of(1L, 3));
+        counter.flush();
+        counter.flush();
+
+        verify(stockRepository).incrementSalesCounts(any());
+    }
+
+    @Test
+    void failedFlushKeepsIncrementsForTheNextAttempt() {
+        counter.record(Map.of(1L, 3));
+        doThrow(new RuntimeException("db down")).when(stockRepository).incrementSalesCounts(Map.of(1L, 3L));
+
+        counter.flush();
+
+        assertEquals(3, counter.pending(1L));
+        verify(transactionManager).rollback(any());
+        verify(productRepository, never()).findAllById(any());
+        verifyNoInteractions(productCache);
+    }
+}
@@ -0,0 +1,225 @@
+package com.cs308.product.service;
+
+import com.cs308.product.model.StockReductionRequest;
+import com.cs308.product.model.StockReservation;
+import com.cs308.product.model.StockReservationRequest;
+import com.cs308.product.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private ProductService productService;
+
+    private StockLedger ledger;
+    private MutableClock clock;
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        when(stockRepository.findStock(anyCollection())).thenReturn(Map.of(1L, 5, 2L, 3, 3L, 5));
+        when(stockRepository.findVariantStock(anyCollection())).thenReturn(Map.of(3L, Map.of(31L, 1, 32L, 4)));
+        // Product 3 has sizes M (variant 31) and L (variant 32)
+        when(productService.ledgerQuantities(anyList())).thenAnswer(invocation -> {
+            Map<StockLedger.Key, Integer> keyed = new HashMap<>();
+            for (StockReductionRequest.Line line : invocation.<List<StockReductionRequest.Line>>getArgument(0)) {
+                Long variantId = line.getSize() == null ? null : "M".equals(line.getSize()) ? 31L : 32L;
+                keyed.merge(new StockLedger.Key(line.getProductId(), variantId), line.getQuantity(), Integer::sum);
+            }
+            return keyed;
+        });
+        ledger = new StockLedger(stockRepository);
+        clock = new MutableClock();
+        service = new StockReservationService(ledger, productService, Duration.ofMinutes(10),
+                Duration.ofMinutes(30), clock);
+    }
+
+    @Test
+    void reservationsCannotOversellAvailableStock() {
+        service.reserve(request(10L, line(1L, 4)));
+
+        assertThrows(OutOfStockException.class, () -> service.reserve(request(11L, line(1L, 2))));
+        service.reserve(request(11L, line(1L, 1)));
+        assertEquals(5, ledger.reserved(1L));
+    }
+
+    @Test
+    void reservationsHoldTheVariantTheyName() {
+        service.reserve(request(10L, sized(3L, 1, "M")));
+
+        assertThrows(OutOfStockException.class, () -> service.reserve(request(11L, sized(3L, 1, "M"))));
+        service.reserve(request(11L, sized(3L, 4, "L")));
+        assertEquals(1, ledger.reserved(new StockLedger.Key(3L, 31L)));
+        assertEquals(5, ledger.reserved(3L));
+        assertEquals(Map.of(new StockLedger.Key(3L, 31L), 1, StockLedger.Key.product(3L), 1),
+                ledger.heldByOthers(List.of(new StockLedger.Key(3L, 31L), StockLedger.Key.product(3L)),
+                        Map.of(new StockLedger.Key(3L, 32L), 4)));
+    }
+
+    @Test
+    void newReservationReplacesTheUsersPreviousOne() {
+        service.reserve(request(10L, line(1L, 4)));
+        service.reserve(request(10L, line(1L, 5), line(2L, 1)));
+
+        assertEquals(5, ledger.reserved(1L));
+        assertEquals(1, service.openReservations());
+    }
+
+    @Test
+    void failedReplacementKeepsThePreviousReservation() {
+        StockReservation first = service.reserve(request(10L, line(1L, 2)));
+
+        assertThrows(OutOfStockException.class, () -> service.reserve(request(10L, line(2L, 4))));
+        assertEquals(2, ledger.reserved(1L));
+        service.release(first.getId(), 10L);
+        assertEquals(0, ledger.reserved(1L));
+    }
+
+    @Test
+    void confirmDecrementsAndReleasesTheHold() {
+        StockReservation reservation = service.reserve(request(10L, line(1L, 3)));
+
+        service.confirm(reservation.getId(), 10L, List.of(line(1L, 3)));
+
+        verify(productService).reduceReservedStock(List.of(line(1L, 3)));
+        assertEquals(0, ledger.reserved(1L));
+        assertThrows(ReservationNotFoundException.class,
+                () -> service.confirm(reservation.getId(), 10L, List.of(line(1L, 3))));
+    }
+
+    @Test
+    void failedConfirmStillReleasesTheHold() {
+        StockReservation reservation = service.reserve(request(10L, line(1L, 3)));
+        doThrow(new OutOfStockException(1L)).when(productService).reduceReservedStock(List.of(line(1L, 3)));
+
+        assertThrows(OutOfStockException.class,
+                () -> service.confirm(reservation.getId(), 10L, List.of(line(1L, 3))));
+        assertEquals(0, ledger.reserved(1L));
+    }
+
+    @Test
+    void anotherUserCannotConfirmOrReleaseTheReservation() {
+        StockReservation reservation = service.reserve(request(10L, line(1L, 3)));
+
+        assertThrows(ReservationNotFoundException.class,
+                () -> service.confirm(reservation.getId(), 11L, List.of(line(1L, 3))));
+        assertThrows(ReservationNotFoundException.class, () -> service.release(reservation.getId(), 11L));
+        assertEquals(3, ledger.reserved(1L));
+        assertEquals(1, service.openReservations());
+    }
+
+    @Test
+    void confirmRejectsAReservationForDifferentLines() {
+        StockReservation reservation = service.reserve(request(10L, line(1L, 3)));
+
+        assertThrows(ReservationMismatchException.class,
+                () -> service.confirm(reservation.getId(), 10L, List.of(line(1L, 2), line(2L, 1))));
+        verify(productService, never()).reduceReservedStock(anyList());
+        assertEquals(0, ledger.reserved(1L));
+        assertEquals(0, service.openReservations());
+    }
+
+    @Test
+    void sweepReleasesOnlyDueReservations() {
+        StockReservationRequest shortLived = request(10L, line(1L, 2));
+        shortLived.setTtlSeconds(60);
+        StockReservation expiring = service.reserve(shortLived);
+        service.reserve(request(11L, line(1L, 1)));
+
+        clock.advance(Duration.ofSeconds(61));
+        service.releaseExpired();
+
+        assertEquals(1, ledger.reserved(1L));
+        assertEquals(1, service.openReservations());
+        assertThrows(ReservationNotFoundException.class,
+                () -> service.confirm(expiring.getId(), 10L, List.of(line(1L, 2))));
+    }
+
+    @Test
+    void deletedProductsReleaseTheReservationsHoldingThem() {
+        StockReservation mixed = service.reserve(request(10L, line(1L, 2), sized(3L, 1, "M")));
+        service.reserve(request(11L, line(2L, 3)));
+
+        assertEquals(1, service.releaseProducts(List.of(3L)));
+
+        assertEquals(0, ledger.reserved(1L));
+        assertEquals(0, ledger.reserved(3L));
+        assertEquals(3, ledger.reserved(2L));
+        assertEquals(1, service.openReservations());
+        assertThrows(ReservationNotFoundException.class,
+                () -> service.confirm(mixed.getId(), 10L, List.of(line(1L, 2), sized(3L, 1, "M"))));
+    }
+
+    @Test
+    void ttlIsCappedAtTheMaximum() {
+        StockReservationRequest request = request(10L, line(1L, 1));
+        request.setTtlSeconds(24 * 3600);
+
+        StockReservation reservation = service.reserve(request);
+
+        assertEquals(clock.instant().plus(Duration.ofMinutes(30)), reservation.getExpiresAt());
+    }
+
+    private static StockReservationRequest request(Long userId, StockReductionRequest.Line... lines) {
+        return StockReservationRequest.builder()
+                .userId(userId)
+                .items(List.of(lines))
+                .build();
+    }
+
+    private static StockReductionRequest.Line line(Long productId, int quantity) {
+        return new StockReductionRequest.Line(productId, quantity);
+    }
+
+    private static StockReductionRequest.Line sized(Long productId, int quantity, String size) {
+        return new StockReductionRequest.Line(productId, quantity, null, size);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.cs308.product.service;
+
+import com.cs308.product.domain.enums.Color;
+import com.cs308.product.domain.enums.Size;
+import com.cs308.product.model.VariantLookup;
+import com.cs308.product.repository.ProductVariantRepository;
+import com.cs308.product.search.VariantLookupIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VariantLookupServiceTest {
+
+    @Mock
+    private ProductVariantRepository variantRepository;
+
+    private VariantLookupIndex index;
+
+    private VariantLookupService service;
+
+    @BeforeEach
+    void setUp() {
+        index = new VariantLookupIndex();
+        service = new VariantLookupService(index, variantRepository);
+    }
+
+    @Test
+    void indexHitsNeverTouchTheDatabase() {
+        index.rebuild(List.of(variant(1L, "TEE-1", "869001")));
+
+        assertThat(service.lookup("869001")).map(VariantLookup::getVariantId).contains(1L);
+        verify(variantRepository, never()).findLookupsByCodeIn(any());
+    }
+
+    @Test
+    void missesGoToTheDatabaseInOneQueryAndAreIndexed() {
+        index.rebuild(List.of(variant(1L, "TEE-1", null)));
+        when(variantRepository.findLookupsByCodeIn(List.of("869002", "nope", "TEE-3")))
+                .thenReturn(List.of(variant(3L, "TEE-3", null), variant(2L, "TEE-2", "869002")));
+
+        Map<String, VariantLookup> found = service.lookupAll(List.of("869002", "TEE-1", "nope", "TEE-3", "TEE-1"));
+
+        assertThat(found.keySet()).containsExactly("869002", "TEE-1", "TEE-3");
+        assertThat(found.get("869002").getVariantId()).isEqualTo(2L);
+        assertThat(index.find("TEE-2").getVariantId()).isEqualTo(2L);
+    }
+
+    @Test
+    void fallsBackToTheDatabaseUntilTheIndexIsLoaded() {
+        when(variantRepository.findLookupsByCodeIn(List.of("TEE-1"))).thenReturn(List.of(variant(1L, "TEE-1", null)));
+
+        assertThat(service.lookup("TEE-1")).isPresent();
+        assertThat(index.size()).isZero();
+    }
+
+    private static VariantLookup variant(Long id, String sku, String barcode) {
+        return new VariantLookup(id, 10L, sku, barcode, Color.BLACK, Size.M, 5, new BigDecimal("99.90"));
+    }
+}
@@ -3,7 +3,7 @@ package com.cs308.product.service;
 import com.cs308.product.domain.Product;
 import com.cs308.product.domain.Wishlist;
 import com.cs308.product.domain.WishlistItem;
-import com.cs308.product.repository.ProductRepository;
+import com.cs308.product.repository.WishlistItemRepository;
 import com.cs308.product.repository.WishlistRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,7 +30,10 @@ class WishlistServiceTest {
     private WishlistRepository wishlistRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Mock
+    private ProductCache productCache;
 
     @InjectMocks
     private WishlistService wishlistService;
@@ -68,7 +71,7 @@ class WishlistServiceTest {
 
         Product product = buildProduct(productId, 100.0);
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
         when(wishlistRepository.findByUserId(userId)).thenReturn(Optional.empty());
         when(wishlistRepository.save(any(Wishlist.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
@@ -84,7 +87,7 @@ class WishlistServiceTest {
         WishlistItem item = result.getItems().get(0);
         assertEquals(productId, item.getProduct().getId());
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
         verify(wishlistRepository).findByUserId(userId);
     }
 
@@ -102,7 +105,7 @@ class WishlistServiceTest {
         existingItem.setSize(size);
         wishlist.setItems(new ArrayList<>(List.of(existingItem)));
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productCache.findById(productId)).thenReturn(Optional.of(product));
         when(wishlistRepository.findByUserId(userId)).thenReturn(Optional.of(wishlist));
 
         // WHEN - THEN
@@ -111,7 +114,7 @@ class WishlistServiceTest {
 
         assertTrue(ex.getMessage().toLowerCase().contains("already"));
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
         verify(wishlistRepository).findByUserId(userId);
     }
 
@@ -122,13 +125,13 @@ class WishlistServiceTest {
         Long productId = 99L;
         String size = "L";
 
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productCache.findById(productId)).thenReturn(Optional.empty());
 
         // WHEN - THEN
         assertThrows(ProductNotFoundException.class,
                 () -> wishlistService.addToWishlist(userId, productId, size));
 
-        verify(productRepository).findById(productId);
+        verify(productCache).findById(productId);
     }
 
     @Test